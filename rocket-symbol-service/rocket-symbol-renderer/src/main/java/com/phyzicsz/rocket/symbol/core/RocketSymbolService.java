@@ -16,25 +16,52 @@
 package com.phyzicsz.rocket.symbol.core;
 
 import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
+import com.phyzicsz.rocket.symbol.core.cache.AccessProfile;
+import com.phyzicsz.rocket.symbol.core.cache.CacheSnapshot;
+import com.phyzicsz.rocket.symbol.core.cache.ComponentRegistry;
 import com.phyzicsz.rocket.symbol.core.exception.UnsupportedMimeType;
+import com.phyzicsz.rocket.symbol.core.raster.PngEncoder;
+import com.phyzicsz.rocket.symbol.core.raster.PngFilter;
+import com.phyzicsz.rocket.symbol.core.render.BatchEntry;
+import com.phyzicsz.rocket.symbol.core.render.ComponentPreloader;
 import com.phyzicsz.rocket.symbol.core.render.MilStdSymbolRenderer;
 import com.phyzicsz.rocket.symbol.core.render.ServiceConstants;
+import com.phyzicsz.rocket.symbol.core.render.SymbolImage;
+import com.phyzicsz.rocket.symbol.core.utils.ColorPalette;
+import com.phyzicsz.rocket.symbol.core.utils.ImageIOPool;
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import com.phyzicsz.rocket.symbol.core.utils.JpegEncoder;
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+import com.phyzicsz.rocket.symbol.core.utils.ScratchBuffers;
+import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import javax.imageio.ImageIO;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  *
  * @author phyzicsz <phyzics.z@gmail.com>
  */
-public class RocketSymbolService {
+public class RocketSymbolService implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RocketSymbolService.class);
 
     private final MilStdSymbolRenderer renderer = new MilStdSymbolRenderer();
     private final SymbolServiceProperties props = new SymbolServiceProperties();
+    private Thread snapshotHook;
+    private volatile boolean closed;
 
     public RocketSymbolService() {
         props.put(ServiceConstants.IMAGE_SIZE, 128);
@@ -47,59 +74,538 @@ public class RocketSymbolService {
         return this;
     }
 
+    /**
+     * Resampling used when symbols are scaled from the component size to the
+     * image size. Defaults to {@link ResizeQuality#BILINEAR}.
+     *
+     * @param quality Resampling to trade cost against smoothness.
+     * @return this service.
+     */
+    public RocketSymbolService withResizeQuality(final ResizeQuality quality) {
+        props.put(ServiceConstants.RESIZE_QUALITY, quality);
+
+        return this;
+    }
+
+    /**
+     * Deflate level of PNGs, 0 (stored) to 9 (smallest), or -1 for zlib's
+     * default. Defaults to {@link PngEncoder#DEFAULT_LEVEL}.
+     *
+     * @param level Deflate level.
+     * @return this service.
+     */
+    public RocketSymbolService withPngCompression(final int level) {
+        if (level < -1 || level > 9) {
+            logger.error("invalid compression level: {}", level);
+            throw new IllegalArgumentException("invalid compression level: " + level);
+        }
+        props.put(ServiceConstants.PNG_COMPRESSION_LEVEL, level);
+
+        return this;
+    }
+
+    /**
+     * Row filter of PNGs. Defaults to {@link PngEncoder#DEFAULT_FILTER}.
+     *
+     * @param filter Row filter strategy.
+     * @return this service.
+     */
+    public RocketSymbolService withPngFilter(final PngFilter filter) {
+        props.put(ServiceConstants.PNG_FILTER, filter);
+
+        return this;
+    }
+
+    /**
+     * Write PNGs as 8 bit palette images with an exact palette and a
+     * {@code tRNS} alpha table when that is smaller than the 32 bit image,
+     * typically 15 to 25 percent smaller for symbols of 128 pixels. Symbols
+     * with more than 256 colors are still written as 32 bit images. Pixels
+     * are unchanged either way.
+     *
+     * @param enabled true to write palette PNGs when possible.
+     * @return this service.
+     */
+    public RocketSymbolService withPngPalette(final boolean enabled) {
+        props.put(ServiceConstants.PNG_PALETTE, enabled);
+
+        return this;
+    }
+
+    /**
+     * Quality of JPEGs, 0 (smallest) to 1 (best). Defaults to
+     * {@link JpegEncoder#DEFAULT_QUALITY}.
+     *
+     * @param quality JPEG quality.
+     * @return this service.
+     */
+    public RocketSymbolService withJpegQuality(final float quality) {
+        if (!(quality >= 0f && quality <= 1f)) {
+            logger.error("invalid jpeg quality: {}", quality);
+            throw new IllegalArgumentException("invalid jpeg quality: " + quality);
+        }
+        props.put(ServiceConstants.JPEG_QUALITY, quality);
+
+        return this;
+    }
+
+    /**
+     * Color JPEGs are flattened onto, since JPEG has no transparency.
+     * Defaults to white. The color's alpha is ignored.
+     *
+     * @param color Background color.
+     * @return this service.
+     */
+    public RocketSymbolService withJpegBackground(final Color color) {
+        if (color == null) {
+            logger.error("jpeg background is null");
+            throw new IllegalArgumentException("jpeg background is null");
+        }
+        props.put(ServiceConstants.JPEG_BACKGROUND, color.getRGB());
+
+        return this;
+    }
+
+    /**
+     * Produce and cache renders as 8 bit indexed color images with an exact
+     * palette, a quarter of the memory of ARGB renders. Symbols with more
+     * than 256 colors, usually large antialiased ones, stay ARGB. Images
+     * returned by {@link #asBufferedImage} are ARGB copies either way.
+     *
+     * @param enabled true to cache indexed color renders.
+     * @return this service.
+     */
+    public RocketSymbolService withIndexedColor(final boolean enabled) {
+        props.put(ServiceConstants.INDEXED_COLOR, enabled);
+
+        return this;
+    }
+
+    /**
+     * Pack decoded symbol components into a few large atlas pages instead of
+     * keeping one image per component. This is a process wide setting:
+     * components are shared by every service in the JVM, so it applies to all
+     * of them, including services that already exist.
+     *
+     * @param enabled true to use the component atlas.
+     */
+    public static void setComponentAtlas(final boolean enabled) {
+        ComponentRegistry.shared().setAtlasEnabled(enabled);
+    }
+
+    /**
+     * Preloader that decodes symbol components into the shared component
+     * cache in parallel, e.g. {@code service.preloader().preload()} on a
+     * dedicated rendering node.
+     *
+     * @return a preloader for this service's renderer.
+     */
+    public ComponentPreloader preloader() {
+        return new ComponentPreloader(renderer);
+    }
+
+    /**
+     * Warm the caches from a snapshot file, if one exists, and write the
+     * caches back to the same file when the JVM shuts down. A snapshot that
+     * cannot be read is logged and ignored, and the service starts cold. The
+     * snapshot is not written once the service is closed, and calling this
+     * again replaces the previous snapshot file.
+     *
+     * @param path Snapshot file.
+     * @return this service.
+     */
+    public synchronized RocketSymbolService withCacheSnapshot(final Path path) {
+        try {
+            restoreCacheSnapshot(path);
+        } catch (IOException ex) {
+            logger.error("ignoring unreadable cache snapshot {}", path, ex);
+        }
+
+        removeSnapshotHook();
+        snapshotHook = new Thread(() -> saveSnapshotOnShutdown(path), "rocket-cache-snapshot");
+        Runtime.getRuntime().addShutdownHook(snapshotHook);
+
+        return this;
+    }
+
+    /**
+     * Shutdown hook body. After {@link #close()} the shared caches may
+     * already be cleared, so writing them would replace a good snapshot with
+     * an empty one.
+     */
+    void saveSnapshotOnShutdown(final Path path) {
+        if (closed) {
+            return;
+        }
+        try {
+            saveCacheSnapshot(path);
+        } catch (IOException ex) {
+            logger.error("failed to write cache snapshot", ex);
+        }
+    }
+
+    /**
+     * @return the registered snapshot shutdown hook, or null.
+     */
+    synchronized Thread snapshotHook() {
+        return snapshotHook;
+    }
+
+    private synchronized void removeSnapshotHook() {
+        if (snapshotHook == null) {
+            return;
+        }
+        try {
+            Runtime.getRuntime().removeShutdownHook(snapshotHook);
+        } catch (IllegalStateException ex) {
+            // the JVM is already shutting down, the hook checks closed
+        }
+        snapshotHook = null;
+    }
+
+    /**
+     * Write the decoded component and rendered symbol caches to a snapshot.
+     *
+     * @param path Snapshot file.
+     * @return number of images written.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public int saveCacheSnapshot(final Path path) throws IOException {
+        return CacheSnapshot.write(path, renderer.getAssetVersion(),
+                renderer.getComponentCache(), renderer.getRenderCache());
+    }
+
+    /**
+     * Write the decoded component and rendered symbol caches to a snapshot,
+     * putting the components that are hot in the given profile first.
+     *
+     * @param path Snapshot file.
+     * @param profile Access profile, for example one saved from
+     * {@link #accessProfile()} on a production node.
+     * @return number of images written.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public int saveCacheSnapshot(final Path path, final AccessProfile profile) throws IOException {
+        return CacheSnapshot.write(path, renderer.getAssetVersion(),
+                renderer.getComponentCache(), renderer.getRenderCache(), profile);
+    }
+
+    /**
+     * Restore the decoded component and rendered symbol caches from a
+     * snapshot. Snapshots built from other assets are ignored.
+     *
+     * @param path Snapshot file.
+     * @return number of images restored.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    public int restoreCacheSnapshot(final Path path) throws IOException {
+        return restoreCacheSnapshot(path, false);
+    }
+
+    /**
+     * Restore the caches from a snapshot, optionally only the hot components
+     * and renders at the front of the file.
+     *
+     * @param path Snapshot file.
+     * @param hotOnly true to skip the cold components.
+     * @return number of images restored.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    public int restoreCacheSnapshot(final Path path, final boolean hotOnly) throws IOException {
+        return CacheSnapshot.read(path, renderer.getAssetVersion(),
+                renderer.getComponentCache(), renderer.getRenderCache(), hotOnly);
+    }
+
+    /**
+     * Component access counts recorded since the process started.
+     *
+     * @return the access profile.
+     */
+    public AccessProfile accessProfile() {
+        return AccessProfile.of(renderer.getComponentCache());
+    }
+
     public BufferedImage asBufferedImage(final String symbolCode) throws IOException, UnsupportedMimeType {
         return renderer.createIcon(symbolCode, props);
     }
 
-    public byte[] asPng(final String symbolCode) throws IOException, UnsupportedMimeType {
-        BufferedImage image = renderer.createIcon(symbolCode, props);
+    /**
+     * Like {@link #asBufferedImage}, but return a read only handle on the
+     * cached render, copying it only if {@link SymbolImage#toBufferedImage()}
+     * is called.
+     *
+     * @param symbolCode SIDC of the symbol.
+     * @return a read only handle on the symbol.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public SymbolImage asSymbolImage(final String symbolCode) throws IOException, UnsupportedMimeType {
+        return renderer.symbolImage(symbolCode, props);
+    }
 
-        byte[] bytes;
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            ImageIO.write(image, "png", baos);
-            baos.flush();
-            bytes = baos.toByteArray();
-        }
-        return bytes;
+    /**
+     * Draw a symbol at the service's image size into an existing image, for
+     * example a map tile, with its upper left corner at (x, y).
+     *
+     * @param symbolCode SIDC of the symbol.
+     * @param dest Image to draw into.
+     * @param x Horizontal position in dest.
+     * @param y Vertical position in dest.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public void drawInto(final String symbolCode, final BufferedImage dest, final int x, final int y)
+            throws IOException, UnsupportedMimeType {
+        renderer.renderInto(symbolCode, props, dest, x, y, imageSize());
+    }
+
+    /**
+     * Draw a symbol at the service's image size into a canvas of
+     * non-premultiplied ARGB pixels with its upper left corner at (x, y).
+     *
+     * @param symbolCode SIDC of the symbol.
+     * @param pixels Canvas pixels, row by row.
+     * @param width Canvas width, also the length of a row.
+     * @param height Canvas height.
+     * @param x Horizontal position in the canvas.
+     * @param y Vertical position in the canvas.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public void drawInto(final String symbolCode, final int[] pixels, final int width, final int height,
+            final int x, final int y) throws IOException, UnsupportedMimeType {
+        renderer.renderInto(symbolCode, props, pixels, width, height, x, y, imageSize());
+    }
+
+    /**
+     * Draw a batch of symbols into one existing image, such as a contact sheet
+     * or atlas. Each entry carries its own options and is fitted into its
+     * rectangle; the service's image size is not used.
+     *
+     * @param entries Symbols and their rectangles in dest.
+     * @param dest Image to draw into.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public void drawBatch(final List<BatchEntry> entries, final BufferedImage dest)
+            throws IOException, UnsupportedMimeType {
+        renderer.renderBatch(entries, dest);
+    }
+
+    /**
+     * Draw a batch of symbols into a new transparent image.
+     *
+     * @param entries Symbols and their rectangles in the image.
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @return a new {@code TYPE_INT_ARGB} image.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public BufferedImage asBatchImage(final List<BatchEntry> entries, final int width, final int height)
+            throws IOException, UnsupportedMimeType {
+        BufferedImage dest = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        renderer.renderBatch(entries, dest);
+        return dest;
+    }
+
+    public byte[] asPng(final String symbolCode) throws IOException, UnsupportedMimeType {
+        return encode(symbolCode, "png").toByteArray();
     }
     
     public byte[] asJpg(final String symbolCode) throws IOException, UnsupportedMimeType {
-        BufferedImage image = renderer.createIcon(symbolCode, props);
+        return encode(symbolCode, "jpg").toByteArray();
+    }
 
-        byte[] bytes;
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            ImageIO.write(image, "jpg", baos);
-            baos.flush();
-            bytes = baos.toByteArray();
-        }
-        return bytes;
+    /**
+     * Write a symbol as PNG to a stream, for example an HTTP response. The
+     * stream is not flushed or closed.
+     *
+     * @param symbolCode Symbol to write.
+     * @param out Stream receiving the PNG.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public void writePng(final String symbolCode, final OutputStream out) throws IOException, UnsupportedMimeType {
+        encode(symbolCode, "png").writeTo(out);
+    }
+
+    /**
+     * Write a symbol as PNG to a channel in a single buffer. The channel is
+     * not closed.
+     *
+     * @param symbolCode Symbol to write.
+     * @param channel Channel receiving the PNG, in blocking mode.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public void writePng(final String symbolCode, final WritableByteChannel channel)
+            throws IOException, UnsupportedMimeType {
+        write(encode(symbolCode, "png"), channel);
+    }
+
+    /**
+     * Put a symbol as PNG into a buffer at its position.
+     *
+     * @param symbolCode Symbol to write.
+     * @param dest Buffer receiving the PNG.
+     * @return the number of bytes written.
+     * @throws java.nio.BufferOverflowException if the PNG does not fit in the
+     * buffer's remaining space; nothing is written then.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public int writePng(final String symbolCode, final ByteBuffer dest) throws IOException, UnsupportedMimeType {
+        return write(encode(symbolCode, "png"), dest);
+    }
+
+    /**
+     * Write a symbol as JPEG to a stream. The stream is not flushed or closed.
+     *
+     * @param symbolCode Symbol to write.
+     * @param out Stream receiving the JPEG.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public void writeJpg(final String symbolCode, final OutputStream out) throws IOException, UnsupportedMimeType {
+        encode(symbolCode, "jpg").writeTo(out);
+    }
+
+    /**
+     * Write a symbol as JPEG to a channel in a single buffer. The channel is
+     * not closed.
+     *
+     * @param symbolCode Symbol to write.
+     * @param channel Channel receiving the JPEG, in blocking mode.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public void writeJpg(final String symbolCode, final WritableByteChannel channel)
+            throws IOException, UnsupportedMimeType {
+        write(encode(symbolCode, "jpg"), channel);
+    }
+
+    /**
+     * Put a symbol as JPEG into a buffer at its position.
+     *
+     * @param symbolCode Symbol to write.
+     * @param dest Buffer receiving the JPEG.
+     * @return the number of bytes written.
+     * @throws java.nio.BufferOverflowException if the JPEG does not fit in the
+     * buffer's remaining space; nothing is written then.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public int writeJpg(final String symbolCode, final ByteBuffer dest) throws IOException, UnsupportedMimeType {
+        return write(encode(symbolCode, "jpg"), dest);
     }
     
     public void pngToFile(final String symbolCode, final String path) throws IOException, UnsupportedMimeType {
-        BufferedImage image = renderer.createIcon(symbolCode, props);
-
-        byte[] bytes;
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            ImageIO.write(image, "png", baos);
-            baos.flush();
-            bytes = baos.toByteArray();
-        }
-        
-        Path filepath = Paths.get(path);
-        Files.write(filepath, bytes);
+        pngToFile(symbolCode, Paths.get(path));
     }
     
     public void pngToFile(final String symbolCode, final Path path) throws IOException, UnsupportedMimeType {
-        BufferedImage image = renderer.createIcon(symbolCode, props);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writePng(symbolCode, channel);
+        }
+    }
 
-        byte[] bytes;
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            ImageIO.write(image, "png", baos);
-            baos.flush();
-            bytes = baos.toByteArray();
+    private static void write(final ByteArrayOutputStream encoded, final WritableByteChannel channel)
+            throws IOException {
+        ByteBuffer bytes = ScratchBuffers.contents(encoded);
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
         }
-        
-        Files.write(path, bytes);
     }
 
+    private static int write(final ByteArrayOutputStream encoded, final ByteBuffer dest) {
+        ByteBuffer bytes = ScratchBuffers.contents(encoded);
+        int length = bytes.remaining();
+        dest.put(bytes);
+        return length;
+    }
+
+    private int imageSize() {
+        Object size = props.get(ServiceConstants.IMAGE_SIZE);
+        return size instanceof Integer ? (Integer) size : ServiceConstants.DEFAULT_IMAGE_SIZE;
+    }
+
+    /**
+     * Encode a symbol. The shared render is encoded directly, converted in this
+     * thread's scratch image if it is not {@code TYPE_INT_ARGB}, and written to
+     * one of this thread's scratch output buffers, which is returned. Callers
+     * copy the bytes out before encoding again on the same thread. PNGs are
+     * written by {@link PngEncoder}, JPEGs by {@link JpegEncoder} and other
+     * formats by this thread's pooled ImageIO writer. With palette PNGs
+     * enabled both forms are encoded and the smaller kept; the uncompressed
+     * palette can outweigh the smaller pixel data on small antialiased
+     * symbols.
+     */
+    private ByteArrayOutputStream encode(final String symbolCode, final String format) throws IOException, UnsupportedMimeType {
+        BufferedImage image = renderer.sharedIcon(symbolCode, props);
+        if (image.getType() != BufferedImage.TYPE_INT_ARGB) {
+            image = ImageUtils.toIntArgb(image,
+                    ScratchBuffers.image(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB));
+        }
+
+        ByteArrayOutputStream baos = ScratchBuffers.output();
+        if ("png".equals(format)) {
+            WritableRaster raster = image.getRaster();
+            int[] pixels = PixelKernels.data(raster);
+            int offset = PixelKernels.offset(raster);
+            int scanline = PixelKernels.scanline(raster);
+            ColorPalette palette = Boolean.TRUE.equals(props.get(ServiceConstants.PNG_PALETTE))
+                    ? ColorPalette.of(pixels, offset, scanline, image.getWidth(), image.getHeight())
+                    : null;
+            PngEncoder.encode(pixels, offset, scanline, image.getWidth(), image.getHeight(),
+                    pngLevel(), pngFilter(), baos);
+            if (palette != null) {
+                ByteArrayOutputStream indexed = ScratchBuffers.output(1);
+                PngEncoder.encode(pixels, offset, scanline, image.getWidth(), image.getHeight(),
+                        palette, pngLevel(), pngFilter(), indexed);
+                if (indexed.size() < baos.size()) {
+                    return indexed;
+                }
+            }
+        } else if ("jpg".equals(format)) {
+            WritableRaster raster = image.getRaster();
+            JpegEncoder.encode(PixelKernels.data(raster), PixelKernels.offset(raster), PixelKernels.scanline(raster),
+                    image.getWidth(), image.getHeight(), jpegBackground(), jpegQuality(), baos);
+        } else {
+            ImageIOPool.write(image, format, baos);
+        }
+        return baos;
+    }
+
+    private int pngLevel() {
+        Object level = props.get(ServiceConstants.PNG_COMPRESSION_LEVEL);
+        return level instanceof Integer ? (Integer) level : PngEncoder.DEFAULT_LEVEL;
+    }
+
+    private float jpegQuality() {
+        Object quality = props.get(ServiceConstants.JPEG_QUALITY);
+        return quality instanceof Float ? (Float) quality : JpegEncoder.DEFAULT_QUALITY;
+    }
+
+    private int jpegBackground() {
+        Object background = props.get(ServiceConstants.JPEG_BACKGROUND);
+        return background instanceof Integer ? (Integer) background : JpegEncoder.DEFAULT_BACKGROUND;
+    }
+
+    private PngFilter pngFilter() {
+        Object filter = props.get(ServiceConstants.PNG_FILTER);
+        return filter instanceof PngFilter ? (PngFilter) filter : PngEncoder.DEFAULT_FILTER;
+    }
+
+    /**
+     * Release this service's reference to the shared symbol components and
+     * drop the cache snapshot shutdown hook, if any.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        removeSnapshotHook();
+        renderer.close();
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Access frequency profile of symbol components. A profile decides the order
+ * components are laid out in a snapshot: the hot components that make up most
+ * of the accesses go first, grouped by scheme and affiliation, followed by the
+ * rest in path order.
+ * <p>
+ * Profiles are taken from the access counts a {@link ComponentCache} records
+ * and can be saved to and loaded from a text file of
+ * {@code <count> <path>} lines.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class AccessProfile {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessProfile.class);
+
+    /**
+     * Fraction of all accesses the hot components cover by default.
+     */
+    public static final double DEFAULT_HOT_FRACTION = 0.9;
+
+    private final Map<String, Long> counts;
+
+    public AccessProfile(Map<String, Long> counts) {
+        if (counts == null) {
+            logger.error("counts is null");
+            throw new IllegalArgumentException("counts is null");
+        }
+        this.counts = new HashMap<>(counts);
+    }
+
+    /**
+     * Profile of the accesses recorded by a component cache.
+     *
+     * @param components Component cache.
+     * @return the profile.
+     */
+    public static AccessProfile of(ComponentCache components) {
+        return new AccessProfile(components.accessCounts());
+    }
+
+    public static AccessProfile read(Path path) throws IOException {
+        Map<String, Long> counts = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                int split = line.indexOf(' ');
+                if (line.isEmpty() || line.startsWith("#") || split < 0) {
+                    continue;
+                }
+                try {
+                    counts.merge(line.substring(split + 1).trim(), Long.parseLong(line.substring(0, split)), Long::sum);
+                } catch (NumberFormatException ex) {
+                    logger.warn("skipping malformed profile line: {}", line);
+                }
+            }
+        }
+        return new AccessProfile(counts);
+    }
+
+    public void write(Path path) throws IOException {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(counts.entrySet());
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> entry : entries) {
+                writer.write(entry.getValue() + " " + entry.getKey());
+                writer.newLine();
+            }
+        }
+    }
+
+    public long count(String path) {
+        return counts.getOrDefault(path, 0L);
+    }
+
+    /**
+     * Order component paths hot first.
+     *
+     * @param paths Paths to order.
+     * @param hotFraction Fraction of all accesses the hot paths must cover.
+     * @return the paths, hot paths first. The first {@link Layout#getHotCount()}
+     * entries are the hot region.
+     */
+    public Layout layout(Collection<String> paths, double hotFraction) {
+        List<String> byCount = new ArrayList<>(paths);
+        byCount.sort(Comparator.comparingLong(this::count).reversed().thenComparing(Comparator.naturalOrder()));
+
+        long total = 0;
+        for (String path : byCount) {
+            total += count(path);
+        }
+
+        List<String> hot = new ArrayList<>();
+        List<String> cold = new ArrayList<>();
+        long covered = 0;
+        for (String path : byCount) {
+            if (count(path) > 0 && covered < total * hotFraction) {
+                hot.add(path);
+                covered += count(path);
+            } else {
+                cold.add(path);
+            }
+        }
+
+        // keep each scheme and affiliation together, busiest group first
+        Map<String, Long> groupTotals = new HashMap<>();
+        hot.forEach(path -> groupTotals.merge(group(path), count(path), Long::sum));
+        hot.sort(Comparator.comparingLong((String path) -> groupTotals.get(group(path))).reversed()
+                .thenComparing(AccessProfile::group)
+                .thenComparing(Comparator.comparingLong(this::count).reversed())
+                .thenComparing(Comparator.naturalOrder()));
+        cold.sort(Comparator.naturalOrder());
+
+        List<String> order = new ArrayList<>(hot);
+        order.addAll(cold);
+        return new Layout(order, hot.size());
+    }
+
+    /**
+     * Group of a component path: the scheme directory plus the affiliation
+     * (standard identity) character of the masked symbol code.
+     */
+    static String group(String path) {
+        int slash = path.lastIndexOf('/');
+        String dir = slash >= 0 ? path.substring(0, slash) : "";
+        char affiliation = path.length() > slash + 2 ? path.charAt(slash + 2) : '-';
+        return dir + "/" + affiliation;
+    }
+
+    /**
+     * Ordered component paths with the size of the hot region.
+     */
+    public static final class Layout {
+
+        private final List<String> order;
+        private final int hotCount;
+
+        Layout(List<String> order, int hotCount) {
+            this.order = order;
+            this.hotCount = hotCount;
+        }
+
+        public List<String> getOrder() {
+            return order;
+        }
+
+        public int getHotCount() {
+            return hotCount;
+        }
+    }
+}
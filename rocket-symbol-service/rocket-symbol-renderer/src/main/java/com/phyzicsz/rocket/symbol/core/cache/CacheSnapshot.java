@@ -0,0 +1,312 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.IndexColorModel;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes and restores the component and render caches to a single snapshot
+ * file so a restarted service does not have to go through a cold cache.
+ * <p>
+ * The file starts with an uncompressed header (magic, format version and the
+ * asset version the caches were built from) followed by a deflated body of
+ * raw rasters. Each image keeps its type: {@code TYPE_INT_ARGB_PRE} pixels
+ * are stored premultiplied and {@code TYPE_BYTE_INDEXED} images as their
+ * palette and indices, any other type is stored as {@code TYPE_INT_ARGB}. A
+ * snapshot whose header does not match is ignored.
+ * <p>
+ * The body is laid out hot first according to an {@link AccessProfile}: the
+ * hot components, then the rendered symbols, then the remaining components. A
+ * restart can preload just the front of the file and leave the cold
+ * components to be decoded on demand.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class CacheSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheSnapshot.class);
+
+    static final int MAGIC = 0x52535343; // "RSSC"
+    static final int FORMAT_VERSION = 3;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private CacheSnapshot() {
+
+    }
+
+    /**
+     * Write the caches to a snapshot file, laid out by the access counts the
+     * component cache recorded.
+     *
+     * @param path Snapshot file.
+     * @param assetVersion Version of the assets the caches were built from.
+     * @param components Component cache to write.
+     * @param renders Render cache to write.
+     * @return number of images written.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public static int write(Path path, String assetVersion, ComponentCache components, RenderCache renders) throws IOException {
+        return write(path, assetVersion, components, renders, AccessProfile.of(components));
+    }
+
+    /**
+     * Write the caches to a snapshot file. The file is written next to the
+     * target and moved into place so a crash never leaves a partial snapshot.
+     *
+     * @param path Snapshot file.
+     * @param assetVersion Version of the assets the caches were built from.
+     * @param components Component cache to write.
+     * @param renders Render cache to write.
+     * @param profile Access profile deciding which components are hot.
+     * @return number of images written.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public static int write(Path path, String assetVersion, ComponentCache components, RenderCache renders,
+            AccessProfile profile) throws IOException {
+        if (path == null) {
+            logger.error("snapshot path is null");
+            throw new IllegalArgumentException("snapshot path is null");
+        }
+
+        Map<String, BufferedImage> componentMap = new HashMap<>(components.asMap());
+        AccessProfile.Layout layout = profile.layout(componentMap.keySet(), AccessProfile.DEFAULT_HOT_FRACTION);
+        List<String> order = layout.getOrder();
+        List<String> hot = order.subList(0, layout.getHotCount());
+        List<String> cold = order.subList(layout.getHotCount(), order.size());
+
+        Path parent = path.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        int count = 0;
+        try {
+            try (OutputStream os = new BufferedOutputStream(Files.newOutputStream(tmp), BUFFER_SIZE)) {
+                DataOutputStream header = new DataOutputStream(os);
+                header.writeInt(MAGIC);
+                header.writeInt(FORMAT_VERSION);
+                header.writeUTF(assetVersion);
+                header.flush();
+
+                Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+                try {
+                    DeflaterOutputStream dos = new DeflaterOutputStream(os, deflater, BUFFER_SIZE);
+                    DataOutputStream body = new DataOutputStream(dos);
+                    count += writeSection(body, hot, componentMap);
+                    Map<String, BufferedImage> renderMap = new HashMap<>(renders.asMap());
+                    count += writeSection(body, new ArrayList<>(renderMap.keySet()), renderMap);
+                    count += writeSection(body, cold, componentMap);
+                    body.flush();
+                    dos.finish();
+                } finally {
+                    deflater.end();
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+
+        logger.info("wrote {} cached images ({} hot components) to snapshot {}", count, hot.size(), path);
+        return count;
+    }
+
+    /**
+     * Restore the caches from a snapshot file. Missing snapshots, snapshots of
+     * another format and snapshots built from a different asset version are
+     * ignored.
+     *
+     * @param path Snapshot file.
+     * @param assetVersion Version of the assets currently in use.
+     * @param components Component cache to fill.
+     * @param renders Render cache to fill.
+     * @return number of images restored.
+     * @throws IOException if a matching snapshot cannot be read.
+     */
+    public static int read(Path path, String assetVersion, ComponentCache components, RenderCache renders) throws IOException {
+        return read(path, assetVersion, components, renders, false);
+    }
+
+    /**
+     * Restore the caches from a snapshot file, optionally stopping after the
+     * hot region at the front of the file.
+     *
+     * @param path Snapshot file.
+     * @param assetVersion Version of the assets currently in use.
+     * @param components Component cache to fill.
+     * @param renders Render cache to fill.
+     * @param hotOnly true to restore only hot components and renders.
+     * @return number of images restored.
+     * @throws IOException if a matching snapshot cannot be read or is
+     * corrupt; the caches are left unchanged then.
+     */
+    public static int read(Path path, String assetVersion, ComponentCache components, RenderCache renders,
+            boolean hotOnly) throws IOException {
+        if (path == null) {
+            logger.error("snapshot path is null");
+            throw new IllegalArgumentException("snapshot path is null");
+        }
+
+        // staged so that a truncated or corrupt snapshot leaves the caches untouched
+        Map<String, BufferedImage> restoredComponents = new LinkedHashMap<>();
+        Map<String, BufferedImage> restoredRenders = new LinkedHashMap<>();
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE)) {
+            DataInputStream header = new DataInputStream(is);
+            if (header.readInt() != MAGIC || header.readInt() != FORMAT_VERSION) {
+                logger.warn("ignoring snapshot {}: unknown format", path);
+                return 0;
+            }
+            String version = header.readUTF();
+            if (!version.equals(assetVersion)) {
+                logger.warn("ignoring snapshot {}: asset version {} does not match {}", path, version, assetVersion);
+                return 0;
+            }
+
+            DataInputStream body = new DataInputStream(new InflaterInputStream(is));
+            readSection(body, restoredComponents::put);
+            readSection(body, restoredRenders::put);
+            if (!hotOnly) {
+                readSection(body, restoredComponents::put);
+            }
+        } catch (NoSuchFileException ex) {
+            logger.info("no snapshot at {}", path);
+            return 0;
+        }
+
+        restoredComponents.forEach(components::put);
+        restoredRenders.forEach(renders::put);
+        int count = restoredComponents.size() + restoredRenders.size();
+
+        logger.info("restored {} cached images from snapshot {}", count, path);
+        return count;
+    }
+
+    private static int writeSection(DataOutputStream out, List<String> keys, Map<String, BufferedImage> images) throws IOException {
+        out.writeInt(keys.size());
+
+        byte[] bytes = new byte[0];
+        for (String key : keys) {
+            BufferedImage image = images.get(key);
+            int w = image.getWidth();
+            int h = image.getHeight();
+            int type = image.getType();
+
+            out.writeUTF(key);
+            out.writeByte(isIndexed(image) ? BufferedImage.TYPE_BYTE_INDEXED
+                    : type == BufferedImage.TYPE_INT_ARGB_PRE ? type : BufferedImage.TYPE_INT_ARGB);
+            out.writeShort(w);
+            out.writeShort(h);
+            if (isIndexed(image)) {
+                // palette, then one index byte per pixel
+                IndexColorModel cm = (IndexColorModel) image.getColorModel();
+                int[] palette = new int[cm.getMapSize()];
+                cm.getRGBs(palette);
+                out.writeShort(palette.length);
+                for (int c : palette) {
+                    out.writeInt(c);
+                }
+                out.write((byte[]) image.getRaster().getDataElements(0, 0, w, h, null));
+                continue;
+            }
+
+            // the raw pixels of a premultiplied image, getRGB would round them
+            int[] pixels = type == BufferedImage.TYPE_INT_ARGB_PRE || type == BufferedImage.TYPE_INT_ARGB
+                    ? (int[]) image.getRaster().getDataElements(0, 0, w, h, null)
+                    : image.getRGB(0, 0, w, h, null, 0, w);
+            if (bytes.length < pixels.length * 4) {
+                bytes = new byte[pixels.length * 4];
+            }
+            ByteBuffer.wrap(bytes).asIntBuffer().put(pixels);
+            out.write(bytes, 0, pixels.length * 4);
+        }
+        return keys.size();
+    }
+
+    private static int readSection(DataInputStream in, BiConsumer<String, BufferedImage> sink) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new IOException("corrupt snapshot: " + count + " images");
+        }
+
+        byte[] bytes = new byte[0];
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            int type = in.readUnsignedByte();
+            int w = in.readUnsignedShort();
+            int h = in.readUnsignedShort();
+            if (w == 0 || h == 0 || (long) w * h * 4 > Integer.MAX_VALUE - 8) {
+                throw new IOException("corrupt snapshot: image " + key + " is " + w + "x" + h);
+            }
+
+            BufferedImage image;
+            if (type == BufferedImage.TYPE_BYTE_INDEXED) {
+                int size = in.readUnsignedShort();
+                if (size == 0 || size > 256) {
+                    throw new IOException("corrupt snapshot: image " + key + " has " + size + " colors");
+                }
+                int[] palette = new int[size];
+                for (int c = 0; c < size; c++) {
+                    palette[c] = in.readInt();
+                }
+                image = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_INDEXED,
+                        new IndexColorModel(8, size, palette, 0, true, -1, DataBuffer.TYPE_BYTE));
+                in.readFully(((DataBufferByte) image.getRaster().getDataBuffer()).getData());
+            } else if (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_ARGB_PRE) {
+                if (bytes.length < w * h * 4) {
+                    bytes = new byte[w * h * 4];
+                }
+                in.readFully(bytes, 0, w * h * 4);
+
+                image = new BufferedImage(w, h, type);
+                int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+                ByteBuffer.wrap(bytes, 0, w * h * 4).asIntBuffer().get(pixels);
+            } else {
+                throw new IOException("corrupt snapshot: image " + key + " has type " + type);
+            }
+            sink.accept(key, image);
+        }
+        return count;
+    }
+
+    private static boolean isIndexed(BufferedImage image) {
+        return image.getType() == BufferedImage.TYPE_BYTE_INDEXED && image.getColorModel().getPixelSize() == 8;
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Packs symbol components into a few large ARGB pages and keeps an index of
+ * the sub-rectangle each component occupies. Components handed out by the
+ * atlas are views that read their pixels straight from the page, so a fully
+ * loaded atlas is a handful of allocations instead of one per component.
+ * <p>
+ * Components are placed with a simple shelf packer. All components of a given
+ * size share shelves, so components of one size end up next to each other.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ComponentAtlas {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentAtlas.class);
+
+    public static final int DEFAULT_PAGE_SIZE = 2048;
+
+    private final int pageSize;
+    private final List<BufferedImage> pages = new CopyOnWriteArrayList<>();
+    private final Map<String, Region> index = new ConcurrentHashMap<>();
+
+    private int shelfX;
+    private int shelfY;
+    private int shelfHeight;
+
+    public ComponentAtlas() {
+        this(DEFAULT_PAGE_SIZE);
+    }
+
+    public ComponentAtlas(int pageSize) {
+        if (pageSize <= 0) {
+            logger.error("page size must be positive: {}", pageSize);
+            throw new IllegalArgumentException("page size must be positive");
+        }
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Copy a component into the atlas.
+     *
+     * @param key Key of the component.
+     * @param image Component to pack.
+     * @return A view of the packed component, or the image itself if it does
+     * not fit on a page.
+     */
+    public synchronized BufferedImage add(String key, BufferedImage image) {
+        Region region = index.get(key);
+        if (region != null) {
+            return view(region);
+        }
+
+        int w = image.getWidth();
+        int h = image.getHeight();
+        if (w > pageSize || h > pageSize) {
+            logger.debug("component {} does not fit on an atlas page", key);
+            return image;
+        }
+
+        if (shelfX + w > pageSize) {
+            shelfY += shelfHeight;
+            shelfX = 0;
+            shelfHeight = 0;
+        }
+        if (pages.isEmpty() || shelfY + h > pageSize) {
+            pages.add(new BufferedImage(pageSize, pageSize, BufferedImage.TYPE_INT_ARGB));
+            shelfX = 0;
+            shelfY = 0;
+            shelfHeight = 0;
+        }
+
+        region = new Region(pages.size() - 1, shelfX, shelfY, w, h);
+        int[] src = image.getRGB(0, 0, w, h, null, 0, w);
+        int[] dest = ((DataBufferInt) pages.get(region.page).getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < h; y++) {
+            System.arraycopy(src, y * w, dest, (region.y + y) * pageSize + region.x, w);
+        }
+
+        shelfX += w;
+        shelfHeight = Math.max(shelfHeight, h);
+        index.put(key, region);
+
+        return view(region);
+    }
+
+    /**
+     * Return a view of a packed component.
+     *
+     * @param key Key of the component.
+     * @return the component, or null if it is not in the atlas.
+     */
+    public BufferedImage get(String key) {
+        Region region = index.get(key);
+        return region != null ? view(region) : null;
+    }
+
+    public Region region(String key) {
+        return index.get(key);
+    }
+
+    public List<BufferedImage> pages() {
+        return Collections.unmodifiableList(pages);
+    }
+
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    private BufferedImage view(Region region) {
+        return pages.get(region.page).getSubimage(region.x, region.y, region.width, region.height);
+    }
+
+    /**
+     * Sub-rectangle of an atlas page holding one component.
+     */
+    public static final class Region {
+
+        private final int page;
+        private final int x;
+        private final int y;
+        private final int width;
+        private final int height;
+
+        Region(int page, int x, int y, int width, int height) {
+            this.page = page;
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        public int getPage() {
+            return page;
+        }
+
+        public int getX() {
+            return x;
+        }
+
+        public int getY() {
+            return y;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+    }
+}
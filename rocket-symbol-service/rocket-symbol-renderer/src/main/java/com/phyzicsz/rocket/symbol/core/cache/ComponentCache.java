@@ -0,0 +1,159 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Cache of decoded symbol components (fills, frames and icons) keyed by their
+ * resource path. Cached images are shared and must never be modified.
+ * <p>
+ * Components are stored as individual images unless the atlas is enabled, in
+ * which case they are packed into a {@link ComponentAtlas} and the cache holds
+ * views into the atlas pages.
+ * <p>
+ * Every lookup is counted so the access profile of a workload can be used to
+ * lay out snapshots, see {@link AccessProfile}.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ComponentCache {
+
+    private final Map<String, BufferedImage> components = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> accesses = new ConcurrentHashMap<>();
+
+    private volatile ComponentAtlas atlas;
+
+    /**
+     * Return the component for a path, decoding it with the loader if it is not
+     * already cached. Components the loader cannot find (null) are not cached.
+     * The loader runs outside any lock, so two threads missing the same path
+     * may both decode it; the first one to be stored is returned to both.
+     *
+     * @param path Resource path of the component.
+     * @param loader Function used to decode the component on a miss.
+     * @return The cached component, or null if it cannot be loaded.
+     */
+    public BufferedImage get(String path, Function<String, BufferedImage> loader) {
+        accesses.computeIfAbsent(path, p -> new LongAdder()).increment();
+        BufferedImage image = components.get(path);
+        if (image != null) {
+            return image;
+        }
+        image = loader.apply(path);
+        return image != null ? store(path, image, false) : null;
+    }
+
+    public BufferedImage getIfPresent(String path) {
+        return components.get(path);
+    }
+
+    public void put(String path, BufferedImage image) {
+        store(path, image, true);
+    }
+
+    /**
+     * Switch between storing components in an atlas and as individual images.
+     * Components that are already cached are moved to the new storage.
+     *
+     * @param enabled true to pack components into an atlas.
+     */
+    public synchronized void setAtlasEnabled(boolean enabled) {
+        if (enabled == (atlas != null)) {
+            return;
+        }
+
+        if (enabled) {
+            atlas = new ComponentAtlas();
+            // pack by height so components of the same size share shelves
+            List<Map.Entry<String, BufferedImage>> entries = new ArrayList<>(components.entrySet());
+            entries.sort(Comparator.comparingInt((Map.Entry<String, BufferedImage> e) -> e.getValue().getHeight())
+                    .reversed()
+                    .thenComparing(Map.Entry::getKey));
+            entries.forEach(e -> components.put(e.getKey(), atlas.add(e.getKey(), e.getValue())));
+        } else {
+            atlas = null;
+            components.replaceAll((path, image) -> ImageUtils.copy(image));
+        }
+    }
+
+    /**
+     * The atlas components are packed into.
+     *
+     * @return the atlas, or null if the atlas is disabled.
+     */
+    public ComponentAtlas getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * Read only view of the cached components.
+     *
+     * @return map of resource path to component.
+     */
+    public Map<String, BufferedImage> asMap() {
+        return Collections.unmodifiableMap(components);
+    }
+
+    /**
+     * Number of lookups of each component since the cache was created.
+     *
+     * @return map of resource path to lookup count.
+     */
+    public Map<String, Long> accessCounts() {
+        Map<String, Long> counts = new HashMap<>();
+        accesses.forEach((path, count) -> counts.put(path, count.sum()));
+        return counts;
+    }
+
+    public int size() {
+        return components.size();
+    }
+
+    public synchronized void clear() {
+        components.clear();
+        if (atlas != null) {
+            atlas = new ComponentAtlas();
+        }
+    }
+
+    /**
+     * Pack and store a component under the same lock that switches the atlas,
+     * so a component never lands in an atlas that has been replaced.
+     */
+    private synchronized BufferedImage store(String path, BufferedImage image, boolean replace) {
+        if (!replace) {
+            BufferedImage cached = components.get(path);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        BufferedImage packed = atlas != null ? atlas.add(path, image) : image;
+        components.put(path, packed);
+        return packed;
+    }
+}
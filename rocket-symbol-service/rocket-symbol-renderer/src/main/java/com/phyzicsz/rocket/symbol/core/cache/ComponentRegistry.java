@@ -0,0 +1,90 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reference counted owner of a {@link ComponentCache}. Decoded components do
+ * not depend on any rendering option, so every renderer in the process shares
+ * the components of the {@link #shared()} registry instead of decoding its own
+ * copy. The cache is cleared when the last renderer releases it.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ComponentRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentRegistry.class);
+
+    private static final ComponentRegistry SHARED = new ComponentRegistry();
+
+    private final ComponentCache components = new ComponentCache();
+    private int references;
+
+    /**
+     * The process wide registry used by renderers by default.
+     *
+     * @return the shared registry.
+     */
+    public static ComponentRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Take a reference to the component cache.
+     *
+     * @return the component cache.
+     */
+    public synchronized ComponentCache acquire() {
+        references++;
+        return components;
+    }
+
+    /**
+     * Give back a reference taken with {@link #acquire()}. Releasing the last
+     * reference clears the component cache.
+     */
+    public synchronized void release() {
+        if (references == 0) {
+            logger.error("component registry released more often than acquired");
+            throw new IllegalStateException("component registry released more often than acquired");
+        }
+
+        references--;
+        if (references == 0) {
+            components.clear();
+        }
+    }
+
+    public synchronized int references() {
+        return references;
+    }
+
+    /**
+     * Switch the registry's components between an atlas and individual
+     * images. This affects every renderer sharing the registry.
+     *
+     * @param enabled true to pack components into an atlas.
+     */
+    public void setAtlasEnabled(boolean enabled) {
+        components.setAtlasEnabled(enabled);
+    }
+
+    public boolean isAtlasEnabled() {
+        return components.getAtlas() != null;
+    }
+}
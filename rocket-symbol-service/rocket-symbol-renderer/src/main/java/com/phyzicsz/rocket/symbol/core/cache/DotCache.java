@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+import java.awt.image.BufferedImage;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of the dot drawn for symbols with both frame and icon turned
+ * off, keyed by fill color, image size and resize quality. A dot depends on
+ * nothing else, so every symbol code sharing a fill color shares one image,
+ * and custom colors are cached like the standard ones. Cached images are
+ * shared and must never be modified.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class DotCache {
+
+    private final Cache<String, BufferedImage> dots;
+
+    public DotCache(long maximumSize) {
+        this.dots = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Return a dot, painting it on a miss.
+     *
+     * @param fill ARGB fill color, null if the dot has no fill color.
+     * @param size Requested image size.
+     * @param quality Resampling used to reach the size.
+     * @param painter Paints the dot at the requested size.
+     * @return the dot.
+     */
+    public BufferedImage get(Integer fill, int size, ResizeQuality quality, Supplier<BufferedImage> painter) {
+        return dots.asMap().computeIfAbsent(key(fill, size, quality), k -> painter.get());
+    }
+
+    public BufferedImage getIfPresent(Integer fill, int size, ResizeQuality quality) {
+        return dots.getIfPresent(key(fill, size, quality));
+    }
+
+    public long size() {
+        return dots.size();
+    }
+
+    public void clear() {
+        dots.invalidateAll();
+    }
+
+    private static String key(Integer fill, int size, ResizeQuality quality) {
+        return (fill != null ? Integer.toHexString(fill) : "-") + '@' + size + '/' + quality;
+    }
+}
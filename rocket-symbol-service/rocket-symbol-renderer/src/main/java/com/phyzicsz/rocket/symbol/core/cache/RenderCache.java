@@ -0,0 +1,65 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.awt.image.BufferedImage;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Bounded cache of fully rendered symbols keyed by the symbol code and the
+ * properties that affect rendering. Cached images are shared and must never be
+ * modified.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class RenderCache {
+
+    private final Cache<String, BufferedImage> renders;
+
+    public RenderCache(long maximumSize) {
+        this.renders = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public BufferedImage getIfPresent(String key) {
+        return renders.getIfPresent(key);
+    }
+
+    public void put(String key, BufferedImage image) {
+        renders.put(key, image);
+    }
+
+    /**
+     * Read only view of the cached renders.
+     *
+     * @return map of render key to rendered symbol.
+     */
+    public Map<String, BufferedImage> asMap() {
+        return Collections.unmodifiableMap(renders.asMap());
+    }
+
+    public long size() {
+        return renders.size();
+    }
+
+    public void clear() {
+        renders.invalidateAll();
+    }
+}
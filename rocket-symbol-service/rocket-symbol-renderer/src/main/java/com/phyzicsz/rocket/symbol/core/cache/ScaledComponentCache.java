@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+import java.awt.image.BufferedImage;
+import java.util.function.Function;
+
+/**
+ * Bounded cache of symbol components scaled to a requested image size, keyed
+ * by component path, size and resize quality. Scaled components are derived from the
+ * {@link ComponentCache} and are cheap to rebuild, so unlike the components
+ * themselves they are evicted when the cache is full. Cached images are shared
+ * and must never be modified.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ScaledComponentCache {
+
+    private final Cache<String, BufferedImage> components;
+
+    public ScaledComponentCache(long maximumSize) {
+        this.components = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Return a scaled component, scaling it on a miss.
+     *
+     * @param path Path of the component.
+     * @param size Requested image size.
+     * @param scaler Scales the component at a path, may return null.
+     * @return the scaled component, or null if the scaler returned null.
+     */
+    public BufferedImage get(String path, int size, Function<String, BufferedImage> scaler) {
+        return get(path, size, ResizeQuality.BILINEAR, scaler);
+    }
+
+    /**
+     * Return a component scaled with a resize quality, scaling it on a miss.
+     *
+     * @param path Path of the component.
+     * @param size Requested image size.
+     * @param quality Resampling the scaler uses.
+     * @param scaler Scales the component at a path, may return null.
+     * @return the scaled component, or null if the scaler returned null.
+     */
+    public BufferedImage get(String path, int size, ResizeQuality quality, Function<String, BufferedImage> scaler) {
+        return components.asMap().computeIfAbsent(key(path, size, quality), k -> scaler.apply(path));
+    }
+
+    public BufferedImage getIfPresent(String path, int size) {
+        return getIfPresent(path, size, ResizeQuality.BILINEAR);
+    }
+
+    public BufferedImage getIfPresent(String path, int size, ResizeQuality quality) {
+        return components.getIfPresent(key(path, size, quality));
+    }
+
+    public long size() {
+        return components.size();
+    }
+
+    public void clear() {
+        components.invalidateAll();
+    }
+
+    private static String key(String path, int size, ResizeQuality quality) {
+        return path + '@' + size + '/' + quality;
+    }
+}
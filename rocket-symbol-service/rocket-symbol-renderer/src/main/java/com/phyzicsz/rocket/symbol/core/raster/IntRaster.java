@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.raster;
+
+/**
+ * An image as a plain array of non-premultiplied ARGB pixels, row by row with
+ * no padding, for rendering without AWT.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class IntRaster {
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+
+    /**
+     * Create a transparent raster.
+     *
+     * @param width Width in pixels.
+     * @param height Height in pixels.
+     */
+    public IntRaster(int width, int height) {
+        this(width, height, new int[checkedSize(width, height)]);
+    }
+
+    /**
+     * Create a raster backed by an existing pixel array.
+     *
+     * @param width Width in pixels.
+     * @param height Height in pixels.
+     * @param pixels ARGB pixels, at least width * height of them.
+     */
+    public IntRaster(int width, int height, int[] pixels) {
+        if (pixels == null || pixels.length < checkedSize(width, height)) {
+            throw new IllegalArgumentException("invalid pixel array for " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * The backing pixel array, writes go straight to the raster.
+     *
+     * @return ARGB pixels, row by row.
+     */
+    public int[] getPixels() {
+        return pixels;
+    }
+
+    public int getPixel(int x, int y) {
+        return pixels[y * width + x];
+    }
+
+    public void setPixel(int x, int y, int argb) {
+        pixels[y * width + x] = argb;
+    }
+
+    /**
+     * Copy of this raster that shares no pixel storage with it.
+     *
+     * @return the copy.
+     */
+    public IntRaster copy() {
+        int[] copy = new int[width * height];
+        System.arraycopy(pixels, 0, copy, 0, copy.length);
+        return new IntRaster(width, height, copy);
+    }
+
+    private static int checkedSize(int width, int height) {
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid raster size " + width + "x" + height);
+        }
+        return width * height;
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.raster;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decodes non-interlaced PNG images of any color type and bit depth into an
+ * {@link IntRaster}, without ImageIO. Like ImageIO, ancillary chunks such as
+ * gamma are ignored and samples are used as stored; 16 bit samples keep
+ * their high byte. Chunk CRCs are not verified.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class PngDecoder {
+
+    static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+
+    private static final int GRAY = 0;
+    private static final int RGB = 2;
+    private static final int PALETTE = 3;
+    private static final int GRAY_ALPHA = 4;
+    private static final int RGBA = 6;
+
+    private PngDecoder() {
+    }
+
+    public static IntRaster decode(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+        }
+        return decode(out.toByteArray());
+    }
+
+    public static IntRaster decode(byte[] data) throws IOException {
+        for (int i = 0; i < SIGNATURE.length; i++) {
+            if (i >= data.length || data[i] != SIGNATURE[i]) {
+                throw new IOException("not a PNG image");
+            }
+        }
+
+        int width = 0;
+        int height = 0;
+        int bitDepth = 0;
+        int colorType = -1;
+        int[] palette = null;
+        byte[] transparency = null;
+        byte[] raw = null;
+        int rawLength = 0;
+
+        Inflater inflater = new Inflater();
+        try {
+            int pos = SIGNATURE.length;
+            while (pos + 8 <= data.length) {
+                int length = readInt(data, pos);
+                int type = readInt(data, pos + 4);
+                int start = pos + 8;
+                if (length < 0 || start + length > data.length) {
+                    throw new IOException("truncated PNG chunk");
+                }
+
+                if (type == 0x49484452) { // IHDR
+                    width = readInt(data, start);
+                    height = readInt(data, start + 4);
+                    bitDepth = data[start + 8] & 0xff;
+                    colorType = data[start + 9] & 0xff;
+                    if (data[start + 12] != 0) {
+                        throw new IOException("interlaced PNG images are not supported");
+                    }
+                    if (width <= 0 || height <= 0 || bitsPerPixel(colorType, bitDepth) == 0) {
+                        throw new IOException("unsupported PNG header");
+                    }
+                    rawLength = height * (rowBytes(width, colorType, bitDepth) + 1);
+                    raw = new byte[rawLength];
+                } else if (type == 0x504c5445) { // PLTE
+                    palette = new int[256];
+                    for (int i = 0; i < length / 3; i++) {
+                        int p = start + i * 3;
+                        palette[i] = 0xff000000 | (data[p] & 0xff) << 16 | (data[p + 1] & 0xff) << 8 | (data[p + 2] & 0xff);
+                    }
+                } else if (type == 0x74524e53) { // tRNS
+                    transparency = new byte[length];
+                    System.arraycopy(data, start, transparency, 0, length);
+                } else if (type == 0x49444154) { // IDAT
+                    if (raw == null) {
+                        throw new IOException("IDAT before IHDR");
+                    }
+                    inflater.setInput(data, start, length);
+                    int inflated = inflater.getTotalOut();
+                    while (!inflater.needsInput() && !inflater.finished() && inflated < rawLength) {
+                        int n = inflater.inflate(raw, inflated, rawLength - inflated);
+                        if (n == 0 && inflater.needsDictionary()) {
+                            throw new IOException("corrupt PNG image data");
+                        }
+                        inflated += n;
+                    }
+                } else if (type == 0x49454e44) { // IEND
+                    break;
+                }
+                pos = start + length + 4;
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("corrupt PNG image data", ex);
+        } finally {
+            inflater.end();
+        }
+
+        if (raw == null) {
+            throw new IOException("missing PNG header");
+        }
+        if (colorType == PALETTE && palette == null) {
+            throw new IOException("missing PNG palette");
+        }
+
+        unfilter(raw, width, height, colorType, bitDepth);
+        IntRaster raster = new IntRaster(width, height);
+        toArgb(raw, width, height, colorType, bitDepth, palette, transparency, raster.getPixels());
+        return raster;
+    }
+
+    private static void unfilter(byte[] raw, int width, int height, int colorType, int bitDepth) throws IOException {
+        int rowBytes = rowBytes(width, colorType, bitDepth);
+        int bpp = Math.max(1, bitsPerPixel(colorType, bitDepth) / 8);
+        for (int y = 0; y < height; y++) {
+            int row = y * (rowBytes + 1) + 1;
+            int prev = row - rowBytes - 1;
+            int filter = raw[row - 1];
+            switch (filter) {
+                case 0:
+                    break;
+                case 1:
+                    for (int i = bpp; i < rowBytes; i++) {
+                        raw[row + i] = (byte) (raw[row + i] + raw[row + i - bpp]);
+                    }
+                    break;
+                case 2:
+                    if (y > 0) {
+                        for (int i = 0; i < rowBytes; i++) {
+                            raw[row + i] = (byte) (raw[row + i] + raw[prev + i]);
+                        }
+                    }
+                    break;
+                case 3:
+                    for (int i = 0; i < rowBytes; i++) {
+                        int left = i >= bpp ? raw[row + i - bpp] & 0xff : 0;
+                        int up = y > 0 ? raw[prev + i] & 0xff : 0;
+                        raw[row + i] = (byte) (raw[row + i] + ((left + up) >>> 1));
+                    }
+                    break;
+                case 4:
+                    for (int i = 0; i < rowBytes; i++) {
+                        int left = i >= bpp ? raw[row + i - bpp] & 0xff : 0;
+                        int up = y > 0 ? raw[prev + i] & 0xff : 0;
+                        int upLeft = i >= bpp && y > 0 ? raw[prev + i - bpp] & 0xff : 0;
+                        raw[row + i] = (byte) (raw[row + i] + paeth(left, up, upLeft));
+                    }
+                    break;
+                default:
+                    throw new IOException("invalid PNG filter type " + filter);
+            }
+        }
+    }
+
+    static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        return pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+    }
+
+    private static void toArgb(byte[] raw, int width, int height, int colorType, int bitDepth,
+            int[] palette, byte[] transparency, int[] pixels) {
+        int rowBytes = rowBytes(width, colorType, bitDepth);
+        int step = bitDepth == 16 ? 2 : 1;
+        for (int y = 0, di = 0; y < height; y++) {
+            int row = y * (rowBytes + 1) + 1;
+            for (int x = 0; x < width; x++) {
+                int argb;
+                switch (colorType) {
+                    case RGBA: {
+                        int p = row + x * 4 * step;
+                        argb = (raw[p + 3 * step] & 0xff) << 24 | (raw[p] & 0xff) << 16
+                                | (raw[p + step] & 0xff) << 8 | (raw[p + 2 * step] & 0xff);
+                        break;
+                    }
+                    case RGB: {
+                        int p = row + x * 3 * step;
+                        argb = 0xff000000 | (raw[p] & 0xff) << 16 | (raw[p + step] & 0xff) << 8 | (raw[p + 2 * step] & 0xff);
+                        if (transparency != null && transparency.length >= 6
+                                && sample(raw, p, step) == readShort(transparency, 0)
+                                && sample(raw, p + step, step) == readShort(transparency, 2)
+                                && sample(raw, p + 2 * step, step) == readShort(transparency, 4)) {
+                            argb = 0;
+                        }
+                        break;
+                    }
+                    case GRAY_ALPHA: {
+                        int p = row + x * 2 * step;
+                        int v = raw[p] & 0xff;
+                        argb = (raw[p + step] & 0xff) << 24 | v << 16 | v << 8 | v;
+                        break;
+                    }
+                    case GRAY: {
+                        int v;
+                        int s;
+                        if (bitDepth >= 8) {
+                            int p = row + x * step;
+                            v = raw[p] & 0xff;
+                            s = sample(raw, p, step);
+                        } else {
+                            s = packed(raw, row, x, bitDepth);
+                            v = s * 255 / ((1 << bitDepth) - 1);
+                        }
+                        argb = 0xff000000 | v << 16 | v << 8 | v;
+                        if (transparency != null && transparency.length >= 2 && s == readShort(transparency, 0)) {
+                            argb = 0;
+                        }
+                        break;
+                    }
+                    default: { // PALETTE
+                        int i = bitDepth == 8 ? raw[row + x] & 0xff : packed(raw, row, x, bitDepth);
+                        argb = palette[i];
+                        if (transparency != null && i < transparency.length) {
+                            argb = (transparency[i] & 0xff) << 24 | (argb & 0xffffff);
+                        }
+                        break;
+                    }
+                }
+                pixels[di++] = argb;
+            }
+        }
+    }
+
+    private static int packed(byte[] raw, int row, int x, int bitDepth) {
+        int bit = x * bitDepth;
+        int b = raw[row + (bit >> 3)] & 0xff;
+        return (b >> (8 - bitDepth - (bit & 7))) & ((1 << bitDepth) - 1);
+    }
+
+    private static int sample(byte[] raw, int p, int step) {
+        return step == 2 ? (raw[p] & 0xff) << 8 | (raw[p + 1] & 0xff) : raw[p] & 0xff;
+    }
+
+    static int bitsPerPixel(int colorType, int bitDepth) {
+        switch (colorType) {
+            case GRAY:
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 || bitDepth == 16 ? bitDepth : 0;
+            case PALETTE:
+                return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 ? bitDepth : 0;
+            case RGB:
+                return bitDepth == 8 || bitDepth == 16 ? 3 * bitDepth : 0;
+            case GRAY_ALPHA:
+                return bitDepth == 8 || bitDepth == 16 ? 2 * bitDepth : 0;
+            case RGBA:
+                return bitDepth == 8 || bitDepth == 16 ? 4 * bitDepth : 0;
+            default:
+                return 0;
+        }
+    }
+
+    private static int rowBytes(int width, int colorType, int bitDepth) {
+        return (int) (((long) width * bitsPerPixel(colorType, bitDepth) + 7) / 8);
+    }
+
+    private static int readShort(byte[] b, int p) {
+        return (b[p] & 0xff) << 8 | (b[p + 1] & 0xff);
+    }
+
+    static int readInt(byte[] b, int p) {
+        return (b[p] & 0xff) << 24 | (b[p + 1] & 0xff) << 16 | (b[p + 2] & 0xff) << 8 | (b[p + 3] & 0xff);
+    }
+}
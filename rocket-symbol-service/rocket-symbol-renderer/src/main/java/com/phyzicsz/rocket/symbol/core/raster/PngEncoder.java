@@ -0,0 +1,369 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.raster;
+
+import com.phyzicsz.rocket.symbol.core.utils.ColorPalette;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * PNG encoder for the small ARGB images symbols are, without ImageIO. Images
+ * are written as 8 bit RGBA, or as 8 bit palette images when given an exact
+ * {@link ColorPalette}, in {@code IDAT} chunks of up to 32 KiB. The
+ * compression level and the row filter are configurable; the defaults
+ * reproduce the bytes ImageIO writes for a {@code TYPE_INT_ARGB} image, so
+ * switching encoders does not change published symbols. Each thread keeps
+ * its {@link Deflater}, CRC and working buffers, so encoding a symbol
+ * allocates only what it writes.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class PngEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(PngEncoder.class);
+
+    /**
+     * Default deflate level, ImageIO's. Beyond 4 symbols barely shrink while
+     * encoding time keeps growing.
+     */
+    public static final int DEFAULT_LEVEL = 4;
+
+    /**
+     * Default row filter. ImageIO's writer filters only palette images, and
+     * unfiltered rows are also the cheapest to produce.
+     */
+    public static final PngFilter DEFAULT_FILTER = PngFilter.NONE;
+
+    /**
+     * Largest {@code IDAT} chunk written, ImageIO's.
+     */
+    static final int MAX_IDAT_LENGTH = 32768;
+
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /**
+     * Largest working buffer, in bytes, a thread keeps between encodes.
+     */
+    static final int MAX_RETAINED_BYTES = 1 << 20;
+
+    private static final int RGBA = 6;
+    private static final int PALETTE = 3;
+
+    private static final int IHDR = 0x49484452;
+    private static final int PLTE = 0x504c5445;
+    private static final int TRNS = 0x74524e53;
+    private static final int IDAT = 0x49444154;
+    private static final int IEND = 0x49454e44;
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private PngEncoder() {
+    }
+
+    public static byte[] encode(IntRaster raster) {
+        return encode(raster, DEFAULT_LEVEL, DEFAULT_FILTER);
+    }
+
+    public static byte[] encode(IntRaster raster, int level, PngFilter filter) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+        try {
+            encode(raster.getPixels(), 0, raster.getWidth(), raster.getWidth(), raster.getHeight(), level, filter, out);
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex); // ByteArrayOutputStream does not throw
+        }
+        return out.toByteArray();
+    }
+
+    public static void encode(IntRaster raster, OutputStream out) throws IOException {
+        encode(raster.getPixels(), 0, raster.getWidth(), raster.getWidth(), raster.getHeight(),
+                DEFAULT_LEVEL, DEFAULT_FILTER, out);
+    }
+
+    /**
+     * Encode a region of non-premultiplied ARGB pixels, for example the int
+     * array behind a {@code TYPE_INT_ARGB} image.
+     *
+     * @param pixels Pixels of the image.
+     * @param offset Index of the first pixel.
+     * @param scanline Distance between rows in the array.
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param level Deflate level, 0 to 9, or -1 for zlib's default.
+     * @param filter Row filter strategy, null for {@link #DEFAULT_FILTER}.
+     * @param out Stream receiving the PNG.
+     * @throws IOException if the stream fails.
+     */
+    public static void encode(int[] pixels, int offset, int scanline, int width, int height,
+            int level, PngFilter filter, OutputStream out) throws IOException {
+        encode(pixels, offset, scanline, width, height, null, level, filter, out);
+    }
+
+    /**
+     * Encode a region of non-premultiplied ARGB pixels as an 8 bit palette
+     * image. Alpha is stored in a {@code tRNS} chunk covering the palette's
+     * translucent entries, so the image is lossless. The palette itself is
+     * not compressed, so on small images with many colors RGBA can be smaller.
+     *
+     * @param pixels Pixels of the image.
+     * @param offset Index of the first pixel.
+     * @param scanline Distance between rows in the array.
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param palette Exact palette of the region, from
+     * {@link ColorPalette#of}, or null to write RGBA.
+     * @param level Deflate level, 0 to 9, or -1 for zlib's default.
+     * @param filter Row filter strategy, null for {@link #DEFAULT_FILTER}.
+     * @param out Stream receiving the PNG.
+     * @throws IOException if the stream fails.
+     */
+    public static void encode(int[] pixels, int offset, int scanline, int width, int height,
+            ColorPalette palette, int level, PngFilter filter, OutputStream out) throws IOException {
+        if (width <= 0 || height <= 0) {
+            logger.error("invalid image size: {}x{}", width, height);
+            throw new IllegalArgumentException("invalid image size: " + width + "x" + height);
+        }
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            logger.error("invalid compression level: {}", level);
+            throw new IllegalArgumentException("invalid compression level: " + level);
+        }
+
+        State state = STATE.get();
+
+        out.write(PngDecoder.SIGNATURE);
+
+        byte[] header = state.header;
+        writeInt(header, 0, width);
+        writeInt(header, 4, height);
+        header[8] = 8; // bit depth
+        header[9] = (byte) (palette != null ? PALETTE : RGBA);
+        header[10] = 0; // deflate
+        header[11] = 0; // adaptive filtering
+        header[12] = 0; // not interlaced
+        writeChunk(state, out, IHDR, header, 0, 13);
+
+        int bpp = BYTES_PER_PIXEL;
+        if (palette != null) {
+            bpp = 1;
+            writePalette(state, out, palette);
+        }
+
+        int rowBytes = width * bpp;
+        byte[] filtered = state.buffer(0, (rowBytes + 1) * height);
+        filter(state, pixels, offset, scanline, width, height, palette,
+                filter != null ? filter : DEFAULT_FILTER, filtered);
+
+        Deflater deflater = state.deflater;
+        deflater.reset();
+        deflater.setLevel(level);
+        deflater.setInput(filtered, 0, (rowBytes + 1) * height);
+        deflater.finish();
+        byte[] data = state.buffer(1, Math.max(256, (rowBytes + 1) * height / 2));
+        int length = 0;
+        while (!deflater.finished()) {
+            if (length == data.length) {
+                data = state.grow(1, data, length);
+            }
+            length += deflater.deflate(data, length, data.length - length);
+        }
+        for (int p = 0; p < length || p == 0; p += MAX_IDAT_LENGTH) {
+            writeChunk(state, out, IDAT, data, p, Math.min(MAX_IDAT_LENGTH, length - p));
+        }
+        writeChunk(state, out, IEND, header, 0, 0);
+        state.release();
+    }
+
+    /**
+     * Write the {@code PLTE} chunk and, if the palette has translucent
+     * entries, the {@code tRNS} chunk.
+     */
+    private static void writePalette(State state, OutputStream out, ColorPalette palette) throws IOException {
+        byte[] plte = state.palette;
+        for (int i = 0, p = 0; i < palette.size(); i++) {
+            int argb = palette.getColor(i);
+            plte[p++] = (byte) (argb >> 16);
+            plte[p++] = (byte) (argb >> 8);
+            plte[p++] = (byte) argb;
+        }
+        writeChunk(state, out, PLTE, plte, 0, palette.size() * 3);
+
+        int translucent = palette.getTranslucentCount();
+        if (translucent > 0) {
+            byte[] alpha = state.alpha;
+            for (int i = 0; i < translucent; i++) {
+                alpha[i] = (byte) (palette.getColor(i) >>> 24);
+            }
+            writeChunk(state, out, TRNS, alpha, 0, translucent);
+        }
+    }
+
+    private static void filter(State state, int[] pixels, int offset, int scanline, int width, int height,
+            ColorPalette palette, PngFilter strategy, byte[] filtered) {
+        int bpp = palette != null ? 1 : BYTES_PER_PIXEL;
+        int rowBytes = width * bpp;
+        byte[] prev = state.row(0, rowBytes);
+        byte[] cur = state.row(1, rowBytes);
+        Arrays.fill(prev, 0, rowBytes, (byte) 0);
+
+        for (int y = 0; y < height; y++) {
+            if (palette != null) {
+                palette.index(pixels, offset + y * scanline, scanline, width, 1, cur, 0, rowBytes);
+            } else {
+                for (int x = 0, p = offset + y * scanline, i = 0; x < width; x++, p++) {
+                    int argb = pixels[p];
+                    cur[i++] = (byte) (argb >> 16);
+                    cur[i++] = (byte) (argb >> 8);
+                    cur[i++] = (byte) argb;
+                    cur[i++] = (byte) (argb >>> 24);
+                }
+            }
+
+            int row = y * (rowBytes + 1);
+            if (strategy == PngFilter.ADAPTIVE) {
+                int type = 0;
+                long best = Long.MAX_VALUE;
+                for (int f = 0; f < 5; f++) {
+                    long sum = filterRow(f, cur, prev, rowBytes, bpp, state.row(2 + f, rowBytes), 0);
+                    if (sum < best) {
+                        best = sum;
+                        type = f;
+                    }
+                }
+                filtered[row] = (byte) type;
+                System.arraycopy(state.rows[2 + type], 0, filtered, row + 1, rowBytes);
+            } else {
+                filtered[row] = (byte) strategy.ordinal();
+                filterRow(strategy.ordinal(), cur, prev, rowBytes, bpp, filtered, row + 1);
+            }
+
+            byte[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+    }
+
+    /**
+     * Apply a filter to a row.
+     *
+     * @return the sum of the absolute values of the filtered bytes.
+     */
+    private static long filterRow(int type, byte[] cur, byte[] prev, int rowBytes, int bpp, byte[] dest, int at) {
+        long sum = 0;
+        for (int i = 0; i < rowBytes; i++) {
+            int v = cur[i] & 0xff;
+            switch (type) {
+                case 1:
+                    v -= i >= bpp ? cur[i - bpp] & 0xff : 0;
+                    break;
+                case 2:
+                    v -= prev[i] & 0xff;
+                    break;
+                case 3:
+                    v -= ((i >= bpp ? cur[i - bpp] & 0xff : 0) + (prev[i] & 0xff)) >>> 1;
+                    break;
+                case 4:
+                    v -= PngDecoder.paeth(i >= bpp ? cur[i - bpp] & 0xff : 0, prev[i] & 0xff,
+                            i >= bpp ? prev[i - bpp] & 0xff : 0);
+                    break;
+                default:
+                    break;
+            }
+            byte b = (byte) v;
+            dest[at + i] = b;
+            sum += Math.abs((int) b);
+        }
+        return sum;
+    }
+
+    private static void writeChunk(State state, OutputStream out, int type, byte[] data, int offset, int length)
+            throws IOException {
+        byte[] head = state.head;
+        writeInt(head, 0, length);
+        writeInt(head, 4, type);
+        CRC32 crc = state.crc;
+        crc.reset();
+        crc.update(head, 4, 4);
+        crc.update(data, offset, length);
+        out.write(head, 0, 8);
+        out.write(data, offset, length);
+        writeInt(head, 0, (int) crc.getValue());
+        out.write(head, 0, 4);
+    }
+
+    static void writeInt(byte[] b, int p, int v) {
+        b[p] = (byte) (v >>> 24);
+        b[p + 1] = (byte) (v >>> 16);
+        b[p + 2] = (byte) (v >>> 8);
+        b[p + 3] = (byte) v;
+    }
+
+    /**
+     * Per thread encoder state. The deflater lives as long as the thread and
+     * is reset between images.
+     */
+    private static final class State {
+
+        final Deflater deflater = new Deflater(DEFAULT_LEVEL);
+        final CRC32 crc = new CRC32();
+        final byte[] header = new byte[13];
+        final byte[] head = new byte[8];
+        final byte[] palette = new byte[ColorPalette.MAX_COLORS * 3];
+        final byte[] alpha = new byte[ColorPalette.MAX_COLORS];
+        final byte[][] buffers = new byte[2][];
+        final byte[][] rows = new byte[7][];
+
+        byte[] buffer(int slot, int length) {
+            byte[] b = buffers[slot];
+            if (b == null || b.length < length) {
+                b = new byte[length];
+                buffers[slot] = b;
+            }
+            return b;
+        }
+
+        byte[] grow(int slot, byte[] b, int length) {
+            byte[] grown = new byte[b.length * 2];
+            System.arraycopy(b, 0, grown, 0, length);
+            buffers[slot] = grown;
+            return grown;
+        }
+
+        byte[] row(int slot, int length) {
+            byte[] b = rows[slot];
+            if (b == null || b.length < length) {
+                b = new byte[length];
+                rows[slot] = b;
+            }
+            return b;
+        }
+
+        /**
+         * Drop buffers grown past the retention limit by a very large image.
+         */
+        void release() {
+            for (int i = 0; i < buffers.length; i++) {
+                if (buffers[i] != null && buffers[i].length > MAX_RETAINED_BYTES) {
+                    buffers[i] = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.raster;
+
+/**
+ * Row filter strategy of the {@link PngEncoder}. Filtering predicts each byte
+ * from its neighbours so deflate sees long runs of small differences; a fixed
+ * filter is cheaper to choose, the adaptive one usually compresses best.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public enum PngFilter {
+
+    /**
+     * Raw bytes.
+     */
+    NONE,
+    /**
+     * Difference to the pixel on the left.
+     */
+    SUB,
+    /**
+     * Difference to the pixel above.
+     */
+    UP,
+    /**
+     * Difference to the mean of the left and upper pixels.
+     */
+    AVERAGE,
+    /**
+     * Difference to the Paeth predictor of the left, upper and upper left
+     * pixels.
+     */
+    PAETH,
+    /**
+     * Per row, the filter with the smallest sum of absolute differences, the
+     * usual heuristic and what ImageIO does.
+     */
+    ADAPTIVE
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.raster;
+
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+import com.phyzicsz.rocket.symbol.core.utils.Resampler;
+
+/**
+ * Drawing operations on {@link IntRaster}s: tinting, compositing, resizing
+ * and the anti-aliased dot drawn for symbols without frame and icon, all
+ * through the same kernels as the Java2D renderer so the output is the same.
+ * Rasters hold non-premultiplied pixels, except where an operation says it
+ * works on premultiplied ones.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class RasterOps {
+
+    private RasterOps() {
+    }
+
+    /**
+     * Multiply a raster by a color into another raster at (0, 0), replacing
+     * the overlapping pixels.
+     *
+     * @param src Raster to tint.
+     * @param argb Color to multiply by.
+     * @param dest Raster to receive the tinted pixels.
+     */
+    public static void multiply(IntRaster src, int argb, IntRaster dest) {
+        PixelKernels.multiply(src.getPixels(), 0, src.getWidth(), dest.getPixels(), 0, dest.getWidth(),
+                Math.min(src.getWidth(), dest.getWidth()), Math.min(src.getHeight(), dest.getHeight()), argb);
+    }
+
+    /**
+     * Multiply a raster by a color and draw it source-over into another raster
+     * at (0, 0).
+     *
+     * @param src Raster to draw.
+     * @param argb Color to multiply by.
+     * @param dest Raster to draw into.
+     */
+    public static void multiplyOver(IntRaster src, int argb, IntRaster dest) {
+        PixelKernels.multiplyOver(src.getPixels(), 0, src.getWidth(), dest.getPixels(), 0, dest.getWidth(),
+                Math.min(src.getWidth(), dest.getWidth()), Math.min(src.getHeight(), dest.getHeight()), argb);
+    }
+
+    /**
+     * Multiply a raster by a color into another raster at (0, 0), replacing
+     * the overlapping pixels with premultiplied ones.
+     *
+     * @param src Raster to tint.
+     * @param argb Color to multiply by.
+     * @param dest Premultiplied raster to receive the tinted pixels.
+     */
+    public static void multiplyPre(IntRaster src, int argb, IntRaster dest) {
+        PixelKernels.multiplyPre(src.getPixels(), 0, src.getWidth(), dest.getPixels(), 0, dest.getWidth(),
+                Math.min(src.getWidth(), dest.getWidth()), Math.min(src.getHeight(), dest.getHeight()), argb);
+    }
+
+    /**
+     * Multiply a raster by a color and draw it source-over into a
+     * premultiplied raster at (0, 0).
+     *
+     * @param src Raster to draw.
+     * @param argb Color to multiply by.
+     * @param dest Premultiplied raster to draw into.
+     */
+    public static void multiplyOverPre(IntRaster src, int argb, IntRaster dest) {
+        PixelKernels.multiplyOverPre(src.getPixels(), 0, src.getWidth(), dest.getPixels(), 0, dest.getWidth(),
+                Math.min(src.getWidth(), dest.getWidth()), Math.min(src.getHeight(), dest.getHeight()), argb);
+    }
+
+    /**
+     * Convert a premultiplied raster to non-premultiplied pixels in place.
+     *
+     * @param raster Premultiplied raster.
+     * @return the raster.
+     */
+    public static IntRaster unpremultiply(IntRaster raster) {
+        int w = raster.getWidth();
+        PixelKernels.unpremultiply(raster.getPixels(), 0, w, raster.getPixels(), 0, w, w, raster.getHeight());
+        return raster;
+    }
+
+    /**
+     * Resize a raster so its longer side is {@code targetSize}, keeping the
+     * aspect ratio.
+     *
+     * @param src Raster to resize.
+     * @param targetSize Size of the longer side, src is returned as is if this
+     * is not positive.
+     * @param quality Resampling to use, null for bilinear.
+     * @return the resized raster.
+     */
+    public static IntRaster resize(IntRaster src, int targetSize, ResizeQuality quality) {
+        return resize(src, targetSize, quality, false);
+    }
+
+    /**
+     * Resize a raster so its longer side is {@code targetSize}, keeping the
+     * aspect ratio. Every quality resamples exactly like
+     * {@link com.phyzicsz.rocket.symbol.core.utils.ImageUtils#resize} does
+     * an image of the same type.
+     *
+     * @param src Raster to resize.
+     * @param targetSize Size of the longer side, src is returned as is if this
+     * is not positive.
+     * @param quality Resampling to use, null for bilinear.
+     * @param premultiplied true if the pixels of src are premultiplied, the
+     * result then is too.
+     * @return the resized raster.
+     */
+    public static IntRaster resize(IntRaster src, int targetSize, ResizeQuality quality, boolean premultiplied) {
+        if (targetSize <= 0) {
+            return src;
+        }
+        int width = Resampler.targetWidth(src.getWidth(), src.getHeight(), targetSize);
+        int height = Resampler.targetHeight(src.getWidth(), src.getHeight(), targetSize);
+        if (quality == ResizeQuality.NEAREST) {
+            IntRaster dest = new IntRaster(width, height);
+            Resampler.nearest(src.getPixels(), 0, src.getWidth(), src.getWidth(), src.getHeight(),
+                    dest.getPixels(), 0, width, width, height);
+            return dest;
+        } else if (quality == ResizeQuality.AREA_AVERAGE) {
+            IntRaster dest = new IntRaster(width, height);
+            Resampler.areaAverage(src.getPixels(), 0, src.getWidth(), src.getWidth(), src.getHeight(),
+                    dest.getPixels(), 0, width, width, height, premultiplied, false);
+            return dest;
+        } else if (quality == ResizeQuality.PROGRESSIVE) {
+            // halve while bilinear would still skip source pixels, then finish in one step
+            IntRaster step = src;
+            int w = src.getWidth();
+            int h = src.getHeight();
+            while (w >= width * 2 || h >= height * 2) {
+                w = Math.max(w / 2, width);
+                h = Math.max(h / 2, height);
+                step = bilinear(step, w, h, premultiplied);
+            }
+            if (step == src || w != width || h != height) {
+                step = bilinear(step, width, height, premultiplied);
+            }
+            return step;
+        }
+        return bilinear(src, width, height, premultiplied);
+    }
+
+    private static IntRaster bilinear(IntRaster src, int width, int height, boolean premultiplied) {
+        IntRaster dest = new IntRaster(width, height);
+        Resampler.bilinear(src.getPixels(), 0, src.getWidth(), src.getWidth(), src.getHeight(),
+                dest.getPixels(), 0, width, width, height, premultiplied);
+        return dest;
+    }
+
+    /**
+     * Draw an anti-aliased filled circle with an outline centered on its edge
+     * source-over into a raster, see {@link PixelKernels#drawDot}.
+     *
+     * @param dest Raster to draw into.
+     * @param cx Horizontal center.
+     * @param cy Vertical center.
+     * @param radius Circle radius.
+     * @param fill ARGB fill color.
+     * @param lineWidth Width of the outline.
+     * @param stroke ARGB outline color.
+     */
+    public static void drawDot(IntRaster dest, double cx, double cy, double radius, int fill,
+            double lineWidth, int stroke) {
+        PixelKernels.drawDot(dest.getPixels(), 0, dest.getWidth(), dest.getWidth(), dest.getHeight(),
+                cx, cy, radius, fill, lineWidth, stroke);
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.raster;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.phyzicsz.rocket.symbol.code.SymbolCode;
+import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
+import com.phyzicsz.rocket.symbol.core.exception.UnsupportedMimeType;
+import com.phyzicsz.rocket.symbol.core.render.MilStdSymbology;
+import com.phyzicsz.rocket.symbol.core.render.ServiceConstants;
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+import com.phyzicsz.rocket.symbol.core.utils.TintTable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MIL-STD-2525 symbol renderer that runs entirely on int arrays: components
+ * are decoded by {@link PngDecoder}, tinted and composited by the same
+ * kernels as {@link com.phyzicsz.rocket.symbol.core.render.MilStdSymbolRenderer},
+ * resized by {@link RasterOps} and encoded by {@link PngEncoder}. It never
+ * initializes AWT, for small containers and headless or native image builds.
+ * <p>
+ * Symbols take the same path as in the Java2D renderer: small sizes are
+ * composited from components scaled to the requested size, larger sizes are
+ * composited premultiplied and resized, and the dot is drawn by the same
+ * kernel. The resize kernels reproduce Java2D's arithmetic, so every symbol
+ * is identical to the Java2D renderer's at every size.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class RasterSymbolRenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RasterSymbolRenderer.class);
+
+    public static final long DEFAULT_COMPONENT_CACHE_SIZE = 4096;
+
+    protected final String baseImagePath = "/symbols";
+
+    protected final MilStdSymbology symbology = new MilStdSymbology();
+
+    /**
+     * Decoded components keyed by path. Cached rasters are shared and must
+     * never be modified.
+     */
+    protected final Cache<String, IntRaster> componentCache = CacheBuilder.newBuilder()
+            .maximumSize(DEFAULT_COMPONENT_CACHE_SIZE)
+            .build();
+
+    /**
+     * Components scaled to the requested image size, keyed by path, size and
+     * resize quality. Cached rasters are shared and must never be modified.
+     */
+    protected final Cache<String, IntRaster> scaledComponentCache = CacheBuilder.newBuilder()
+            .maximumSize(ServiceConstants.DEFAULT_SCALED_COMPONENT_CACHE_SIZE)
+            .build();
+
+    public RasterSymbolRenderer() {
+
+    }
+
+    public String getBasePath() {
+        return this.baseImagePath;
+    }
+
+    /**
+     * Render a MIL-STD-2525C symbol with the same rules and options as
+     * {@link com.phyzicsz.rocket.symbol.core.render.MilStdSymbolRenderer#createIcon}.
+     *
+     * @param sidc SIDC identifier for the symbol.
+     * @param params Parameters that affect icon retrieval.
+     * @return a new raster owned by the caller.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public IntRaster render(String sidc, SymbolServiceProperties params) throws IOException, UnsupportedMimeType {
+        if (sidc == null) {
+            logger.error("symbol code is null");
+            throw new IllegalArgumentException("symbol code is null");
+        }
+        if (params == null) {
+            params = new SymbolServiceProperties();
+        }
+
+        //replace all tactical customizations with standard markings...
+        SymbolCode symbolCode = new SymbolCode(sidc.replace('*', '-'));
+        IntRaster raster = null;
+        int size = this.imageSize(params);
+        ResizeQuality quality = this.resizeQuality(params);
+        boolean premultiplied = this.compositePremultiplied(size);
+
+        boolean mustDrawFill = symbology.mustDrawFill(symbolCode, params);
+        boolean mustDrawIcon = symbology.mustDrawIcon(symbolCode, params);
+        boolean mustDrawFrame = symbology.mustDrawFrame(symbolCode, params);
+
+        if (mustDrawFrame || mustDrawIcon) {
+            if (mustDrawFill && mustDrawFrame) {
+                raster = this.drawLayer(symbology.composeFillPath(symbolCode),
+                        symbology.getFillColor(symbolCode, params), null, size, quality, premultiplied);
+            }
+
+            if (mustDrawFrame) {
+                raster = this.drawLayer(symbology.composeFramePath(symbolCode),
+                        symbology.getFrameColor(symbolCode, params), raster, size, quality, premultiplied);
+            }
+
+            if (mustDrawIcon) {
+                String path = symbology.composeIconPath(symbolCode, params);
+                if (path != null) {
+                    raster = this.drawLayer(path, symbology.getIconColor(symbolCode, params), raster,
+                            size, quality, premultiplied);
+                }
+            }
+        }
+
+        // Draw a dot if both frame and icon are turned off
+        if (raster == null) {
+            IntRaster dot = this.drawCircle(symbolCode, params);
+            return size == ServiceConstants.DEFAULT_IMAGE_SIZE ? dot : RasterOps.resize(dot, size, quality);
+        }
+
+        if (size == ServiceConstants.DEFAULT_IMAGE_SIZE || this.renderAtSize(size)) {
+            return raster;
+        }
+        return RasterOps.unpremultiply(RasterOps.resize(raster, size, quality, true));
+    }
+
+    /**
+     * Render a symbol as a PNG.
+     *
+     * @param sidc SIDC identifier for the symbol.
+     * @param params Parameters that affect icon retrieval.
+     * @return PNG bytes.
+     * @throws IOException
+     * @throws UnsupportedMimeType
+     */
+    public byte[] asPng(String sidc, SymbolServiceProperties params) throws IOException, UnsupportedMimeType {
+        return PngEncoder.encode(this.render(sidc, params));
+    }
+
+    /**
+     * Whether symbols of a size are composited from components scaled to that
+     * size, see
+     * {@link com.phyzicsz.rocket.symbol.core.render.MilStdSymbolRenderer#renderAtSize}.
+     *
+     * @param size Requested image size.
+     * @return true to composite scaled components.
+     */
+    protected boolean renderAtSize(int size) {
+        return size > 0 && size < ServiceConstants.DEFAULT_IMAGE_SIZE;
+    }
+
+    /**
+     * Whether the layers of a symbol are composited premultiplied, which is
+     * the case for composites that are resized afterwards, see
+     * {@link com.phyzicsz.rocket.symbol.core.render.MilStdSymbolRenderer#compositeType}.
+     *
+     * @param size Requested image size.
+     * @return true to composite premultiplied.
+     */
+    protected boolean compositePremultiplied(int size) {
+        return size != ServiceConstants.DEFAULT_IMAGE_SIZE && !this.renderAtSize(size);
+    }
+
+    protected IntRaster drawLayer(String path, Integer color, IntRaster dest, int size, ResizeQuality quality,
+            boolean premultiplied) {
+        IntRaster component = this.renderAtSize(size) ? this.component(path, size, quality) : this.component(path);
+        if (component == null) {
+            logger.error("missing icon component");
+            throw new IllegalArgumentException("missing icon component");
+        }
+
+        int argb = color != null ? color : 0xffffffff;
+        if (dest == null) {
+            dest = new IntRaster(component.getWidth(), component.getHeight());
+            if (premultiplied) {
+                RasterOps.multiplyPre(component, argb, dest);
+            } else {
+                RasterOps.multiply(component, argb, dest);
+            }
+        } else if (premultiplied) {
+            RasterOps.multiplyOverPre(component, argb, dest);
+        } else {
+            RasterOps.multiplyOver(component, argb, dest);
+        }
+        return dest;
+    }
+
+    protected IntRaster drawCircle(SymbolCode symbolCode, SymbolServiceProperties params) {
+        Integer fill = symbology.mustDrawFill(symbolCode, params) ? symbology.getFillColor(symbolCode, params)
+                : Integer.valueOf(MilStdSymbology.DEFAULT_ICON_COLOR);
+        int radius = MilStdSymbology.CIRCLE_RADIUS;
+        int lineWidth = MilStdSymbology.CIRCLE_LINE_WIDTH;
+
+        // Java2D normalizes antialiased shapes onto pixel centers
+        IntRaster raster = new IntRaster(radius * 2, radius * 2);
+        RasterOps.drawDot(raster, radius + 0.5, radius + 0.5, radius - lineWidth, fill != null ? fill : 0xffffffff,
+                lineWidth, MilStdSymbology.DEFAULT_FRAME_COLOR);
+        return raster;
+    }
+
+    /**
+     * Return the shared, cached copy of a decoded symbol component. The raster
+     * must not be modified.
+     *
+     * @param path Path of the component relative to the base path.
+     * @return the component, or null if it does not exist.
+     */
+    protected IntRaster component(String path) {
+        if (path == null) {
+            logger.error("retrieverPath is null");
+            throw new IllegalArgumentException("retrieverPath is null");
+        }
+
+        IntRaster raster = componentCache.getIfPresent(path);
+        if (raster == null) {
+            try {
+                raster = componentCache.get(path, () -> {
+                    IntRaster loaded = this.loadComponent(path);
+                    if (loaded == null) {
+                        throw new IOException("no component at " + path);
+                    }
+                    return loaded;
+                });
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof IOException && !(ex.getCause() instanceof UncheckedIOException)) {
+                    logger.error("unable to read component: {}", path);
+                    return null;
+                }
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+        return raster;
+    }
+
+    /**
+     * Return the shared, cached copy of a symbol component scaled to an image
+     * size with a resize quality. The raster must not be modified.
+     *
+     * @param path Path of the component relative to the base path.
+     * @param size Requested image size.
+     * @param quality Resampling used to scale the component.
+     * @return the scaled component, or null if the component does not exist.
+     */
+    protected IntRaster component(String path, int size, ResizeQuality quality) {
+        String key = path + '@' + size + '/' + quality;
+        IntRaster raster = scaledComponentCache.getIfPresent(key);
+        if (raster == null) {
+            IntRaster component = this.component(path);
+            if (component == null) {
+                return null;
+            }
+            raster = RasterOps.resize(component, size, quality);
+            scaledComponentCache.put(key, raster);
+        }
+        return raster;
+    }
+
+    /**
+     * Decode a symbol component from the classpath.
+     *
+     * @param path Path of the component relative to the base path.
+     * @return the component, or null if it does not exist.
+     * @throws IOException if the component cannot be decoded.
+     */
+    protected IntRaster loadComponent(String path) throws IOException {
+        try (InputStream is = getClass().getResourceAsStream(this.getBasePath() + "/" + path)) {
+            return is != null ? PngDecoder.decode(is) : null;
+        }
+    }
+
+    protected int imageSize(SymbolServiceProperties params) {
+        Object size = params.get(ServiceConstants.IMAGE_SIZE);
+        return size instanceof Integer ? (Integer) size : ServiceConstants.DEFAULT_IMAGE_SIZE;
+    }
+
+    protected ResizeQuality resizeQuality(SymbolServiceProperties params) {
+        Object quality = params.get(ServiceConstants.RESIZE_QUALITY);
+        return quality instanceof ResizeQuality ? (ResizeQuality) quality : ServiceConstants.DEFAULT_RESIZE_QUALITY;
+    }
+
+    static {
+        TintTable.register(
+                MilStdSymbology.FILL_COLOR_LIGHT_RED, MilStdSymbology.FILL_COLOR_LIGHT_BLUE,
+                MilStdSymbology.FILL_COLOR_LIGHT_GREEN, MilStdSymbology.FILL_COLOR_LIGHT_YELLOW,
+                MilStdSymbology.FILL_COLOR_LIGHT_PURPLE,
+                MilStdSymbology.FRAME_COLOR_RED, MilStdSymbology.FRAME_COLOR_BLUE, MilStdSymbology.FRAME_COLOR_GREEN,
+                MilStdSymbology.FRAME_COLOR_YELLOW, MilStdSymbology.FRAME_COLOR_PURPLE,
+                MilStdSymbology.ICON_COLOR_RED, MilStdSymbology.ICON_COLOR_ORANGE, MilStdSymbology.ICON_COLOR_GREEN,
+                MilStdSymbology.ICON_COLOR_DARK_GREEN, MilStdSymbology.ICON_COLOR_YELLOW,
+                MilStdSymbology.DEFAULT_FRAME_COLOR, MilStdSymbology.DEFAULT_ICON_COLOR, 0xffffffff);
+    }
+}
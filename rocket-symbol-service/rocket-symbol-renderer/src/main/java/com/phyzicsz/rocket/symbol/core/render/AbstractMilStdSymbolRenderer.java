@@ -15,13 +15,20 @@
  */
 package com.phyzicsz.rocket.symbol.core.render;
 
+import com.phyzicsz.rocket.symbol.core.cache.ComponentCache;
+import com.phyzicsz.rocket.symbol.core.cache.ComponentRegistry;
+import com.phyzicsz.rocket.symbol.core.cache.ScaledComponentCache;
+import com.phyzicsz.rocket.symbol.core.utils.ImageIOPool;
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
 import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Objects;
-import javax.imageio.ImageIO;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,7 +37,7 @@ import org.slf4j.LoggerFactory;
  *
  * @author phyzicsz <phyzics.z@gmail.com>
  */
-public abstract class AbstractMilStdSymbolRenderer implements SymbolRenderer {
+public abstract class AbstractMilStdSymbolRenderer implements SymbolRenderer, AutoCloseable {
 
     private static final Logger logger = LoggerFactory.getLogger(AbstractMilStdSymbolRenderer.class);
     /**
@@ -38,20 +45,147 @@ public abstract class AbstractMilStdSymbolRenderer implements SymbolRenderer {
      */
     protected final String baseImagePath = "/symbols";
 
+    /**
+     * Version of the symbol assets under {@link #baseImagePath}. Bump this
+     * whenever the assets change so stale cache snapshots are discarded.
+     */
+    protected static final String ASSET_VERSION = "mil-std-2525c/1";
+
+    /**
+     * Registry the decoded components are shared through.
+     */
+    protected final ComponentRegistry componentRegistry;
+
+    /**
+     * Decoded symbol components keyed by path, shared with every renderer
+     * using the same registry.
+     */
+    protected final ComponentCache componentCache;
+
+    /**
+     * Components scaled to the requested image size, for rendering small
+     * symbols without resizing the composite.
+     */
+    protected final ScaledComponentCache scaledComponentCache
+            = new ScaledComponentCache(ServiceConstants.DEFAULT_SCALED_COMPONENT_CACHE_SIZE);
+
+    private final AtomicBoolean closed = new AtomicBoolean();
+
     public AbstractMilStdSymbolRenderer() {
+        this(ComponentRegistry.shared());
+    }
+
+    public AbstractMilStdSymbolRenderer(ComponentRegistry componentRegistry) {
+        if (componentRegistry == null) {
+            logger.error("componentRegistry is null");
+            throw new IllegalArgumentException("componentRegistry is null");
+        }
+        this.componentRegistry = componentRegistry;
+        this.componentCache = componentRegistry.acquire();
+    }
 
+    /**
+     * Release this renderer's reference to the shared components.
+     */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            componentRegistry.release();
+        }
     }
 
     public String getBasePath() {
         return this.baseImagePath;
     }
 
+    public String getAssetVersion() {
+        return ASSET_VERSION;
+    }
+
+    public ComponentCache getComponentCache() {
+        return this.componentCache;
+    }
+
+    public ScaledComponentCache getScaledComponentCache() {
+        return this.scaledComponentCache;
+    }
+
+    /**
+     * Read a symbol component. Components are decoded once and cached, the
+     * returned image is a private copy the caller may modify.
+     *
+     * @param path Path of the component relative to the base path.
+     * @return BufferedImage, or null if the component does not exist.
+     */
     protected BufferedImage readImage(String path) {
         if (path == null) {
             logger.error("retrieverPath is null");
             throw new IllegalArgumentException("retrieverPath is null");
         }
 
+        BufferedImage image = componentCache.get(path, this::loadImage);
+        return image != null ? ImageUtils.copy(image) : null;
+    }
+
+    /**
+     * Return the shared, cached copy of a symbol component. The image must
+     * not be modified.
+     *
+     * @param path Path of the component relative to the base path.
+     * @return BufferedImage, or null if the component does not exist.
+     */
+    protected BufferedImage component(String path) {
+        if (path == null) {
+            logger.error("retrieverPath is null");
+            throw new IllegalArgumentException("retrieverPath is null");
+        }
+
+        return componentCache.get(path, this::loadImage);
+    }
+
+    /**
+     * Return the shared, cached copy of a symbol component scaled to an image
+     * size the same way {@link ImageUtils#resize} scales a rendered symbol.
+     * The image must not be modified.
+     *
+     * @param path Path of the component relative to the base path.
+     * @param size Requested image size.
+     * @return BufferedImage, or null if the component does not exist.
+     */
+    protected BufferedImage component(String path, int size) {
+        return this.component(path, size, ResizeQuality.BILINEAR);
+    }
+
+    /**
+     * Return the shared, cached copy of a symbol component scaled to an image
+     * size with a resize quality. The image must not be modified.
+     *
+     * @param path Path of the component relative to the base path.
+     * @param size Requested image size.
+     * @param quality Resampling used to scale the component.
+     * @return BufferedImage, or null if the component does not exist.
+     */
+    protected BufferedImage component(String path, int size, ResizeQuality quality) {
+        if (path == null) {
+            logger.error("retrieverPath is null");
+            throw new IllegalArgumentException("retrieverPath is null");
+        }
+
+        return scaledComponentCache.get(path, size, quality, p -> {
+            BufferedImage image = this.component(p);
+            return image != null ? ImageUtils.resize(image, size, quality) : null;
+        });
+    }
+
+    /**
+     * Decode a symbol component from the classpath with this thread's pooled
+     * reader for the component's format, taken from its file extension.
+     *
+     * @param path Path of the component relative to the base path.
+     * @return A {@code TYPE_INT_ARGB} BufferedImage, or null if the component
+     * does not exist.
+     */
+    protected BufferedImage loadImage(String path) {
         StringBuilder sb = new StringBuilder();
         sb.append(this.getBasePath());
         sb.append("/");
@@ -59,9 +193,10 @@ public abstract class AbstractMilStdSymbolRenderer implements SymbolRenderer {
 
          try (InputStream is = getClass().getResourceAsStream(sb.toString())) {
              if (null != is) {
-                 return ImageIO.read(is);
+                 BufferedImage image = ImageIOPool.read(is, path.substring(path.lastIndexOf('.') + 1));
+                 return image != null ? ImageUtils.toIntArgb(image) : null;
              }
-             return ImageIO.read(is);
+             return null;
         }catch (IOException ex) {
             logger.error("ExceptionWhileReading", ex);
         }
@@ -100,6 +235,50 @@ public abstract class AbstractMilStdSymbolRenderer implements SymbolRenderer {
         return dest;
     }
 
+    /**
+     * Multiply an image by a color and draw it into another image at (0, 0) in
+     * a single pass. The source image is not modified.
+     *
+     * @param src Image to draw.
+     * @param color Color to multiply by, or null to draw the image as is.
+     * @param dest Image to draw into, or null to draw into a new transparent
+     * image the size of src.
+     *
+     * @return BufferedImage.
+     */
+    protected BufferedImage multiplyOver(BufferedImage src, Color color, BufferedImage dest) {
+        return this.multiplyOver(src, color, dest, BufferedImage.TYPE_INT_ARGB);
+    }
+
+    /**
+     * Multiply an image by a color and draw it into another image at (0, 0) in
+     * a single pass. The source image is not modified.
+     *
+     * @param src Image to draw.
+     * @param color Color to multiply by, or null to draw the image as is.
+     * @param dest Image to draw into, or null to draw into a new transparent
+     * image the size of src.
+     * @param imageType Type of the image created when dest is null, either
+     * {@code TYPE_INT_ARGB} or {@code TYPE_INT_ARGB_PRE}.
+     *
+     * @return BufferedImage.
+     */
+    protected BufferedImage multiplyOver(BufferedImage src, Color color, BufferedImage dest, int imageType) {
+        if (src == null) {
+            logger.error("src is null");
+            throw new IllegalArgumentException("src is null");
+        }
+
+        int argb = color != null ? color.getRGB() : 0xffffffff;
+        if (dest == null) {
+            dest = new BufferedImage(src.getWidth(), src.getHeight(), imageType);
+            PixelKernels.multiply(src, argb, dest);
+        } else {
+            PixelKernels.multiplyOver(src, argb, dest);
+        }
+        return dest;
+    }
+
     /**
      * Multiply each pixel in an image by a color. White pixels are replaced by
      * the multiplication color, black pixels are unaffected.
@@ -118,43 +297,7 @@ public abstract class AbstractMilStdSymbolRenderer implements SymbolRenderer {
             throw new IllegalArgumentException("color is null");
         }
 
-        int w = image.getWidth();
-        int h = image.getHeight();
-
-        if (w == 0 || h == 0) {
-            return;
-        }
-
-        int[] pixels = new int[w];
-        int c = color.getRGB();
-        float ca = ((c >> 24) & 0xff) / 255f;
-        float cr = ((c >> 16) & 0xff) / 255f;
-        float cg = ((c >> 8) & 0xff) / 255f;
-        float cb = (c & 0xff) / 255f;
-
-        for (int y = 0; y < h; y++) {
-            image.getRGB(0, y, w, 1, pixels, 0, w);
-
-            for (int x = 0; x < w; x++) {
-                int s = pixels[x];
-                float sa = ((s >> 24) & 0xff) / 255f;
-                float sr = ((s >> 16) & 0xff) / 255f;
-                float sg = ((s >> 8) & 0xff) / 255f;
-                float sb = (s & 0xff) / 255f;
-
-                int fa = (int) (ca * sa * 255 + 0.5);
-                int fr = (int) (cr * sr * 255 + 0.5);
-                int fg = (int) (cg * sg * 255 + 0.5);
-                int fb = (int) (cb * sb * 255 + 0.5);
-
-                pixels[x] = (fa & 0xff) << 24
-                        | (fr & 0xff) << 16
-                        | (fg & 0xff) << 8
-                        | (fb & 0xff);
-            }
-
-            image.setRGB(0, y, w, 1, pixels, 0, w);
-        }
+        PixelKernels.multiply(image, color.getRGB());
     }
 
 
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.render;
+
+import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * One symbol of a batch render: a symbol code, its options and the rectangle
+ * of the destination image it is drawn into. The symbol is sized to fit the
+ * rectangle, centered in it and clipped to it.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class BatchEntry {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchEntry.class);
+
+    private final String symbolCode;
+    private final SymbolServiceProperties props;
+    private final int x;
+    private final int y;
+    private final int width;
+    private final int height;
+
+    /**
+     * @param symbolCode SIDC of the symbol.
+     * @param props Symbol options, null for the defaults. The image size in
+     * them is ignored.
+     * @param x Left edge of the rectangle in the destination.
+     * @param y Top edge of the rectangle in the destination.
+     * @param width Width of the rectangle.
+     * @param height Height of the rectangle.
+     */
+    public BatchEntry(String symbolCode, SymbolServiceProperties props, int x, int y, int width, int height) {
+        if (symbolCode == null) {
+            logger.error("symbol code is null");
+            throw new IllegalArgumentException("symbol code is null");
+        }
+        if (width <= 0 || height <= 0) {
+            logger.error("invalid batch rectangle: {}x{}", width, height);
+            throw new IllegalArgumentException("invalid batch rectangle: " + width + "x" + height);
+        }
+        this.symbolCode = symbolCode;
+        this.props = props != null ? props : new SymbolServiceProperties();
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public String getSymbolCode() {
+        return symbolCode;
+    }
+
+    public SymbolServiceProperties getProperties() {
+        return props;
+    }
+
+    public int getX() {
+        return x;
+    }
+
+    public int getY() {
+        return y;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Size the symbol is rendered at, the shorter side of the rectangle.
+     *
+     * @return the symbol size.
+     */
+    public int getSize() {
+        return Math.min(width, height);
+    }
+}
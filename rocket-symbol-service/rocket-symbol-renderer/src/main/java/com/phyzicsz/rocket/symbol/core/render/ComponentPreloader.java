@@ -0,0 +1,373 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.render;
+
+import com.phyzicsz.rocket.symbol.core.cache.ComponentCache;
+import java.awt.image.BufferedImage;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Decodes symbol components into the component cache ahead of time, in
+ * parallel on a fork/join pool. Used on nodes that should have every
+ * component resident before they take traffic.
+ * <p>
+ * Peak memory is bounded two ways: the parallelism limits how many components
+ * are being decoded at once, and an optional memory budget caps the pixel
+ * data the preload adds. Each worker claims a component's size from its PNG
+ * header before decoding it and skips the component if the claim would go
+ * over the budget, so the budget holds however many workers run at once.
+ * Components already in the cache are counted as loaded but not against the
+ * budget.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ComponentPreloader {
+
+    private static final Logger logger = LoggerFactory.getLogger(ComponentPreloader.class);
+
+    /**
+     * Number of components a fork/join task decodes without splitting.
+     */
+    private static final int SPLIT_THRESHOLD = 64;
+
+    private static final int PNG_IHDR = 0x49484452;
+
+    private final MilStdSymbolRenderer renderer;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private long memoryBudget = Long.MAX_VALUE;
+    private ProgressListener listener = (loaded, total) -> {
+    };
+
+    public ComponentPreloader(MilStdSymbolRenderer renderer) {
+        if (renderer == null) {
+            logger.error("renderer is null");
+            throw new IllegalArgumentException("renderer is null");
+        }
+        this.renderer = renderer;
+    }
+
+    public ComponentPreloader withParallelism(int parallelism) {
+        if (parallelism <= 0) {
+            logger.error("parallelism must be positive: {}", parallelism);
+            throw new IllegalArgumentException("parallelism must be positive");
+        }
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Skip components that would take the pixel data decoded by this preload
+     * over this many bytes.
+     *
+     * @param bytes memory budget in bytes.
+     * @return this preloader.
+     */
+    public ComponentPreloader withMemoryBudget(long bytes) {
+        this.memoryBudget = bytes;
+        return this;
+    }
+
+    /**
+     * Listener called as components are decoded. It is called from the
+     * preload worker threads.
+     *
+     * @param listener progress listener.
+     * @return this preloader.
+     */
+    public ComponentPreloader withProgressListener(ProgressListener listener) {
+        if (listener == null) {
+            logger.error("listener is null");
+            throw new IllegalArgumentException("listener is null");
+        }
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Decode the components of the given schemes. Fills, frames and unknown
+     * battle dimension icons are shared by all schemes and always loaded.
+     *
+     * @param schemes Scheme codes, e.g. {@code SymbologyConstants.SCHEME_WARFIGHTING}.
+     * No schemes loads every scheme.
+     * @return the outcome of the preload.
+     * @throws IOException if the components cannot be listed.
+     */
+    public Result preload(String... schemes) throws IOException {
+        long start = System.nanoTime();
+
+        List<String> paths = listComponents(componentDirectories(schemes));
+        ComponentCache cache = renderer.getComponentCache();
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicLong bytes = new AtomicLong();
+        int total = paths.size();
+        int reportEvery = Math.max(1, total / 100);
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new PreloadTask(paths, 0, total, path -> {
+                if (cache.getIfPresent(path) == null) {
+                    // claim the bytes before decoding so concurrent workers cannot overshoot the budget
+                    long reserved = decodedSize(path);
+                    if (bytes.addAndGet(reserved) > memoryBudget) {
+                        bytes.addAndGet(-reserved);
+                        return;
+                    }
+                    BufferedImage image = renderer.loadImage(path);
+                    if (image == null) {
+                        bytes.addAndGet(-reserved);
+                        logger.warn("unable to preload component {}", path);
+                        return;
+                    }
+                    cache.put(path, image);
+                    bytes.addAndGet(4L * image.getWidth() * image.getHeight() - reserved);
+                }
+                int count = loaded.incrementAndGet();
+                if (count % reportEvery == 0 || count == total) {
+                    listener.progress(count, total);
+                }
+            }));
+        } finally {
+            pool.shutdown();
+        }
+
+        Result result = new Result(loaded.get(), total, bytes.get(), Duration.ofNanos(System.nanoTime() - start));
+        logger.info("preloaded {} of {} components ({} bytes) in {} ms", result.getLoaded(), result.getTotal(),
+                result.getBytes(), result.getTimeToReady().toMillis());
+        return result;
+    }
+
+    /**
+     * Bytes a component takes once decoded to an int ARGB image, read from the
+     * width and height in its PNG header. Components whose header cannot be
+     * read are assumed to be {@link ServiceConstants#DEFAULT_IMAGE_SIZE}
+     * square.
+     */
+    private long decodedSize(String path) {
+        try (InputStream is = renderer.getClass().getResourceAsStream(renderer.getBasePath() + "/" + path)) {
+            if (is != null) {
+                DataInputStream in = new DataInputStream(is);
+                in.readFully(new byte[12]); // signature and chunk length
+                if (in.readInt() == PNG_IHDR) {
+                    return 4L * in.readInt() * in.readInt();
+                }
+            }
+        } catch (IOException ex) {
+            logger.debug("unable to read the header of component {}", path, ex);
+        }
+        return 4L * ServiceConstants.DEFAULT_IMAGE_SIZE * ServiceConstants.DEFAULT_IMAGE_SIZE;
+    }
+
+    private List<String> componentDirectories(String... schemes) {
+        List<String> dirs = new ArrayList<>();
+        dirs.add(MilStdSymbology.FILLS_PATH + "/" + MilStdSymbology.TACTICAL_SYMBOLS_PATH);
+        dirs.add(MilStdSymbology.FRAMES_PATH + "/" + MilStdSymbology.TACTICAL_SYMBOLS_PATH);
+        dirs.add(MilStdSymbology.ICONS_PATH + "/" + MilStdSymbology.UNKNOWN_PATH);
+
+        Set<String> schemePaths = new LinkedHashSet<>();
+        if (schemes.length == 0) {
+            schemePaths.addAll(MilStdSymbology.schemePaths());
+        } else {
+            for (String scheme : schemes) {
+                String schemePath = MilStdSymbology.schemePath(scheme);
+                if (schemePath == null) {
+                    logger.error("unsupported scheme: {}", scheme);
+                    throw new IllegalArgumentException("unsupported scheme: " + scheme);
+                }
+                schemePaths.add(schemePath);
+            }
+        }
+        schemePaths.forEach(schemePath -> dirs.add(MilStdSymbology.ICONS_PATH + "/" + schemePath));
+
+        return dirs;
+    }
+
+    /**
+     * List the component paths in the given directories, relative to the
+     * renderer's base path. Works for components on the file system and
+     * packaged in a jar.
+     */
+    private List<String> listComponents(List<String> dirs) throws IOException {
+        URL url = renderer.getClass().getResource(renderer.getBasePath());
+        if (url == null) {
+            logger.error("symbol resources not found: {}", renderer.getBasePath());
+            throw new IOException("symbol resources not found: " + renderer.getBasePath());
+        }
+
+        URI uri;
+        try {
+            uri = url.toURI();
+        } catch (URISyntaxException ex) {
+            throw new IOException("invalid symbol resource location: " + url, ex);
+        }
+
+        if ("jar".equals(uri.getScheme())) {
+            FileSystem fs;
+            boolean opened = false;
+            try {
+                fs = FileSystems.newFileSystem(uri, Collections.emptyMap());
+                opened = true;
+            } catch (FileSystemAlreadyExistsException ex) {
+                fs = FileSystems.getFileSystem(uri);
+            }
+            try {
+                return listComponents(fs.getPath(renderer.getBasePath()), dirs);
+            } finally {
+                if (opened) {
+                    fs.close();
+                }
+            }
+        }
+        return listComponents(Paths.get(uri), dirs);
+    }
+
+    private static List<String> listComponents(Path root, List<String> dirs) throws IOException {
+        List<String> paths = new ArrayList<>();
+        for (String dir : dirs) {
+            Path path = root.resolve(dir);
+            if (!Files.isDirectory(path)) {
+                continue;
+            }
+            try (Stream<Path> files = Files.list(path)) {
+                paths.addAll(files.map(file -> file.getFileName().toString())
+                        .filter(name -> name.endsWith(".png"))
+                        .sorted()
+                        .map(name -> dir + "/" + name)
+                        .collect(Collectors.toList()));
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * Receives preload progress.
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+
+        void progress(int loaded, int total);
+    }
+
+    /**
+     * Outcome of a preload.
+     */
+    public static final class Result {
+
+        private final int loaded;
+        private final int total;
+        private final long bytes;
+        private final Duration timeToReady;
+
+        Result(int loaded, int total, long bytes, Duration timeToReady) {
+            this.loaded = loaded;
+            this.total = total;
+            this.bytes = bytes;
+            this.timeToReady = timeToReady;
+        }
+
+        public int getLoaded() {
+            return loaded;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Bytes of pixel data decoded by this preload. Components that were
+         * already cached are not counted.
+         *
+         * @return decoded bytes.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        public Duration getTimeToReady() {
+            return timeToReady;
+        }
+
+        /**
+         * Whether every component was loaded, i.e. the memory budget was not
+         * hit and no component was missing.
+         *
+         * @return true if the preload is complete.
+         */
+        public boolean isComplete() {
+            return loaded == total;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" + "loaded=" + loaded + ", total=" + total + ", bytes=" + bytes
+                    + ", timeToReady=" + timeToReady + '}';
+        }
+    }
+
+    private static final class PreloadTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<String> paths;
+        private final int from;
+        private final int to;
+        private final transient Consumer<String> action;
+
+        PreloadTask(List<String> paths, int from, int to, Consumer<String> action) {
+            this.paths = paths;
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    action.accept(paths.get(i));
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new PreloadTask(paths, from, mid, action), new PreloadTask(paths, mid, to, action));
+            }
+        }
+    }
+}
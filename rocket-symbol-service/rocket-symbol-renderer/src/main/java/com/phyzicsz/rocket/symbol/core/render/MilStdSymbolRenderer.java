@@ -15,25 +15,25 @@
  */
 package com.phyzicsz.rocket.symbol.core.render;
 
-import com.google.common.net.MediaType;
 import com.phyzicsz.rocket.symbol.code.SymbolCode;
 import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
-import com.phyzicsz.rocket.symbol.code.SymbologyConstants;
+import com.phyzicsz.rocket.symbol.core.cache.ComponentRegistry;
+import com.phyzicsz.rocket.symbol.core.cache.DotCache;
+import com.phyzicsz.rocket.symbol.core.cache.RenderCache;
 import com.phyzicsz.rocket.symbol.core.exception.UnsupportedMimeType;
 import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
-import com.phyzicsz.rocket.symbol.core.utils.MimeEncodingUtils;
-import java.awt.BasicStroke;
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+import com.phyzicsz.rocket.symbol.core.utils.ScratchBuffers;
+import com.phyzicsz.rocket.symbol.core.utils.TintTable;
 import java.awt.Color;
-import java.awt.Graphics2D;
-import java.awt.RenderingHints;
-import java.awt.geom.Ellipse2D;
 import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -47,56 +47,69 @@ public class MilStdSymbolRenderer extends AbstractMilStdSymbolRenderer {
 
     private static final Logger logger = LoggerFactory.getLogger(MilStdSymbolRenderer.class);
 
-    protected static final String FILLS_PATH = "fills";
-    protected static final String FRAMES_PATH = "frames";
-    protected static final String ICONS_PATH = "icons";
-    protected static final String TACTICAL_SYMBOLS_PATH = "tacsym";
-    protected static final String UNKNOWN_PATH = "unk";
-
-    protected static final Color FILL_COLOR_LIGHT_RED = new Color(255, 128, 128);
-    protected static final Color FILL_COLOR_LIGHT_BLUE = new Color(128, 224, 255);
-    protected static final Color FILL_COLOR_LIGHT_GREEN = new Color(170, 255, 170);
-    protected static final Color FILL_COLOR_LIGHT_YELLOW = new Color(255, 255, 128);
-    protected static final Color FILL_COLOR_LIGHT_PURPLE = new Color(255, 161, 255);
-
-    protected static final Color FRAME_COLOR_RED = new Color(255, 0, 0);
-    protected static final Color FRAME_COLOR_BLUE = new Color(0, 255, 255);
-    protected static final Color FRAME_COLOR_GREEN = new Color(0, 255, 0);
-    protected static final Color FRAME_COLOR_YELLOW = new Color(255, 255, 0);
-    protected static final Color FRAME_COLOR_PURPLE = new Color(255, 0, 255);
-
-    protected static final Color ICON_COLOR_RED = new Color(255, 0, 0);
-    protected static final Color ICON_COLOR_ORANGE = new Color(255, 140, 0);
-    protected static final Color ICON_COLOR_GREEN = new Color(0, 255, 0);
-    protected static final Color ICON_COLOR_DARK_GREEN = new Color(0, 128, 0);
-    protected static final Color ICON_COLOR_YELLOW = new Color(255, 255, 0);
+    protected static final Color FILL_COLOR_LIGHT_RED = new Color(MilStdSymbology.FILL_COLOR_LIGHT_RED, true);
+    protected static final Color FILL_COLOR_LIGHT_BLUE = new Color(MilStdSymbology.FILL_COLOR_LIGHT_BLUE, true);
+    protected static final Color FILL_COLOR_LIGHT_GREEN = new Color(MilStdSymbology.FILL_COLOR_LIGHT_GREEN, true);
+    protected static final Color FILL_COLOR_LIGHT_YELLOW = new Color(MilStdSymbology.FILL_COLOR_LIGHT_YELLOW, true);
+    protected static final Color FILL_COLOR_LIGHT_PURPLE = new Color(MilStdSymbology.FILL_COLOR_LIGHT_PURPLE, true);
+
+    protected static final Color FRAME_COLOR_RED = new Color(MilStdSymbology.FRAME_COLOR_RED, true);
+    protected static final Color FRAME_COLOR_BLUE = new Color(MilStdSymbology.FRAME_COLOR_BLUE, true);
+    protected static final Color FRAME_COLOR_GREEN = new Color(MilStdSymbology.FRAME_COLOR_GREEN, true);
+    protected static final Color FRAME_COLOR_YELLOW = new Color(MilStdSymbology.FRAME_COLOR_YELLOW, true);
+    protected static final Color FRAME_COLOR_PURPLE = new Color(MilStdSymbology.FRAME_COLOR_PURPLE, true);
+
+    protected static final Color ICON_COLOR_RED = new Color(MilStdSymbology.ICON_COLOR_RED, true);
+    protected static final Color ICON_COLOR_ORANGE = new Color(MilStdSymbology.ICON_COLOR_ORANGE, true);
+    protected static final Color ICON_COLOR_GREEN = new Color(MilStdSymbology.ICON_COLOR_GREEN, true);
+    protected static final Color ICON_COLOR_DARK_GREEN = new Color(MilStdSymbology.ICON_COLOR_DARK_GREEN, true);
+    protected static final Color ICON_COLOR_YELLOW = new Color(MilStdSymbology.ICON_COLOR_YELLOW, true);
 
     protected static final Color DEFAULT_FRAME_COLOR = Color.BLACK;
     protected static final Color DEFAULT_ICON_COLOR = Color.BLACK;
-    protected static final MediaType DEFAULT_IMAGE_FORMAT = MediaType.PNG;
 
     /**
      * Radius (in pixels) of circle that is drawn to the represent the symbol
      * when both frame and icon are off.
      */
-    protected static final int CIRCLE_RADIUS = 16;
+    protected static final int CIRCLE_RADIUS = MilStdSymbology.CIRCLE_RADIUS;
     /**
      * Line width used to stroke circle when fill is turned off.
      */
-    protected static final int CIRCLE_LINE_WIDTH = 2;
+    protected static final int CIRCLE_LINE_WIDTH = MilStdSymbology.CIRCLE_LINE_WIDTH;
+
+    /**
+     * Symbology rules deciding the components and colors of a symbol.
+     */
+    protected final MilStdSymbology symbology = new MilStdSymbology();
+
+    /**
+     * Fully rendered symbols keyed by {@link #renderKey}. Renders depend on the
+     * options of each request, so unlike components they are not shared.
+     */
+    protected final RenderCache renderCache = new RenderCache(ServiceConstants.DEFAULT_RENDER_CACHE_SIZE);
 
-    protected static final Map<String, String> schemePathMap = new HashMap<>();
-    protected static final Map<String, Color> fillColorMap = new HashMap<>();
-    protected static final Map<String, Color> frameColorMap = new HashMap<>();
-    protected static final Map<String, Color> iconColorMap = new HashMap<>();
-    protected static final Set<String> unfilledIconMap = new HashSet<>();
-    protected static final Set<String> unframedIconMap = new HashSet<>();
-    protected static final Set<String> emsEquipment = new HashSet<>();
+    /**
+     * Dots drawn for symbols with frame and icon off, at their final size.
+     */
+    protected final DotCache dotCache = new DotCache(ServiceConstants.DEFAULT_DOT_CACHE_SIZE);
 
     public MilStdSymbolRenderer() {
 
     }
 
+    public MilStdSymbolRenderer(ComponentRegistry componentRegistry) {
+        super(componentRegistry);
+    }
+
+    public RenderCache getRenderCache() {
+        return this.renderCache;
+    }
+
+    public DotCache getDotCache() {
+        return this.dotCache;
+    }
+
     /**
      * Create an icon for a MIL-STD-2525C symbol.By default the symbol will
      * include a filled frame and an icon. The fill, frame, and icon can be
@@ -105,12 +118,41 @@ public class MilStdSymbolRenderer extends AbstractMilStdSymbolRenderer {
      *
      * @param sidc SIDC identifier for the symbol.
      * @param params Parameters that affect icon retrieval.
-     * @return An BufferedImage containing the icon for the requested symbol, or
-     * null if the icon cannot be retrieved.
+     * @return A {@code TYPE_INT_ARGB} BufferedImage containing the icon for
+     * the requested symbol, or null if the icon cannot be retrieved.
      * @throws java.io.IOException
      */
     @Override
     public BufferedImage createIcon(String sidc, SymbolServiceProperties params) throws IOException, UnsupportedMimeType {
+        return ImageUtils.copyToIntArgb(this.sharedIcon(sidc, params));
+    }
+
+    /**
+     * Like {@link #createIcon}, but return a read only handle on the cached
+     * render instead of a copy.
+     *
+     * @param sidc SIDC identifier for the symbol.
+     * @param params Parameters that affect icon retrieval.
+     * @return a handle on the shared rendered symbol.
+     * @throws java.io.IOException
+     */
+    public SymbolImage symbolImage(String sidc, SymbolServiceProperties params) throws IOException, UnsupportedMimeType {
+        return new SymbolImage(this.sharedIcon(sidc, params));
+    }
+
+    /**
+     * Like {@link #createIcon}, but return the cached render itself instead of
+     * a copy. For callers that only read the image, such as encoders. The
+     * image is shared and must not be modified. With
+     * {@link ServiceConstants#INDEXED_COLOR} set it is
+     * {@code TYPE_BYTE_INDEXED} unless the symbol has too many colors.
+     *
+     * @param sidc SIDC identifier for the symbol.
+     * @param params Parameters that affect icon retrieval.
+     * @return the shared rendered symbol.
+     * @throws java.io.IOException
+     */
+    public BufferedImage sharedIcon(String sidc, SymbolServiceProperties params) throws IOException, UnsupportedMimeType {
         if (sidc == null) {
             logger.error("symbol code is null");
             throw new IllegalArgumentException("symbol code is null");
@@ -119,6 +161,118 @@ public class MilStdSymbolRenderer extends AbstractMilStdSymbolRenderer {
         //replace all tactical customizations with standard markings...
         sidc = sidc.replace('*', '-');
 
+        String key = this.renderKey(sidc, params);
+        BufferedImage cached = renderCache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        BufferedImage image = this.renderIcon(sidc, params);
+        if (this.indexedColor(params)) {
+            image = ImageUtils.toIndexed(image);
+        }
+        renderCache.put(key, image);
+        return image;
+    }
+
+    /**
+     * Render a symbol into a caller supplied image. The cached render at the
+     * requested size is blended straight into dest, clipped to its bounds, so
+     * no image is allocated once the render is cached.
+     *
+     * @param sidc SIDC identifier for the symbol.
+     * @param params Parameters that affect icon retrieval, the image size in
+     * them is ignored.
+     * @param dest Image to draw into.
+     * @param x Horizontal position in dest.
+     * @param y Vertical position in dest.
+     * @param size Size of the symbol's longer side.
+     * @throws java.io.IOException
+     */
+    @Override
+    public void renderInto(String sidc, SymbolServiceProperties params, BufferedImage dest, int x, int y, int size)
+            throws IOException, UnsupportedMimeType {
+        if (dest == null) {
+            logger.error("dest is null");
+            throw new IllegalArgumentException("dest is null");
+        }
+
+        BufferedImage image = this.sharedIcon(sidc, this.sized(params, size));
+        if (image.getType() != BufferedImage.TYPE_INT_ARGB) {
+            image = ImageUtils.toIntArgb(image,
+                    ScratchBuffers.image(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB));
+        }
+        this.blendInto(image, dest, x, y, 0, 0, dest.getWidth(), dest.getHeight());
+    }
+
+    /**
+     * Render a batch of symbols into one destination image, such as a contact
+     * sheet or atlas. Each distinct symbol of the batch is looked up or
+     * rendered once, converted for blending once, and blended straight into
+     * its rectangle of dest, so repeated symbols cost only the blend even if
+     * the batch is larger than the render cache.
+     *
+     * @param entries Symbols and their rectangles in dest.
+     * @param dest Image to draw into.
+     * @throws java.io.IOException
+     */
+    @Override
+    public void renderBatch(List<BatchEntry> entries, BufferedImage dest) throws IOException, UnsupportedMimeType {
+        if (entries == null || dest == null) {
+            logger.error("batch entries or dest is null");
+            throw new IllegalArgumentException("batch entries or dest is null");
+        }
+
+        Map<String, BufferedImage> rendered = new HashMap<>();
+        for (BatchEntry entry : entries) {
+            String sidc = entry.getSymbolCode().replace('*', '-');
+            SymbolServiceProperties sized = this.sized(entry.getProperties(), entry.getSize());
+            String key = this.renderKey(sidc, sized);
+
+            BufferedImage image = rendered.get(key);
+            if (image == null) {
+                image = ImageUtils.toIntArgb(this.sharedIcon(sidc, sized));
+                rendered.put(key, image);
+            }
+
+            int x = entry.getX() + (entry.getWidth() - image.getWidth()) / 2;
+            int y = entry.getY() + (entry.getHeight() - image.getHeight()) / 2;
+            this.blendInto(image, dest, x, y, entry.getX(), entry.getY(),
+                    entry.getX() + entry.getWidth(), entry.getY() + entry.getHeight());
+        }
+    }
+
+    /**
+     * Blend a {@code TYPE_INT_ARGB} image source-over into dest at (x, y),
+     * clipped to a rectangle and to the bounds of dest.
+     */
+    private void blendInto(BufferedImage image, BufferedImage dest, int x, int y,
+            int clipX0, int clipY0, int clipX1, int clipY1) {
+        int x0 = Math.max(Math.max(x, clipX0), 0);
+        int y0 = Math.max(Math.max(y, clipY0), 0);
+        int x1 = Math.min(Math.min(x + image.getWidth(), clipX1), dest.getWidth());
+        int y1 = Math.min(Math.min(y + image.getHeight(), clipY1), dest.getHeight());
+        if (x1 <= x0 || y1 <= y0) {
+            return;
+        }
+        PixelKernels.multiplyOver(image.getSubimage(x0 - x, y0 - y, x1 - x0, y1 - y0), 0xffffffff,
+                dest.getSubimage(x0, y0, x1 - x0, y1 - y0));
+    }
+
+    /**
+     * The properties with the image size replaced, copied only if it differs.
+     */
+    private SymbolServiceProperties sized(SymbolServiceProperties params, int size) {
+        if (Objects.equals(this.imageSize(params), size)) {
+            return params;
+        }
+        SymbolServiceProperties sized = new SymbolServiceProperties();
+        sized.putAll(params);
+        sized.put(ServiceConstants.IMAGE_SIZE, size);
+        return sized;
+    }
+
+    protected BufferedImage renderIcon(String sidc, SymbolServiceProperties params) throws IOException, UnsupportedMimeType {
         SymbolCode symbolCode = new SymbolCode(sidc);
         BufferedImage image = null;
 
@@ -140,19 +294,59 @@ public class MilStdSymbolRenderer extends AbstractMilStdSymbolRenderer {
             }
         }
 
+        Integer size = this.imageSize(params);
+        boolean drawnAtSize = image != null && this.renderAtSize(size);
+
         // Draw a dot if both frame and icon are turned off
         if (image == null) {
-            image = this.drawCircle(symbolCode, params, image);
+            return this.dot(symbolCode, params);
         }
 
-        Integer size = this.imageSize(params);
-        if (Objects.equals(size, ServiceConstants.DEFAULT_IMAGE_SIZE)) {
+        if (Objects.equals(size, ServiceConstants.DEFAULT_IMAGE_SIZE) || drawnAtSize) {
             return image;
         } else {
-            return ImageUtils.resize(image, size);
+            return ImageUtils.resize(image, size, this.resizeQuality(params));
         }
     }
 
+    /**
+     * Whether symbols of a size are composited from components scaled to that
+     * size instead of being composited at the component size and resized.
+     * This is done for sizes below the component size, where compositing the
+     * full size components would touch many times the pixels needed. Larger
+     * sizes are composited first so the layers are only upscaled once.
+     *
+     * @param size Requested image size.
+     * @return true to composite scaled components.
+     */
+    protected boolean renderAtSize(Integer size) {
+        return size != null && size > 0 && size < ServiceConstants.DEFAULT_IMAGE_SIZE;
+    }
+
+    /**
+     * Build the render cache key for a symbol. The key covers every property
+     * that changes the rendered image.
+     *
+     * @param sidc SIDC identifier for the symbol.
+     * @param params Parameters that affect icon retrieval.
+     * @return render cache key.
+     */
+    protected String renderKey(String sidc, SymbolServiceProperties params) {
+        Color color = this.getColorFromParams(params);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(sidc.toUpperCase()).append('|');
+        sb.append(this.imageSize(params)).append('|');
+        sb.append(this.resizeQuality(params)).append('|');
+        sb.append(this.indexedColor(params) ? "indexed" : "argb").append('|');
+        sb.append(params != null ? params.get(SymbolServiceProperties.SHOW_FILL) : null).append('|');
+        sb.append(params != null ? params.get(SymbolServiceProperties.SHOW_FRAME) : null).append('|');
+        sb.append(params != null ? params.get(SymbolServiceProperties.SHOW_ICON) : null).append('|');
+        sb.append(color != null ? Integer.toHexString(color.getRGB()) : "-");
+
+        return sb.toString();
+    }
+
     protected Integer imageSize(SymbolServiceProperties params) {
 
         Object maybeSize = params.get(ServiceConstants.IMAGE_SIZE);
@@ -168,52 +362,91 @@ public class MilStdSymbolRenderer extends AbstractMilStdSymbolRenderer {
 
     }
 
-    protected boolean mustDrawFill(SymbolCode symbolCode, SymbolServiceProperties params) {
-        String maskedCode = symbolCode.toMaskedString().toLowerCase();
-        if (unfilledIconMap.contains(maskedCode)) {
-            return false;
+    protected ResizeQuality resizeQuality(SymbolServiceProperties params) {
+        Object maybeQuality = params != null ? params.get(ServiceConstants.RESIZE_QUALITY) : null;
+        if (maybeQuality instanceof ResizeQuality) {
+            return (ResizeQuality) maybeQuality;
         }
+        return ServiceConstants.DEFAULT_RESIZE_QUALITY;
+    }
 
-        Object o = params != null ? params.get(SymbolServiceProperties.SHOW_FILL) : null;
-        return o == null || o.equals(Boolean.TRUE);
+    /**
+     * Whether renders are cached as indexed color images.
+     *
+     * @param params Parameters that affect icon retrieval.
+     * @return true for indexed color renders.
+     */
+    protected boolean indexedColor(SymbolServiceProperties params) {
+        return params != null && Boolean.TRUE.equals(params.get(ServiceConstants.INDEXED_COLOR));
     }
 
-    protected boolean mustDrawFrame(SymbolCode symbolCode, SymbolServiceProperties params) {
-        String maskedCode = symbolCode.toMaskedString().toLowerCase();
-        if (unframedIconMap.contains(maskedCode)) {
-            return false;
-        }
+    protected boolean mustDrawFill(SymbolCode symbolCode, SymbolServiceProperties params) {
+        return this.symbology.mustDrawFill(symbolCode, params);
+    }
 
-        Object o = params != null ? params.get(SymbolServiceProperties.SHOW_FRAME) : null;
-        return o == null || o.equals(Boolean.TRUE);
+    protected boolean mustDrawFrame(SymbolCode symbolCode, SymbolServiceProperties params) {
+        return this.symbology.mustDrawFrame(symbolCode, params);
     }
 
     protected boolean mustDrawIcon(SymbolCode symbolCode, SymbolServiceProperties params) {
-        Object o = params != null ? params.get(SymbolServiceProperties.SHOW_ICON) : null;
-        return o == null || o.equals(Boolean.TRUE);
+        return this.symbology.mustDrawIcon(symbolCode, params);
     }
 
     protected BufferedImage drawFill(SymbolCode symbolCode, SymbolServiceProperties params, BufferedImage dest) throws UnsupportedMimeType {
         String path = this.composeFillPath(symbolCode);
         Color color = this.getFillColor(symbolCode, params);
 
-        return path != null ? this.drawIconComponent(path, color, dest) : dest;
+        return path != null ? this.drawIconComponent(path, color, dest, params) : dest;
     }
 
     protected BufferedImage drawFrame(SymbolCode symbolCode, SymbolServiceProperties params, BufferedImage dest) throws UnsupportedMimeType {
         String path = this.composeFramePath(symbolCode);
         Color color = this.getFrameColor(symbolCode, params);
 
-        return path != null ? this.drawIconComponent(path, color, dest) : dest;
+        return path != null ? this.drawIconComponent(path, color, dest, params) : dest;
     }
 
     protected BufferedImage drawIcon(SymbolCode symbolCode, SymbolServiceProperties params, BufferedImage dest) throws IOException, UnsupportedMimeType {
         String path = this.composeIconPath(symbolCode, params);
         Color color = this.getIconColor(symbolCode, params);
 
-        return path != null ? this.drawIconComponent(path, color, dest) : dest;
+        return path != null ? this.drawIconComponent(path, color, dest, params) : dest;
     }
 
+    /**
+     * Return the shared dot for a symbol with frame and icon off, drawing and
+     * resizing it only the first time its fill color is seen at a size. The
+     * image must not be modified.
+     *
+     * @param symbolCode Symbol code of the dot.
+     * @param params Parameters that affect icon retrieval.
+     * @return the shared dot at the requested size.
+     */
+    protected BufferedImage dot(SymbolCode symbolCode, SymbolServiceProperties params) {
+        Color fillColor = this.mustDrawFill(symbolCode, params) ? this.getFillColor(symbolCode, params)
+                : DEFAULT_ICON_COLOR;
+        Integer size = this.imageSize(params);
+        ResizeQuality quality = this.resizeQuality(params);
+
+        return dotCache.get(fillColor != null ? fillColor.getRGB() : null, size, quality, () -> {
+            BufferedImage image = this.drawCircle(symbolCode, params, null);
+            return Objects.equals(size, ServiceConstants.DEFAULT_IMAGE_SIZE) ? image
+                    : ImageUtils.resize(image, size, quality);
+        });
+    }
+
+    /**
+     * Draw the dot of a symbol with frame and icon off: a circle filled with
+     * the symbol's fill color and outlined in the frame color. The circle is
+     * drawn by {@link PixelKernels#drawDot}, the same kernel the AWT-free
+     * renderer uses, so both renderers draw identical dots.
+     *
+     * @param symbolCode Symbol code of the dot.
+     * @param params Parameters that affect icon retrieval.
+     * @param dest Image to draw into, or null to draw into a new transparent
+     * {@code TYPE_INT_ARGB} image the size of the dot.
+     * @return the image drawn into.
+     */
     protected BufferedImage drawCircle(SymbolCode symbolCode, SymbolServiceProperties params, BufferedImage dest) {
         Color frameColor = DEFAULT_FRAME_COLOR;
         Color fillColor = this.mustDrawFill(symbolCode, params) ? this.getFillColor(symbolCode, params)
@@ -223,665 +456,132 @@ public class MilStdSymbolRenderer extends AbstractMilStdSymbolRenderer {
             int diameter = CIRCLE_RADIUS * 2;
             dest = new BufferedImage(diameter, diameter, BufferedImage.TYPE_INT_ARGB);
         }
-
-        Graphics2D g = null;
-        try {
-            g = dest.createGraphics();
-            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-
-            int upperLeft = (int) (dest.getWidth() / 2.0 - CIRCLE_RADIUS + CIRCLE_LINE_WIDTH);
-            int width = CIRCLE_RADIUS * 2 - CIRCLE_LINE_WIDTH * 2;
-            @SuppressWarnings({"SuspiciousNameCombination"})
-            Ellipse2D circle = new Ellipse2D.Double(upperLeft, upperLeft, width, width);
-
-            // Draw filled circle
-            g.setColor(fillColor);
-            g.fill(circle);
-
-            // Draw the circle's border. Always draw the circle with a solid border, even if the status is not Present.
-            // MIL-STD-2525C section 5.3.1.4 (pg. 18) states: "Planned status cannot be shown if the symbol is [...]
-            // displayed as a dot."
-            g.setColor(frameColor);
-            g.setStroke(new BasicStroke(CIRCLE_LINE_WIDTH));
-            g.draw(circle);
-        } finally {
-            if (g != null) {
-                g.dispose();
-            }
-        }
-
-        return dest;
+        BufferedImage image = dest.getType() == BufferedImage.TYPE_INT_ARGB ? dest
+                : new BufferedImage(dest.getWidth(), dest.getHeight(), BufferedImage.TYPE_INT_ARGB);
+
+        // Java2D normalizes antialiased shapes onto pixel centers
+        int upperLeft = (int) (image.getWidth() / 2.0 - CIRCLE_RADIUS + CIRCLE_LINE_WIDTH);
+        int width = CIRCLE_RADIUS * 2 - CIRCLE_LINE_WIDTH * 2;
+        double center = upperLeft + width / 2.0 + 0.5;
+
+        // Draw the circle's border. Always draw the circle with a solid border, even if the status is not Present.
+        // MIL-STD-2525C section 5.3.1.4 (pg. 18) states: "Planned status cannot be shown if the symbol is [...]
+        // displayed as a dot."
+        WritableRaster raster = image.getRaster();
+        PixelKernels.drawDot(PixelKernels.data(raster), PixelKernels.offset(raster), PixelKernels.scanline(raster),
+                image.getWidth(), image.getHeight(), center, center, width / 2.0,
+                fillColor != null ? fillColor.getRGB() : 0xffffffff, CIRCLE_LINE_WIDTH, frameColor.getRGB());
+
+        return image == dest ? dest : this.drawImage(image, dest);
     }
 
     protected BufferedImage drawIconComponent(String path, Color color, BufferedImage dest) {
-        BufferedImage image = this.readImage(path);
+        BufferedImage image = this.component(path);
         if (image == null) {
             logger.error("missing icon component");
             throw new IllegalArgumentException("missing icon component");
         }
 
-        if (color != null) {
-            this.multiply(image, color);
+        return this.multiplyOver(image, color, dest);
+    }
+
+    protected BufferedImage drawIconComponent(String path, Color color, BufferedImage dest, SymbolServiceProperties params) {
+        Integer size = this.imageSize(params);
+        BufferedImage image = this.renderAtSize(size)
+                ? this.component(path, size, this.resizeQuality(params)) : this.component(path);
+        if (image == null) {
+            logger.error("missing icon component");
+            throw new IllegalArgumentException("missing icon component");
         }
 
-        if (dest != null) {
-            image = this.drawImage(image, dest);
+        if (dest == null && this.compositeIntoScratch(params)) {
+            // only the resized copy leaves renderIcon, so the full size layers
+            // are composited in this thread's scratch image
+            dest = ScratchBuffers.image(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+            PixelKernels.multiply(image, color != null ? color.getRGB() : 0xffffffff, dest);
+            return dest;
         }
 
-        return image;
+        return this.multiplyOver(image, color, dest, this.compositeType(params));
     }
 
-    protected String composeFillPath(SymbolCode symbolCode) throws UnsupportedMimeType {
-        String maskedCode = this.getMaskedFillCode(symbolCode);
+    /**
+     * Whether the layers of a symbol are composited into a per-thread
+     * {@link ScratchBuffers} image. This is the case when the composite is
+     * premultiplied and always resized into a new image before it is returned.
+     *
+     * @param params Parameters that affect icon retrieval.
+     * @return true to composite into scratch storage.
+     */
+    protected boolean compositeIntoScratch(SymbolServiceProperties params) {
+        Integer size = this.imageSize(params);
+        return size != null && size > 0 && this.compositeType(params) == BufferedImage.TYPE_INT_ARGB_PRE;
+    }
 
-        StringBuilder sb = new StringBuilder();
-        sb.append(FILLS_PATH).append("/");
-        sb.append(TACTICAL_SYMBOLS_PATH).append("/");
-        sb.append(maskedCode.toLowerCase());
-        sb.append(MimeEncodingUtils.fileExtensionForMimeType(DEFAULT_IMAGE_FORMAT));
+    /**
+     * Image type symbol layers are composited into. Only composites that are
+     * resized afterwards, sizes above the component size, are premultiplied:
+     * the resize then runs on Java2D's native premultiplied loops and the
+     * result is converted back once when encoded.
+     * <p>
+     * The other paths stay non-premultiplied on purpose. At the component
+     * size and on the {@link #renderAtSize} path nothing is resampled after
+     * compositing, since small sizes composite components that were scaled
+     * once and cached. The int kernels blend non-premultiplied pixels with no
+     * format conversion, so a premultiplied composite would only add the
+     * conversion back to {@code TYPE_INT_ARGB} on every encode, and would
+     * change the output at the component size.
+     *
+     * @param params Parameters that affect icon retrieval.
+     * @return {@code TYPE_INT_ARGB} or {@code TYPE_INT_ARGB_PRE}.
+     */
+    protected int compositeType(SymbolServiceProperties params) {
+        Integer size = this.imageSize(params);
+        return Objects.equals(size, ServiceConstants.DEFAULT_IMAGE_SIZE) || this.renderAtSize(size)
+                ? BufferedImage.TYPE_INT_ARGB
+                : BufferedImage.TYPE_INT_ARGB_PRE;
+    }
 
-        return sb.toString();
+    protected String composeFillPath(SymbolCode symbolCode) throws UnsupportedMimeType {
+        return this.symbology.composeFillPath(symbolCode);
     }
 
     protected String composeFramePath(SymbolCode symbolCode) throws UnsupportedMimeType {
-        String maskedCode = this.getMaskedFrameCode(symbolCode);
-
-        StringBuilder sb = new StringBuilder();
-        sb.append(FRAMES_PATH).append("/");
-        sb.append(TACTICAL_SYMBOLS_PATH).append("/");
-        sb.append(maskedCode.toLowerCase());
-        sb.append(MimeEncodingUtils.fileExtensionForMimeType(DEFAULT_IMAGE_FORMAT));
-
-        return sb.toString();
+        return this.symbology.composeFramePath(symbolCode);
     }
 
     protected String composeIconPath(SymbolCode symbolCode, SymbolServiceProperties params) throws IOException, UnsupportedMimeType {
-        String scheme = symbolCode.getScheme();
-        String bd = symbolCode.getBattleDimension();
-
-        if (bd != null && bd.equalsIgnoreCase(SymbologyConstants.BATTLE_DIMENSION_UNKNOWN)) {
-            String maskedCode = this.getMaskedUnknownIconCode(symbolCode, params);
-            StringBuilder sb = new StringBuilder();
-            sb.append(ICONS_PATH).append("/");
-            sb.append(UNKNOWN_PATH).append("/");
-            sb.append(maskedCode.toLowerCase());
-            sb.append(MimeEncodingUtils.fileExtensionForMimeType(DEFAULT_IMAGE_FORMAT));
-            return sb.toString();
-        } else {
-            if (SymbolCode.isFieldEmpty(symbolCode.getFunctionId())) {
-                return null; // Don't draw an icon if the function ID is empty.
-            }
-            String maskedCode = this.getMaskedIconCode(symbolCode, params);
-            StringBuilder sb = new StringBuilder();
-            sb.append(ICONS_PATH).append("/");
-            sb.append(schemePathMap.get(scheme.toLowerCase())).append("/");
-            sb.append(maskedCode.toLowerCase());
-            sb.append(MimeEncodingUtils.fileExtensionForMimeType(DEFAULT_IMAGE_FORMAT));
-            return sb.toString();
-        }
+        return this.symbology.composeIconPath(symbolCode, params);
     }
 
     protected Color getFillColor(SymbolCode symbolCode, SymbolServiceProperties params) {
-        Color color = this.getColorFromParams(params);
-        return color != null ? color : fillColorMap.get(symbolCode.getStandardIdentity().toLowerCase());
+        return color(this.symbology.getFillColor(symbolCode, params));
     }
 
     protected Color getFrameColor(SymbolCode symbolCode, SymbolServiceProperties params) {
-        if (this.isDashedFrame(symbolCode)) {
-            return null; // Dashed pending or exercise frames are not colored.
-        }
-        if (this.mustDrawFill(symbolCode, params)) {
-            return DEFAULT_FRAME_COLOR; // Use the default color if the fill is on.
-        }
-        Color color = this.getColorFromParams(params);
-        return color != null ? color : frameColorMap.get(symbolCode.getStandardIdentity().toLowerCase());
+        return color(this.symbology.getFrameColor(symbolCode, params));
     }
 
     protected Color getIconColor(SymbolCode symbolCode, SymbolServiceProperties params) {
-        String maskedCode = symbolCode.toMaskedString().toLowerCase();
-
-        if (this.mustDrawFrame(symbolCode, params)) {
-            return iconColorMap.containsKey(maskedCode) ? iconColorMap.get(maskedCode) : DEFAULT_ICON_COLOR;
-        } else if (this.mustDrawFill(symbolCode, params)) {
-            Color color = this.getColorFromParams(params);
-            return color != null ? color : fillColorMap.get(symbolCode.getStandardIdentity().toLowerCase());
-        } else {
-            return iconColorMap.containsKey(maskedCode) ? iconColorMap.get(maskedCode) : DEFAULT_ICON_COLOR;
-        }
+        return color(this.symbology.getIconColor(symbolCode, params));
     }
 
     protected Color getColorFromParams(SymbolServiceProperties params) {
-        if (params == null) {
-            return null;
-        }
-
-        Object o = params.get(ServiceConstants.COLOR);
-        return (o instanceof Color) ? (Color) o : null;
-    }
-
-    protected String getMaskedFillCode(SymbolCode symbolCode) {
-        symbolCode = this.transformToWarfightingScheme(symbolCode);
-
-        String si = this.getSimpleStandardIdentity(symbolCode); // Either Unknown, Friend, Neutral, or Hostile
-        String bd = symbolCode.getBattleDimension();
-        String fid = this.getGroundFunctionId(symbolCode);
-
-        StringBuilder sb = new StringBuilder();
-        SymbolCode.appendFieldValue(sb, null, 1); // Scheme
-        SymbolCode.appendFieldValue(sb, si, 1); // Standard Identity
-        SymbolCode.appendFieldValue(sb, bd, 1); // Battle Dimension
-        SymbolCode.appendFieldValue(sb, null, 1); // Status
-        SymbolCode.appendFieldValue(sb, fid, 6); // Function ID
-        SymbolCode.appendFieldValue(sb, null, 2); // Symbol Modifier
-        SymbolCode.appendFieldValue(sb, null, 2); // Country Code
-        SymbolCode.appendFieldValue(sb, null, 1); // Order of Battle
-
-        return sb.toString();
+        return color(this.symbology.getColorFromParams(params));
     }
 
-    protected String getMaskedFrameCode(SymbolCode symbolCode) {
-        symbolCode = this.transformToWarfightingScheme(symbolCode);
-
-        String si = symbolCode.getStandardIdentity();
-        String bd = symbolCode.getBattleDimension();
-        String status = this.getSimpleStatus(symbolCode); // Either Present or Anticipated
-        String fid = this.getGroundFunctionId(symbolCode); // Either "U-----", "E-----", "I-----", or null
-
-        StringBuilder sb = new StringBuilder();
-        SymbolCode.appendFieldValue(sb, null, 1); // Scheme
-        SymbolCode.appendFieldValue(sb, si, 1); // Standard Identity
-        SymbolCode.appendFieldValue(sb, bd, 1); // Battle Dimension
-        SymbolCode.appendFieldValue(sb, status, 1); // Status
-        SymbolCode.appendFieldValue(sb, fid, 6); // Function ID
-        SymbolCode.appendFieldValue(sb, null, 2); // Symbol Modifier
-        SymbolCode.appendFieldValue(sb, null, 2); // Country Code
-        SymbolCode.appendFieldValue(sb, null, 1); // Order of Battle
-
-        return sb.toString();
-    }
-
-    protected SymbolCode transformToWarfightingScheme(SymbolCode symbolCode) {
-        String maskedCode = symbolCode.toMaskedString().toLowerCase();
-        String scheme = symbolCode.getScheme();
-        String bd = symbolCode.getBattleDimension();
-
-        SymbolCode newCode = new SymbolCode();
-        newCode.setScheme(SymbologyConstants.SCHEME_WARFIGHTING);
-        newCode.setStandardIdentity(symbolCode.getStandardIdentity());
-        newCode.setStatus(symbolCode.getStatus());
-
-        if (scheme != null && scheme.equalsIgnoreCase(SymbologyConstants.SCHEME_INTELLIGENCE)) {
-            newCode.setBattleDimension(bd);
-
-            // Signals Intelligence ground symbols are equivalent to Warfighting ground equipment.
-            if (bd != null && bd.equalsIgnoreCase(SymbologyConstants.BATTLE_DIMENSION_GROUND)) {
-                newCode.setFunctionId("E-----");
-            }
-
-            return newCode;
-        } else if (scheme != null && scheme.equalsIgnoreCase(SymbologyConstants.SCHEME_STABILITY_OPERATIONS)) {
-            // Stability Operations symbols frames are equivalent to Warfighting ground units.
-            newCode.setBattleDimension(SymbologyConstants.BATTLE_DIMENSION_GROUND);
-            newCode.setFunctionId("U-----");
-
-            return newCode;
-        } else if (scheme != null && scheme.equalsIgnoreCase(SymbologyConstants.SCHEME_EMERGENCY_MANAGEMENT)) {
-            // Emergency Management symbol frames are equivalent to either Warfighting ground units or ground equipment.
-            newCode.setBattleDimension(SymbologyConstants.BATTLE_DIMENSION_GROUND);
-            newCode.setFunctionId(emsEquipment.contains(maskedCode) ? "E-----" : "U-----");
-
-            return newCode;
-        } else {
-            return symbolCode;
-        }
-    }
-
-    protected String getMaskedIconCode(SymbolCode symbolCode, SymbolServiceProperties params) throws IOException {
-        String si = this.getSimpleStandardIdentity(symbolCode); // Either Unknown, Friend, Neutral, or Hostile.
-        String status = this.getSimpleStatus(symbolCode); // Either Present or Anticipated.
-
-        if (this.mustDrawFrame(symbolCode, params)) {
-            status = SymbologyConstants.STATUS_PRESENT;
-        }
-
-        SymbolCode maskedCode = new SymbolCode(symbolCode.toString());
-        maskedCode.setStandardIdentity(si);
-        maskedCode.setStatus(status);
-        maskedCode.setSymbolModifier(null); // Ignore the Symbol Modifier field.
-        maskedCode.setCountryCode(null); // Ignore the Country Code field.
-        maskedCode.setOrderOfBattle(null); // Ignore the Order of Battle field.
-
-        return maskedCode.toString();
-    }
-
-    protected String getMaskedUnknownIconCode(SymbolCode symbolCode, SymbolServiceProperties params) {
-        String si = this.getSimpleStandardIdentity(symbolCode); // Either Unknown, Friend, Neutral, or Hostile.
-        String bd = symbolCode.getBattleDimension();
-        String status = this.getSimpleStatus(symbolCode); // Either Present or Anticipated.
-
-        if (this.mustDrawFrame(symbolCode, params)) {
-            status = SymbologyConstants.STATUS_PRESENT;
-        }
-
-        StringBuilder sb = new StringBuilder();
-        SymbolCode.appendFieldValue(sb, null, 1); // Scheme
-        SymbolCode.appendFieldValue(sb, si, 1); // Standard Identity
-        SymbolCode.appendFieldValue(sb, bd, 1); // Battle Dimension
-        SymbolCode.appendFieldValue(sb, status, 1); // Status
-        SymbolCode.appendFieldValue(sb, null, 6); // Function ID
-        SymbolCode.appendFieldValue(sb, null, 2); // Symbol Modifier
-        SymbolCode.appendFieldValue(sb, null, 2); // Country Code
-        SymbolCode.appendFieldValue(sb, null, 1); // Order of Battle
-
-        return sb.toString();
-    }
-
-    protected boolean isDashedFrame(SymbolCode symbolCode) {
-        String si = symbolCode.getStandardIdentity();
-        return si != null && (si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_PENDING)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_ASSUMED_FRIEND)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_SUSPECT)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_PENDING)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_ASSUMED_FRIEND));
-    }
-
-    protected String getSimpleStandardIdentity(SymbolCode symbolCode) {
-        String si = symbolCode.getStandardIdentity();
-        if (si != null && (si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_PENDING)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_UNKNOWN)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_PENDING)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_UNKNOWN))) {
-            return SymbologyConstants.STANDARD_IDENTITY_UNKNOWN;
-        } else if (si != null && (si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_FRIEND)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_ASSUMED_FRIEND)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_FRIEND)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_ASSUMED_FRIEND)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_JOKER)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_FAKER))) {
-            return SymbologyConstants.STANDARD_IDENTITY_FRIEND;
-        } else if (si != null && (si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_NEUTRAL)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_NEUTRAL))) {
-            return SymbologyConstants.STANDARD_IDENTITY_NEUTRAL;
-        } else if (si != null && (si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_HOSTILE)
-                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_SUSPECT))) {
-            return SymbologyConstants.STANDARD_IDENTITY_HOSTILE;
-        }
-
-        return si;
-    }
-
-    protected String getSimpleStatus(SymbolCode symbolCode) {
-        String status = symbolCode.getStatus();
-
-        if (status != null && status.equalsIgnoreCase(SymbologyConstants.STATUS_ANTICIPATED)) {
-            return SymbologyConstants.STATUS_ANTICIPATED;
-        } else {
-            return SymbologyConstants.STATUS_PRESENT;
-        }
-    }
-
-    protected String getGroundFunctionId(SymbolCode symbolCode) {
-        String scheme = symbolCode.getScheme();
-        String bd = symbolCode.getBattleDimension();
-        String fid = symbolCode.getFunctionId();
-
-        if (scheme != null && scheme.equalsIgnoreCase(SymbologyConstants.SCHEME_WARFIGHTING)
-                && bd != null && bd.equalsIgnoreCase(SymbologyConstants.BATTLE_DIMENSION_GROUND)) {
-            if (fid != null && fid.toLowerCase().startsWith("u")) {
-                return "u-----";
-            } else if (fid != null && fid.toLowerCase().startsWith("e")) {
-                return "e-----";
-            } else if (fid != null && fid.toLowerCase().startsWith("i")) {
-                return "i-----";
-            }
-        }
-
-        return null;
+    private static Color color(Integer argb) {
+        return argb != null ? new Color(argb, true) : null;
     }
 
     static {
-        schemePathMap.put("s", "war"); // Scheme Warfighting
-        schemePathMap.put("i", "sigint"); // Scheme Signals Intelligence
-        schemePathMap.put("o", "stbops"); // Scheme Stability Operations
-        schemePathMap.put("e", "ems"); // Scheme Emergency Management
-
-        // The MIL-STD-2525 symbol fill colors for each Standard Identity.
-        fillColorMap.put("p", FILL_COLOR_LIGHT_YELLOW); // Standard Identity Pending
-        fillColorMap.put("u", FILL_COLOR_LIGHT_YELLOW); // Standard Identity Unknown
-        fillColorMap.put("f", FILL_COLOR_LIGHT_BLUE); // Standard Identity Friend
-        fillColorMap.put("n", FILL_COLOR_LIGHT_GREEN); // Standard Identity Neutral
-        fillColorMap.put("h", FILL_COLOR_LIGHT_RED); // Standard Identity Hostile
-        fillColorMap.put("a", FILL_COLOR_LIGHT_BLUE); // Standard Identity Assumed Friend
-        fillColorMap.put("s", FILL_COLOR_LIGHT_RED); // Standard Identity Suspect
-        fillColorMap.put("g", FILL_COLOR_LIGHT_YELLOW); // Standard Identity Exercise Pending
-        fillColorMap.put("w", FILL_COLOR_LIGHT_YELLOW); // Standard Identity Exercise Unknown
-        fillColorMap.put("d", FILL_COLOR_LIGHT_BLUE); // Standard Identity Exercise Friend
-        fillColorMap.put("l", FILL_COLOR_LIGHT_GREEN); // Standard Identity Exercise Neutral
-        fillColorMap.put("m", FILL_COLOR_LIGHT_BLUE); // Standard Identity Exercise Assumed Friend
-        fillColorMap.put("j", FILL_COLOR_LIGHT_RED); // Standard Identity Joker
-        fillColorMap.put("k", FILL_COLOR_LIGHT_RED); // Standard Identity Faker
-
-        // The MIL-STD-2525 symbol frame colors for each Standard Identity.
-        frameColorMap.put("p", FRAME_COLOR_YELLOW); // Standard Identity Pending
-        frameColorMap.put("u", FRAME_COLOR_YELLOW); // Standard Identity Unknown
-        frameColorMap.put("f", FRAME_COLOR_BLUE); // Standard Identity Friend
-        frameColorMap.put("n", FRAME_COLOR_GREEN); // Standard Identity Neutral
-        frameColorMap.put("h", FRAME_COLOR_RED); // Standard Identity Hostile
-        frameColorMap.put("a", FRAME_COLOR_BLUE); // Standard Identity Assumed Friend
-        frameColorMap.put("s", FRAME_COLOR_RED); // Standard Identity Suspect
-        frameColorMap.put("g", FRAME_COLOR_YELLOW); // Standard Identity Exercise Pending
-        frameColorMap.put("w", FRAME_COLOR_YELLOW); // Standard Identity Exercise Unknown
-        frameColorMap.put("d", FRAME_COLOR_BLUE); // Standard Identity Exercise Friend
-        frameColorMap.put("l", FRAME_COLOR_GREEN); // Standard Identity Exercise Neutral
-        frameColorMap.put("m", FRAME_COLOR_BLUE); // Standard Identity Exercise Assumed Friend
-        frameColorMap.put("j", FRAME_COLOR_RED); // Standard Identity Joker
-        frameColorMap.put("k", FRAME_COLOR_RED); // Standard Identity Faker
-
-        // The MIL-STD-2525 symbol icon colors for each icon that has either a white or colored fill. White is denoted
-        // as a null value.
-        iconColorMap.put("e-f-a----------", null);
-        iconColorMap.put("e-f-aa---------", null);
-        iconColorMap.put("e-f-ab---------", null);
-        iconColorMap.put("e-f-ad---------", null);
-        iconColorMap.put("e-f-ag---------", null);
-        iconColorMap.put("e-f-ba---------", null);
-        iconColorMap.put("e-f-bb---------", null);
-        iconColorMap.put("e-f-bc---------", null);
-        iconColorMap.put("e-f-bd---------", null);
-        iconColorMap.put("e-f-c----------", null);
-        iconColorMap.put("e-f-ca---------", null);
-        iconColorMap.put("e-f-cb---------", null);
-        iconColorMap.put("e-f-cc---------", null);
-        iconColorMap.put("e-f-cd---------", null);
-        iconColorMap.put("e-f-ce---------", null);
-        iconColorMap.put("e-f-cf---------", null);
-        iconColorMap.put("e-f-cg---------", null);
-        iconColorMap.put("e-f-ch---------", null);
-        iconColorMap.put("e-f-ci---------", null);
-        iconColorMap.put("e-f-cj---------", null);
-        iconColorMap.put("e-f-ee---------", null);
-        iconColorMap.put("e-f-f----------", null);
-        iconColorMap.put("e-f-g----------", null);
-        iconColorMap.put("e-f-h----------", null);
-        iconColorMap.put("e-f-ha---------", null);
-        iconColorMap.put("e-f-hb---------", null);
-        iconColorMap.put("e-f-ia---------", null);
-        iconColorMap.put("e-f-id---------", null);
-        iconColorMap.put("e-f-jb---------", null);
-        iconColorMap.put("e-f-ld---------", null);
-        iconColorMap.put("e-f-le---------", null);
-        iconColorMap.put("e-f-lf---------", null);
-        iconColorMap.put("e-f-lm---------", null);
-        iconColorMap.put("e-f-lo---------", null);
-        iconColorMap.put("e-f-lp---------", null);
-        iconColorMap.put("e-f-me---------", null);
-        iconColorMap.put("e-f-mf---------", null);
-        iconColorMap.put("e-f-mg---------", null);
-        iconColorMap.put("e-f-mh---------", null);
-        iconColorMap.put("e-f-mi---------", null);
-        iconColorMap.put("e-i-b----------", null);
-        iconColorMap.put("e-i-ca---------", null);
-        iconColorMap.put("e-i-cc---------", null);
-        iconColorMap.put("e-i-d----------", null);
-        iconColorMap.put("e-i-da---------", new Color(255, 254, 111));
-        iconColorMap.put("e-i-dc---------", null);
-        iconColorMap.put("e-i-dd---------", null);
-        iconColorMap.put("e-i-de---------", null);
-        iconColorMap.put("e-i-df---------", null);
-        iconColorMap.put("e-i-dg---------", null);
-        iconColorMap.put("e-i-dh---------", null);
-        iconColorMap.put("e-i-di---------", null);
-        iconColorMap.put("e-i-dj---------", null);
-        iconColorMap.put("e-i-dm---------", null);
-        iconColorMap.put("e-i-e----------", null);
-        iconColorMap.put("e-i-ea---------", null);
-        iconColorMap.put("e-i-f----------", null);
-        iconColorMap.put("e-i-fa---------", null);
-        iconColorMap.put("e-o-ae---------", null);
-        iconColorMap.put("e-o-af---------", null);
-        iconColorMap.put("e-o-aj---------", null);
-        iconColorMap.put("e-o-ak---------", null);
-        iconColorMap.put("e-o-am---------", null);
-        iconColorMap.put("e-o-b----------", null);
-        iconColorMap.put("e-o-ba---------", null);
-        iconColorMap.put("e-o-bb---------", null);
-        iconColorMap.put("e-o-bc---------", null);
-        iconColorMap.put("e-o-bd---------", null);
-        iconColorMap.put("e-o-be---------", null);
-        iconColorMap.put("e-o-bf---------", null);
-        iconColorMap.put("e-o-bg---------", null);
-        iconColorMap.put("e-o-bh---------", null);
-        iconColorMap.put("e-o-bi---------", null);
-        iconColorMap.put("e-o-bj---------", null);
-        iconColorMap.put("e-o-cc---------", null);
-        iconColorMap.put("e-o-cd---------", null);
-        iconColorMap.put("e-o-de---------", null);
-        iconColorMap.put("e-o-dea--------", null);
-        iconColorMap.put("e-o-deb--------", null);
-        iconColorMap.put("e-o-dec--------", null);
-        iconColorMap.put("e-o-df---------", null);
-        iconColorMap.put("e-o-dfa--------", null);
-        iconColorMap.put("e-o-dfb--------", null);
-        iconColorMap.put("e-o-dfc--------", null);
-        iconColorMap.put("e-o-dk---------", null);
-        iconColorMap.put("e-o-dn---------", null);
-        iconColorMap.put("e-o-dna--------", null);
-        iconColorMap.put("e-o-dnc--------", null);
-        iconColorMap.put("e-o-do---------", null);
-        iconColorMap.put("e-o-doa--------", null);
-        iconColorMap.put("e-o-dob--------", null);
-        iconColorMap.put("e-o-doc--------", null);
-        iconColorMap.put("o-o-ha---------", null);
-        iconColorMap.put("o-o-hv---------", null);
-        iconColorMap.put("o-o-y----------", null);
-        iconColorMap.put("o-o-yh---------", null);
-        iconColorMap.put("o-o-yt---------", null);
-        iconColorMap.put("o-o-yw---------", null);
-        iconColorMap.put("s-a-cf---------", null);
-        iconColorMap.put("s-a-ch---------", null);
-        iconColorMap.put("s-a-cl---------", null);
-        iconColorMap.put("s-a-w----------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wm---------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wma--------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wmaa-------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wmap-------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wmas-------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wmb--------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wmcm-------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wms--------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wmsa-------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wmsb-------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wmss-------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wmsu-------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-a-wmu--------", FILL_COLOR_LIGHT_YELLOW);
-        iconColorMap.put("s-f-gp---------", null);
-        iconColorMap.put("s-f-gpa--------", null);
-        iconColorMap.put("s-f-nb---------", null);
-        iconColorMap.put("s-g-evca-------", null);
-        iconColorMap.put("s-g-evcah------", null);
-        iconColorMap.put("s-g-evcal------", null);
-        iconColorMap.put("s-g-evcam------", null);
-        iconColorMap.put("s-g-evcf-------", null);
-        iconColorMap.put("s-g-evcfh------", null);
-        iconColorMap.put("s-g-evcfl------", null);
-        iconColorMap.put("s-g-evcfm------", null);
-        iconColorMap.put("s-g-evcj-------", null);
-        iconColorMap.put("s-g-evcjh------", null);
-        iconColorMap.put("s-g-evcjl------", null);
-        iconColorMap.put("s-g-evcjm------", null);
-        iconColorMap.put("s-g-evcm-------", null);
-        iconColorMap.put("s-g-evcmh------", null);
-        iconColorMap.put("s-g-evcml------", null);
-        iconColorMap.put("s-g-evcmm------", null);
-        iconColorMap.put("s-g-evco-------", null);
-        iconColorMap.put("s-g-evcoh------", null);
-        iconColorMap.put("s-g-evcol------", null);
-        iconColorMap.put("s-g-evcom------", null);
-        iconColorMap.put("s-g-evct-------", null);
-        iconColorMap.put("s-g-evcth------", null);
-        iconColorMap.put("s-g-evctl------", null);
-        iconColorMap.put("s-g-evctm------", null);
-        iconColorMap.put("s-g-evcu-------", null);
-        iconColorMap.put("s-g-evcuh------", null);
-        iconColorMap.put("s-g-evcul------", null);
-        iconColorMap.put("s-g-evcum------", null);
-        iconColorMap.put("s-g-ucfs-------", null);
-        iconColorMap.put("s-g-ucfsa------", null);
-        iconColorMap.put("s-g-ucfsl------", null);
-        iconColorMap.put("s-g-ucfso------", null);
-        iconColorMap.put("s-g-ucfss------", null);
-        iconColorMap.put("s-g-ucfts------", null);
-        iconColorMap.put("s-g-uumrs------", null);
-        iconColorMap.put("s-g-uumrss-----", null);
-        iconColorMap.put("s-g-uusx-------", null);
-        iconColorMap.put("s-p-t----------", null);
-        iconColorMap.put("s-s-c----------", null);
-        iconColorMap.put("s-s-nh---------", null);
-        iconColorMap.put("s-s-xa---------", null);
-        iconColorMap.put("s-s-xar--------", null);
-        iconColorMap.put("s-s-xas--------", null);
-        iconColorMap.put("s-s-xf---------", null);
-        iconColorMap.put("s-s-xfdf-------", null);
-        iconColorMap.put("s-s-xfdr-------", null);
-        iconColorMap.put("s-s-xftr-------", null);
-        iconColorMap.put("s-s-xh---------", null);
-        iconColorMap.put("s-s-xl---------", null);
-        iconColorMap.put("s-s-xm---------", null);
-        iconColorMap.put("s-s-xmc--------", null);
-        iconColorMap.put("s-s-xmf--------", null);
-        iconColorMap.put("s-s-xmh--------", null);
-        iconColorMap.put("s-s-xmo--------", null);
-        iconColorMap.put("s-s-xmp--------", null);
-        iconColorMap.put("s-s-xmr--------", null);
-        iconColorMap.put("s-s-xmto-------", null);
-        iconColorMap.put("s-s-xmtu-------", null);
-        iconColorMap.put("s-s-xp---------", null);
-        iconColorMap.put("s-s-xr---------", null);
-        iconColorMap.put("s-u-e----------", ICON_COLOR_GREEN);
-        iconColorMap.put("s-u-nd---------", null);
-        iconColorMap.put("s-u-sca--------", null);
-        iconColorMap.put("s-u-scb--------", null);
-        iconColorMap.put("s-u-scg--------", null);
-        iconColorMap.put("s-u-scm--------", null);
-        iconColorMap.put("s-u-sna--------", null);
-        iconColorMap.put("s-u-snb--------", null);
-        iconColorMap.put("s-u-sng--------", null);
-        iconColorMap.put("s-u-snm--------", null);
-        iconColorMap.put("s-u-v----------", ICON_COLOR_GREEN);
-        iconColorMap.put("s-u-wdm--------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wdmg-------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wdmm-------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wm---------", ICON_COLOR_RED);
-        iconColorMap.put("s-u-wma--------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wmb--------", ICON_COLOR_YELLOW);
-        iconColorMap.put("s-u-wmbd-------", ICON_COLOR_GREEN);
-        iconColorMap.put("s-u-wmc--------", ICON_COLOR_ORANGE);
-        iconColorMap.put("s-u-wmd--------", ICON_COLOR_GREEN);
-        iconColorMap.put("s-u-wme--------", ICON_COLOR_YELLOW);
-        iconColorMap.put("s-u-wmf--------", ICON_COLOR_RED);
-        iconColorMap.put("s-u-wmfc-------", ICON_COLOR_ORANGE);
-        iconColorMap.put("s-u-wmfd-------", ICON_COLOR_GREEN);
-        iconColorMap.put("s-u-wmfe-------", ICON_COLOR_YELLOW);
-        iconColorMap.put("s-u-wmfo-------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wmfr-------", ICON_COLOR_YELLOW);
-        iconColorMap.put("s-u-wmfx-------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wmg--------", ICON_COLOR_RED);
-        iconColorMap.put("s-u-wmgc-------", ICON_COLOR_ORANGE);
-        iconColorMap.put("s-u-wmgd-------", ICON_COLOR_GREEN);
-        iconColorMap.put("s-u-wmge-------", ICON_COLOR_YELLOW);
-        iconColorMap.put("s-u-wmgo-------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wmgr-------", ICON_COLOR_YELLOW);
-        iconColorMap.put("s-u-wmgx-------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wmm--------", ICON_COLOR_RED);
-        iconColorMap.put("s-u-wmmc-------", ICON_COLOR_ORANGE);
-        iconColorMap.put("s-u-wmmd-------", ICON_COLOR_GREEN);
-        iconColorMap.put("s-u-wmme-------", ICON_COLOR_YELLOW);
-        iconColorMap.put("s-u-wmmo-------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wmmr-------", ICON_COLOR_YELLOW);
-        iconColorMap.put("s-u-wmmx-------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wmn--------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wmo--------", ICON_COLOR_RED);
-        iconColorMap.put("s-u-wmod-------", ICON_COLOR_GREEN);
-        iconColorMap.put("s-u-wmr--------", ICON_COLOR_YELLOW);
-        iconColorMap.put("s-u-wms--------", ICON_COLOR_RED);
-        iconColorMap.put("s-u-wmsd-------", ICON_COLOR_GREEN);
-        iconColorMap.put("s-u-wmsx-------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-wmx--------", ICON_COLOR_DARK_GREEN);
-        iconColorMap.put("s-u-x----------", ICON_COLOR_RED);
-
-        // The MIL-STD-2525 symbol icons that are implicitly unfilled.
-        unfilledIconMap.add("s-u-wm---------");
-        unfilledIconMap.add("s-u-wmd--------");
-        unfilledIconMap.add("s-u-wmg--------");
-        unfilledIconMap.add("s-u-wmgd-------");
-        unfilledIconMap.add("s-u-wmgx-------");
-        unfilledIconMap.add("s-u-wmge-------");
-        unfilledIconMap.add("s-u-wmgc-------");
-        unfilledIconMap.add("s-u-wmgr-------");
-        unfilledIconMap.add("s-u-wmgo-------");
-        unfilledIconMap.add("s-u-wmm--------");
-        unfilledIconMap.add("s-u-wmmd-------");
-        unfilledIconMap.add("s-u-wmmx-------");
-        unfilledIconMap.add("s-u-wmme-------");
-        unfilledIconMap.add("s-u-wmmc-------");
-        unfilledIconMap.add("s-u-wmmr-------");
-        unfilledIconMap.add("s-u-wmmo-------");
-        unfilledIconMap.add("s-u-wmf--------");
-        unfilledIconMap.add("s-u-wmfd-------");
-        unfilledIconMap.add("s-u-wmfx-------");
-        unfilledIconMap.add("s-u-wmfe-------");
-        unfilledIconMap.add("s-u-wmfc-------");
-        unfilledIconMap.add("s-u-wmfr-------");
-        unfilledIconMap.add("s-u-wmfo-------");
-        unfilledIconMap.add("s-u-wmo--------");
-        unfilledIconMap.add("s-u-wmod-------");
-        unfilledIconMap.add("s-u-wmx--------");
-        unfilledIconMap.add("s-u-wme--------");
-        unfilledIconMap.add("s-u-wma--------");
-        unfilledIconMap.add("s-u-wmc--------");
-        unfilledIconMap.add("s-u-wmr--------");
-        unfilledIconMap.add("s-u-wmb--------");
-        unfilledIconMap.add("s-u-wmbd-------");
-        unfilledIconMap.add("s-u-wmn--------");
-        unfilledIconMap.add("s-u-wms--------");
-        unfilledIconMap.add("s-u-wmsx-------");
-        unfilledIconMap.add("s-u-wmsd-------");
-        unfilledIconMap.add("s-u-wdm--------");
-        unfilledIconMap.add("s-u-wdmg-------");
-        unfilledIconMap.add("s-u-wdmm-------");
-        unfilledIconMap.add("s-u-e----------");
-        unfilledIconMap.add("s-u-v----------");
-        unfilledIconMap.add("s-u-x----------");
-
-        // The MIL-STD-2525 symbol icons that are implicitly unframed.
-        unframedIconMap.add("s-s-o----------");
-        unframedIconMap.add("s-u-nd---------");
-
-        // The MIL-STD-2525 Emergency Management symbols representing units.
-        emsEquipment.add("e-o-ab---------");
-        emsEquipment.add("e-o-ae---------");
-        emsEquipment.add("e-o-af---------");
-        emsEquipment.add("e-o-bb---------");
-        emsEquipment.add("e-o-cb---------");
-        emsEquipment.add("e-o-cc---------");
-        emsEquipment.add("e-o-db---------");
-        emsEquipment.add("e-o-ddb--------");
-        emsEquipment.add("e-o-deb--------");
-        emsEquipment.add("e-o-dfb--------");
-        emsEquipment.add("e-o-dgb--------");
-        emsEquipment.add("e-o-dhb--------");
-        emsEquipment.add("e-o-dib--------");
-        emsEquipment.add("e-o-djb--------");
-        emsEquipment.add("e-o-dlb--------");
-        emsEquipment.add("e-o-dmb--------");
-        emsEquipment.add("e-o-dob--------");
-        emsEquipment.add("e-o-pea--------");
-        emsEquipment.add("e-o-peb--------");
-        emsEquipment.add("e-o-pec--------");
-        emsEquipment.add("e-o-ped--------");
-        emsEquipment.add("e-o-pee--------");
-        emsEquipment.add("e-f-ba---------");
-        emsEquipment.add("e-f-ma---------");
-        emsEquipment.add("e-f-mc---------");
+        TintTable.register(
+                FILL_COLOR_LIGHT_RED.getRGB(), FILL_COLOR_LIGHT_BLUE.getRGB(), FILL_COLOR_LIGHT_GREEN.getRGB(),
+                FILL_COLOR_LIGHT_YELLOW.getRGB(), FILL_COLOR_LIGHT_PURPLE.getRGB(),
+                FRAME_COLOR_RED.getRGB(), FRAME_COLOR_BLUE.getRGB(), FRAME_COLOR_GREEN.getRGB(),
+                FRAME_COLOR_YELLOW.getRGB(), FRAME_COLOR_PURPLE.getRGB(),
+                ICON_COLOR_RED.getRGB(), ICON_COLOR_ORANGE.getRGB(), ICON_COLOR_GREEN.getRGB(),
+                ICON_COLOR_DARK_GREEN.getRGB(), ICON_COLOR_YELLOW.getRGB(),
+                DEFAULT_FRAME_COLOR.getRGB(), DEFAULT_ICON_COLOR.getRGB(), Color.WHITE.getRGB());
     }
 }
@@ -0,0 +1,783 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.render;
+
+import com.google.common.net.MediaType;
+import com.phyzicsz.rocket.symbol.code.SymbolCode;
+import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
+import com.phyzicsz.rocket.symbol.code.SymbologyConstants;
+import com.phyzicsz.rocket.symbol.core.exception.UnsupportedMimeType;
+import com.phyzicsz.rocket.symbol.core.utils.MimeEncodingUtils;
+import java.awt.Color;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MIL-STD-2525 symbology rules: which fill, frame and icon components make up
+ * a symbol and which colors they are drawn in. Colors are plain ARGB ints, so
+ * the rules can be shared by renderers that do not use AWT.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class MilStdSymbology {
+
+    public static final String FILLS_PATH = "fills";
+    public static final String FRAMES_PATH = "frames";
+    public static final String ICONS_PATH = "icons";
+    public static final String TACTICAL_SYMBOLS_PATH = "tacsym";
+    public static final String UNKNOWN_PATH = "unk";
+
+    public static final int FILL_COLOR_LIGHT_RED = 0xffff8080;
+    public static final int FILL_COLOR_LIGHT_BLUE = 0xff80e0ff;
+    public static final int FILL_COLOR_LIGHT_GREEN = 0xffaaffaa;
+    public static final int FILL_COLOR_LIGHT_YELLOW = 0xffffff80;
+    public static final int FILL_COLOR_LIGHT_PURPLE = 0xffffa1ff;
+
+    public static final int FRAME_COLOR_RED = 0xffff0000;
+    public static final int FRAME_COLOR_BLUE = 0xff00ffff;
+    public static final int FRAME_COLOR_GREEN = 0xff00ff00;
+    public static final int FRAME_COLOR_YELLOW = 0xffffff00;
+    public static final int FRAME_COLOR_PURPLE = 0xffff00ff;
+
+    public static final int ICON_COLOR_RED = 0xffff0000;
+    public static final int ICON_COLOR_ORANGE = 0xffff8c00;
+    public static final int ICON_COLOR_GREEN = 0xff00ff00;
+    public static final int ICON_COLOR_DARK_GREEN = 0xff008000;
+    public static final int ICON_COLOR_YELLOW = 0xffffff00;
+
+    public static final int DEFAULT_FRAME_COLOR = 0xff000000;
+    public static final int DEFAULT_ICON_COLOR = 0xff000000;
+    public static final MediaType DEFAULT_IMAGE_FORMAT = MediaType.PNG;
+
+    /**
+     * Radius (in pixels) of circle that is drawn to the represent the symbol
+     * when both frame and icon are off.
+     */
+    public static final int CIRCLE_RADIUS = 16;
+    /**
+     * Line width used to stroke circle when fill is turned off.
+     */
+    public static final int CIRCLE_LINE_WIDTH = 2;
+
+    protected static final Map<String, String> schemePathMap = new HashMap<>();
+    protected static final Map<String, Integer> fillColorMap = new HashMap<>();
+    protected static final Map<String, Integer> frameColorMap = new HashMap<>();
+    protected static final Map<String, Integer> iconColorMap = new HashMap<>();
+    protected static final Set<String> unfilledIconMap = new HashSet<>();
+    protected static final Set<String> unframedIconMap = new HashSet<>();
+    protected static final Set<String> emsEquipment = new HashSet<>();
+
+    /**
+     * Icon path directory of each scheme, keyed by lower case scheme code.
+     *
+     * @param scheme Scheme code.
+     * @return the directory under {@link #ICONS_PATH}, or null.
+     */
+    public static String schemePath(String scheme) {
+        return schemePathMap.get(scheme.toLowerCase());
+    }
+
+    /**
+     * Icon path directories of all schemes.
+     *
+     * @return the directories under {@link #ICONS_PATH}.
+     */
+    public static Collection<String> schemePaths() {
+        return Collections.unmodifiableCollection(schemePathMap.values());
+    }
+
+    public boolean mustDrawFill(SymbolCode symbolCode, SymbolServiceProperties params) {
+        String maskedCode = symbolCode.toMaskedString().toLowerCase();
+        if (unfilledIconMap.contains(maskedCode)) {
+            return false;
+        }
+
+        Object o = params != null ? params.get(SymbolServiceProperties.SHOW_FILL) : null;
+        return o == null || o.equals(Boolean.TRUE);
+    }
+
+    public boolean mustDrawFrame(SymbolCode symbolCode, SymbolServiceProperties params) {
+        String maskedCode = symbolCode.toMaskedString().toLowerCase();
+        if (unframedIconMap.contains(maskedCode)) {
+            return false;
+        }
+
+        Object o = params != null ? params.get(SymbolServiceProperties.SHOW_FRAME) : null;
+        return o == null || o.equals(Boolean.TRUE);
+    }
+
+    public boolean mustDrawIcon(SymbolCode symbolCode, SymbolServiceProperties params) {
+        Object o = params != null ? params.get(SymbolServiceProperties.SHOW_ICON) : null;
+        return o == null || o.equals(Boolean.TRUE);
+    }
+
+    public String composeFillPath(SymbolCode symbolCode) throws UnsupportedMimeType {
+        String maskedCode = this.getMaskedFillCode(symbolCode);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(FILLS_PATH).append("/");
+        sb.append(TACTICAL_SYMBOLS_PATH).append("/");
+        sb.append(maskedCode.toLowerCase());
+        sb.append(MimeEncodingUtils.fileExtensionForMimeType(DEFAULT_IMAGE_FORMAT));
+
+        return sb.toString();
+    }
+
+    public String composeFramePath(SymbolCode symbolCode) throws UnsupportedMimeType {
+        String maskedCode = this.getMaskedFrameCode(symbolCode);
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(FRAMES_PATH).append("/");
+        sb.append(TACTICAL_SYMBOLS_PATH).append("/");
+        sb.append(maskedCode.toLowerCase());
+        sb.append(MimeEncodingUtils.fileExtensionForMimeType(DEFAULT_IMAGE_FORMAT));
+
+        return sb.toString();
+    }
+
+    public String composeIconPath(SymbolCode symbolCode, SymbolServiceProperties params) throws IOException, UnsupportedMimeType {
+        String scheme = symbolCode.getScheme();
+        String bd = symbolCode.getBattleDimension();
+
+        if (bd != null && bd.equalsIgnoreCase(SymbologyConstants.BATTLE_DIMENSION_UNKNOWN)) {
+            String maskedCode = this.getMaskedUnknownIconCode(symbolCode, params);
+            StringBuilder sb = new StringBuilder();
+            sb.append(ICONS_PATH).append("/");
+            sb.append(UNKNOWN_PATH).append("/");
+            sb.append(maskedCode.toLowerCase());
+            sb.append(MimeEncodingUtils.fileExtensionForMimeType(DEFAULT_IMAGE_FORMAT));
+            return sb.toString();
+        } else {
+            if (SymbolCode.isFieldEmpty(symbolCode.getFunctionId())) {
+                return null; // Don't draw an icon if the function ID is empty.
+            }
+            String maskedCode = this.getMaskedIconCode(symbolCode, params);
+            StringBuilder sb = new StringBuilder();
+            sb.append(ICONS_PATH).append("/");
+            sb.append(schemePathMap.get(scheme.toLowerCase())).append("/");
+            sb.append(maskedCode.toLowerCase());
+            sb.append(MimeEncodingUtils.fileExtensionForMimeType(DEFAULT_IMAGE_FORMAT));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Fill color of a symbol.
+     *
+     * @param symbolCode Symbol code.
+     * @param params Parameters that affect icon retrieval.
+     * @return ARGB color, or null to draw the fill untinted.
+     */
+    public Integer getFillColor(SymbolCode symbolCode, SymbolServiceProperties params) {
+        Integer color = this.getColorFromParams(params);
+        return color != null ? color : fillColorMap.get(symbolCode.getStandardIdentity().toLowerCase());
+    }
+
+    /**
+     * Frame color of a symbol.
+     *
+     * @param symbolCode Symbol code.
+     * @param params Parameters that affect icon retrieval.
+     * @return ARGB color, or null to draw the frame untinted.
+     */
+    public Integer getFrameColor(SymbolCode symbolCode, SymbolServiceProperties params) {
+        if (this.isDashedFrame(symbolCode)) {
+            return null; // Dashed pending or exercise frames are not colored.
+        }
+        if (this.mustDrawFill(symbolCode, params)) {
+            return DEFAULT_FRAME_COLOR; // Use the default color if the fill is on.
+        }
+        Integer color = this.getColorFromParams(params);
+        return color != null ? color : frameColorMap.get(symbolCode.getStandardIdentity().toLowerCase());
+    }
+
+    /**
+     * Icon color of a symbol.
+     *
+     * @param symbolCode Symbol code.
+     * @param params Parameters that affect icon retrieval.
+     * @return ARGB color, or null to draw the icon untinted.
+     */
+    public Integer getIconColor(SymbolCode symbolCode, SymbolServiceProperties params) {
+        String maskedCode = symbolCode.toMaskedString().toLowerCase();
+
+        if (this.mustDrawFrame(symbolCode, params)) {
+            return this.getMappedIconColor(maskedCode);
+        } else if (this.mustDrawFill(symbolCode, params)) {
+            Integer color = this.getColorFromParams(params);
+            return color != null ? color : fillColorMap.get(symbolCode.getStandardIdentity().toLowerCase());
+        } else {
+            return this.getMappedIconColor(maskedCode);
+        }
+    }
+
+    private Integer getMappedIconColor(String maskedCode) {
+        // white icons are mapped to null, which must not be unboxed
+        return iconColorMap.containsKey(maskedCode) ? iconColorMap.get(maskedCode) : Integer.valueOf(DEFAULT_ICON_COLOR);
+    }
+
+    /**
+     * Color requested with {@link ServiceConstants#COLOR}, either an ARGB
+     * {@code Integer} or a {@code java.awt.Color}. The Color class is only
+     * touched when a caller passed one, so renderers that avoid AWT can use
+     * this class freely.
+     *
+     * @param params Parameters that affect icon retrieval.
+     * @return ARGB color, or null if none was requested.
+     */
+    public Integer getColorFromParams(SymbolServiceProperties params) {
+        if (params == null) {
+            return null;
+        }
+
+        Object o = params.get(ServiceConstants.COLOR);
+        if (o == null || o instanceof Integer) {
+            return (Integer) o;
+        }
+        return (o instanceof Color) ? ((Color) o).getRGB() : null;
+    }
+
+    protected String getMaskedFillCode(SymbolCode symbolCode) {
+        symbolCode = this.transformToWarfightingScheme(symbolCode);
+
+        String si = this.getSimpleStandardIdentity(symbolCode); // Either Unknown, Friend, Neutral, or Hostile
+        String bd = symbolCode.getBattleDimension();
+        String fid = this.getGroundFunctionId(symbolCode);
+
+        StringBuilder sb = new StringBuilder();
+        SymbolCode.appendFieldValue(sb, null, 1); // Scheme
+        SymbolCode.appendFieldValue(sb, si, 1); // Standard Identity
+        SymbolCode.appendFieldValue(sb, bd, 1); // Battle Dimension
+        SymbolCode.appendFieldValue(sb, null, 1); // Status
+        SymbolCode.appendFieldValue(sb, fid, 6); // Function ID
+        SymbolCode.appendFieldValue(sb, null, 2); // Symbol Modifier
+        SymbolCode.appendFieldValue(sb, null, 2); // Country Code
+        SymbolCode.appendFieldValue(sb, null, 1); // Order of Battle
+
+        return sb.toString();
+    }
+
+    protected String getMaskedFrameCode(SymbolCode symbolCode) {
+        symbolCode = this.transformToWarfightingScheme(symbolCode);
+
+        String si = symbolCode.getStandardIdentity();
+        String bd = symbolCode.getBattleDimension();
+        String status = this.getSimpleStatus(symbolCode); // Either Present or Anticipated
+        String fid = this.getGroundFunctionId(symbolCode); // Either "U-----", "E-----", "I-----", or null
+
+        StringBuilder sb = new StringBuilder();
+        SymbolCode.appendFieldValue(sb, null, 1); // Scheme
+        SymbolCode.appendFieldValue(sb, si, 1); // Standard Identity
+        SymbolCode.appendFieldValue(sb, bd, 1); // Battle Dimension
+        SymbolCode.appendFieldValue(sb, status, 1); // Status
+        SymbolCode.appendFieldValue(sb, fid, 6); // Function ID
+        SymbolCode.appendFieldValue(sb, null, 2); // Symbol Modifier
+        SymbolCode.appendFieldValue(sb, null, 2); // Country Code
+        SymbolCode.appendFieldValue(sb, null, 1); // Order of Battle
+
+        return sb.toString();
+    }
+
+    protected SymbolCode transformToWarfightingScheme(SymbolCode symbolCode) {
+        String maskedCode = symbolCode.toMaskedString().toLowerCase();
+        String scheme = symbolCode.getScheme();
+        String bd = symbolCode.getBattleDimension();
+
+        SymbolCode newCode = new SymbolCode();
+        newCode.setScheme(SymbologyConstants.SCHEME_WARFIGHTING);
+        newCode.setStandardIdentity(symbolCode.getStandardIdentity());
+        newCode.setStatus(symbolCode.getStatus());
+
+        if (scheme != null && scheme.equalsIgnoreCase(SymbologyConstants.SCHEME_INTELLIGENCE)) {
+            newCode.setBattleDimension(bd);
+
+            // Signals Intelligence ground symbols are equivalent to Warfighting ground equipment.
+            if (bd != null && bd.equalsIgnoreCase(SymbologyConstants.BATTLE_DIMENSION_GROUND)) {
+                newCode.setFunctionId("E-----");
+            }
+
+            return newCode;
+        } else if (scheme != null && scheme.equalsIgnoreCase(SymbologyConstants.SCHEME_STABILITY_OPERATIONS)) {
+            // Stability Operations symbols frames are equivalent to Warfighting ground units.
+            newCode.setBattleDimension(SymbologyConstants.BATTLE_DIMENSION_GROUND);
+            newCode.setFunctionId("U-----");
+
+            return newCode;
+        } else if (scheme != null && scheme.equalsIgnoreCase(SymbologyConstants.SCHEME_EMERGENCY_MANAGEMENT)) {
+            // Emergency Management symbol frames are equivalent to either Warfighting ground units or ground equipment.
+            newCode.setBattleDimension(SymbologyConstants.BATTLE_DIMENSION_GROUND);
+            newCode.setFunctionId(emsEquipment.contains(maskedCode) ? "E-----" : "U-----");
+
+            return newCode;
+        } else {
+            return symbolCode;
+        }
+    }
+
+    protected String getMaskedIconCode(SymbolCode symbolCode, SymbolServiceProperties params) throws IOException {
+        String si = this.getSimpleStandardIdentity(symbolCode); // Either Unknown, Friend, Neutral, or Hostile.
+        String status = this.getSimpleStatus(symbolCode); // Either Present or Anticipated.
+
+        if (this.mustDrawFrame(symbolCode, params)) {
+            status = SymbologyConstants.STATUS_PRESENT;
+        }
+
+        SymbolCode maskedCode = new SymbolCode(symbolCode.toString());
+        maskedCode.setStandardIdentity(si);
+        maskedCode.setStatus(status);
+        maskedCode.setSymbolModifier(null); // Ignore the Symbol Modifier field.
+        maskedCode.setCountryCode(null); // Ignore the Country Code field.
+        maskedCode.setOrderOfBattle(null); // Ignore the Order of Battle field.
+
+        return maskedCode.toString();
+    }
+
+    protected String getMaskedUnknownIconCode(SymbolCode symbolCode, SymbolServiceProperties params) {
+        String si = this.getSimpleStandardIdentity(symbolCode); // Either Unknown, Friend, Neutral, or Hostile.
+        String bd = symbolCode.getBattleDimension();
+        String status = this.getSimpleStatus(symbolCode); // Either Present or Anticipated.
+
+        if (this.mustDrawFrame(symbolCode, params)) {
+            status = SymbologyConstants.STATUS_PRESENT;
+        }
+
+        StringBuilder sb = new StringBuilder();
+        SymbolCode.appendFieldValue(sb, null, 1); // Scheme
+        SymbolCode.appendFieldValue(sb, si, 1); // Standard Identity
+        SymbolCode.appendFieldValue(sb, bd, 1); // Battle Dimension
+        SymbolCode.appendFieldValue(sb, status, 1); // Status
+        SymbolCode.appendFieldValue(sb, null, 6); // Function ID
+        SymbolCode.appendFieldValue(sb, null, 2); // Symbol Modifier
+        SymbolCode.appendFieldValue(sb, null, 2); // Country Code
+        SymbolCode.appendFieldValue(sb, null, 1); // Order of Battle
+
+        return sb.toString();
+    }
+
+    protected boolean isDashedFrame(SymbolCode symbolCode) {
+        String si = symbolCode.getStandardIdentity();
+        return si != null && (si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_PENDING)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_ASSUMED_FRIEND)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_SUSPECT)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_PENDING)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_ASSUMED_FRIEND));
+    }
+
+    protected String getSimpleStandardIdentity(SymbolCode symbolCode) {
+        String si = symbolCode.getStandardIdentity();
+        if (si != null && (si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_PENDING)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_UNKNOWN)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_PENDING)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_UNKNOWN))) {
+            return SymbologyConstants.STANDARD_IDENTITY_UNKNOWN;
+        } else if (si != null && (si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_FRIEND)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_ASSUMED_FRIEND)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_FRIEND)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_ASSUMED_FRIEND)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_JOKER)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_FAKER))) {
+            return SymbologyConstants.STANDARD_IDENTITY_FRIEND;
+        } else if (si != null && (si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_NEUTRAL)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_EXERCISE_NEUTRAL))) {
+            return SymbologyConstants.STANDARD_IDENTITY_NEUTRAL;
+        } else if (si != null && (si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_HOSTILE)
+                || si.equalsIgnoreCase(SymbologyConstants.STANDARD_IDENTITY_SUSPECT))) {
+            return SymbologyConstants.STANDARD_IDENTITY_HOSTILE;
+        }
+
+        return si;
+    }
+
+    protected String getSimpleStatus(SymbolCode symbolCode) {
+        String status = symbolCode.getStatus();
+
+        if (status != null && status.equalsIgnoreCase(SymbologyConstants.STATUS_ANTICIPATED)) {
+            return SymbologyConstants.STATUS_ANTICIPATED;
+        } else {
+            return SymbologyConstants.STATUS_PRESENT;
+        }
+    }
+
+    protected String getGroundFunctionId(SymbolCode symbolCode) {
+        String scheme = symbolCode.getScheme();
+        String bd = symbolCode.getBattleDimension();
+        String fid = symbolCode.getFunctionId();
+
+        if (scheme != null && scheme.equalsIgnoreCase(SymbologyConstants.SCHEME_WARFIGHTING)
+                && bd != null && bd.equalsIgnoreCase(SymbologyConstants.BATTLE_DIMENSION_GROUND)) {
+            if (fid != null && fid.toLowerCase().startsWith("u")) {
+                return "u-----";
+            } else if (fid != null && fid.toLowerCase().startsWith("e")) {
+                return "e-----";
+            } else if (fid != null && fid.toLowerCase().startsWith("i")) {
+                return "i-----";
+            }
+        }
+
+        return null;
+    }
+
+    static {
+        schemePathMap.put("s", "war"); // Scheme Warfighting
+        schemePathMap.put("i", "sigint"); // Scheme Signals Intelligence
+        schemePathMap.put("o", "stbops"); // Scheme Stability Operations
+        schemePathMap.put("e", "ems"); // Scheme Emergency Management
+
+        // The MIL-STD-2525 symbol fill colors for each Standard Identity.
+        fillColorMap.put("p", FILL_COLOR_LIGHT_YELLOW); // Standard Identity Pending
+        fillColorMap.put("u", FILL_COLOR_LIGHT_YELLOW); // Standard Identity Unknown
+        fillColorMap.put("f", FILL_COLOR_LIGHT_BLUE); // Standard Identity Friend
+        fillColorMap.put("n", FILL_COLOR_LIGHT_GREEN); // Standard Identity Neutral
+        fillColorMap.put("h", FILL_COLOR_LIGHT_RED); // Standard Identity Hostile
+        fillColorMap.put("a", FILL_COLOR_LIGHT_BLUE); // Standard Identity Assumed Friend
+        fillColorMap.put("s", FILL_COLOR_LIGHT_RED); // Standard Identity Suspect
+        fillColorMap.put("g", FILL_COLOR_LIGHT_YELLOW); // Standard Identity Exercise Pending
+        fillColorMap.put("w", FILL_COLOR_LIGHT_YELLOW); // Standard Identity Exercise Unknown
+        fillColorMap.put("d", FILL_COLOR_LIGHT_BLUE); // Standard Identity Exercise Friend
+        fillColorMap.put("l", FILL_COLOR_LIGHT_GREEN); // Standard Identity Exercise Neutral
+        fillColorMap.put("m", FILL_COLOR_LIGHT_BLUE); // Standard Identity Exercise Assumed Friend
+        fillColorMap.put("j", FILL_COLOR_LIGHT_RED); // Standard Identity Joker
+        fillColorMap.put("k", FILL_COLOR_LIGHT_RED); // Standard Identity Faker
+
+        // The MIL-STD-2525 symbol frame colors for each Standard Identity.
+        frameColorMap.put("p", FRAME_COLOR_YELLOW); // Standard Identity Pending
+        frameColorMap.put("u", FRAME_COLOR_YELLOW); // Standard Identity Unknown
+        frameColorMap.put("f", FRAME_COLOR_BLUE); // Standard Identity Friend
+        frameColorMap.put("n", FRAME_COLOR_GREEN); // Standard Identity Neutral
+        frameColorMap.put("h", FRAME_COLOR_RED); // Standard Identity Hostile
+        frameColorMap.put("a", FRAME_COLOR_BLUE); // Standard Identity Assumed Friend
+        frameColorMap.put("s", FRAME_COLOR_RED); // Standard Identity Suspect
+        frameColorMap.put("g", FRAME_COLOR_YELLOW); // Standard Identity Exercise Pending
+        frameColorMap.put("w", FRAME_COLOR_YELLOW); // Standard Identity Exercise Unknown
+        frameColorMap.put("d", FRAME_COLOR_BLUE); // Standard Identity Exercise Friend
+        frameColorMap.put("l", FRAME_COLOR_GREEN); // Standard Identity Exercise Neutral
+        frameColorMap.put("m", FRAME_COLOR_BLUE); // Standard Identity Exercise Assumed Friend
+        frameColorMap.put("j", FRAME_COLOR_RED); // Standard Identity Joker
+        frameColorMap.put("k", FRAME_COLOR_RED); // Standard Identity Faker
+
+        // The MIL-STD-2525 symbol icon colors for each icon that has either a white or colored fill. White is denoted
+        // as a null value.
+        iconColorMap.put("e-f-a----------", null);
+        iconColorMap.put("e-f-aa---------", null);
+        iconColorMap.put("e-f-ab---------", null);
+        iconColorMap.put("e-f-ad---------", null);
+        iconColorMap.put("e-f-ag---------", null);
+        iconColorMap.put("e-f-ba---------", null);
+        iconColorMap.put("e-f-bb---------", null);
+        iconColorMap.put("e-f-bc---------", null);
+        iconColorMap.put("e-f-bd---------", null);
+        iconColorMap.put("e-f-c----------", null);
+        iconColorMap.put("e-f-ca---------", null);
+        iconColorMap.put("e-f-cb---------", null);
+        iconColorMap.put("e-f-cc---------", null);
+        iconColorMap.put("e-f-cd---------", null);
+        iconColorMap.put("e-f-ce---------", null);
+        iconColorMap.put("e-f-cf---------", null);
+        iconColorMap.put("e-f-cg---------", null);
+        iconColorMap.put("e-f-ch---------", null);
+        iconColorMap.put("e-f-ci---------", null);
+        iconColorMap.put("e-f-cj---------", null);
+        iconColorMap.put("e-f-ee---------", null);
+        iconColorMap.put("e-f-f----------", null);
+        iconColorMap.put("e-f-g----------", null);
+        iconColorMap.put("e-f-h----------", null);
+        iconColorMap.put("e-f-ha---------", null);
+        iconColorMap.put("e-f-hb---------", null);
+        iconColorMap.put("e-f-ia---------", null);
+        iconColorMap.put("e-f-id---------", null);
+        iconColorMap.put("e-f-jb---------", null);
+        iconColorMap.put("e-f-ld---------", null);
+        iconColorMap.put("e-f-le---------", null);
+        iconColorMap.put("e-f-lf---------", null);
+        iconColorMap.put("e-f-lm---------", null);
+        iconColorMap.put("e-f-lo---------", null);
+        iconColorMap.put("e-f-lp---------", null);
+        iconColorMap.put("e-f-me---------", null);
+        iconColorMap.put("e-f-mf---------", null);
+        iconColorMap.put("e-f-mg---------", null);
+        iconColorMap.put("e-f-mh---------", null);
+        iconColorMap.put("e-f-mi---------", null);
+        iconColorMap.put("e-i-b----------", null);
+        iconColorMap.put("e-i-ca---------", null);
+        iconColorMap.put("e-i-cc---------", null);
+        iconColorMap.put("e-i-d----------", null);
+        iconColorMap.put("e-i-da---------", 0xfffffe6f);
+        iconColorMap.put("e-i-dc---------", null);
+        iconColorMap.put("e-i-dd---------", null);
+        iconColorMap.put("e-i-de---------", null);
+        iconColorMap.put("e-i-df---------", null);
+        iconColorMap.put("e-i-dg---------", null);
+        iconColorMap.put("e-i-dh---------", null);
+        iconColorMap.put("e-i-di---------", null);
+        iconColorMap.put("e-i-dj---------", null);
+        iconColorMap.put("e-i-dm---------", null);
+        iconColorMap.put("e-i-e----------", null);
+        iconColorMap.put("e-i-ea---------", null);
+        iconColorMap.put("e-i-f----------", null);
+        iconColorMap.put("e-i-fa---------", null);
+        iconColorMap.put("e-o-ae---------", null);
+        iconColorMap.put("e-o-af---------", null);
+        iconColorMap.put("e-o-aj---------", null);
+        iconColorMap.put("e-o-ak---------", null);
+        iconColorMap.put("e-o-am---------", null);
+        iconColorMap.put("e-o-b----------", null);
+        iconColorMap.put("e-o-ba---------", null);
+        iconColorMap.put("e-o-bb---------", null);
+        iconColorMap.put("e-o-bc---------", null);
+        iconColorMap.put("e-o-bd---------", null);
+        iconColorMap.put("e-o-be---------", null);
+        iconColorMap.put("e-o-bf---------", null);
+        iconColorMap.put("e-o-bg---------", null);
+        iconColorMap.put("e-o-bh---------", null);
+        iconColorMap.put("e-o-bi---------", null);
+        iconColorMap.put("e-o-bj---------", null);
+        iconColorMap.put("e-o-cc---------", null);
+        iconColorMap.put("e-o-cd---------", null);
+        iconColorMap.put("e-o-de---------", null);
+        iconColorMap.put("e-o-dea--------", null);
+        iconColorMap.put("e-o-deb--------", null);
+        iconColorMap.put("e-o-dec--------", null);
+        iconColorMap.put("e-o-df---------", null);
+        iconColorMap.put("e-o-dfa--------", null);
+        iconColorMap.put("e-o-dfb--------", null);
+        iconColorMap.put("e-o-dfc--------", null);
+        iconColorMap.put("e-o-dk---------", null);
+        iconColorMap.put("e-o-dn---------", null);
+        iconColorMap.put("e-o-dna--------", null);
+        iconColorMap.put("e-o-dnc--------", null);
+        iconColorMap.put("e-o-do---------", null);
+        iconColorMap.put("e-o-doa--------", null);
+        iconColorMap.put("e-o-dob--------", null);
+        iconColorMap.put("e-o-doc--------", null);
+        iconColorMap.put("o-o-ha---------", null);
+        iconColorMap.put("o-o-hv---------", null);
+        iconColorMap.put("o-o-y----------", null);
+        iconColorMap.put("o-o-yh---------", null);
+        iconColorMap.put("o-o-yt---------", null);
+        iconColorMap.put("o-o-yw---------", null);
+        iconColorMap.put("s-a-cf---------", null);
+        iconColorMap.put("s-a-ch---------", null);
+        iconColorMap.put("s-a-cl---------", null);
+        iconColorMap.put("s-a-w----------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wm---------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wma--------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wmaa-------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wmap-------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wmas-------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wmb--------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wmcm-------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wms--------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wmsa-------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wmsb-------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wmss-------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wmsu-------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-a-wmu--------", FILL_COLOR_LIGHT_YELLOW);
+        iconColorMap.put("s-f-gp---------", null);
+        iconColorMap.put("s-f-gpa--------", null);
+        iconColorMap.put("s-f-nb---------", null);
+        iconColorMap.put("s-g-evca-------", null);
+        iconColorMap.put("s-g-evcah------", null);
+        iconColorMap.put("s-g-evcal------", null);
+        iconColorMap.put("s-g-evcam------", null);
+        iconColorMap.put("s-g-evcf-------", null);
+        iconColorMap.put("s-g-evcfh------", null);
+        iconColorMap.put("s-g-evcfl------", null);
+        iconColorMap.put("s-g-evcfm------", null);
+        iconColorMap.put("s-g-evcj-------", null);
+        iconColorMap.put("s-g-evcjh------", null);
+        iconColorMap.put("s-g-evcjl------", null);
+        iconColorMap.put("s-g-evcjm------", null);
+        iconColorMap.put("s-g-evcm-------", null);
+        iconColorMap.put("s-g-evcmh------", null);
+        iconColorMap.put("s-g-evcml------", null);
+        iconColorMap.put("s-g-evcmm------", null);
+        iconColorMap.put("s-g-evco-------", null);
+        iconColorMap.put("s-g-evcoh------", null);
+        iconColorMap.put("s-g-evcol------", null);
+        iconColorMap.put("s-g-evcom------", null);
+        iconColorMap.put("s-g-evct-------", null);
+        iconColorMap.put("s-g-evcth------", null);
+        iconColorMap.put("s-g-evctl------", null);
+        iconColorMap.put("s-g-evctm------", null);
+        iconColorMap.put("s-g-evcu-------", null);
+        iconColorMap.put("s-g-evcuh------", null);
+        iconColorMap.put("s-g-evcul------", null);
+        iconColorMap.put("s-g-evcum------", null);
+        iconColorMap.put("s-g-ucfs-------", null);
+        iconColorMap.put("s-g-ucfsa------", null);
+        iconColorMap.put("s-g-ucfsl------", null);
+        iconColorMap.put("s-g-ucfso------", null);
+        iconColorMap.put("s-g-ucfss------", null);
+        iconColorMap.put("s-g-ucfts------", null);
+        iconColorMap.put("s-g-uumrs------", null);
+        iconColorMap.put("s-g-uumrss-----", null);
+        iconColorMap.put("s-g-uusx-------", null);
+        iconColorMap.put("s-p-t----------", null);
+        iconColorMap.put("s-s-c----------", null);
+        iconColorMap.put("s-s-nh---------", null);
+        iconColorMap.put("s-s-xa---------", null);
+        iconColorMap.put("s-s-xar--------", null);
+        iconColorMap.put("s-s-xas--------", null);
+        iconColorMap.put("s-s-xf---------", null);
+        iconColorMap.put("s-s-xfdf-------", null);
+        iconColorMap.put("s-s-xfdr-------", null);
+        iconColorMap.put("s-s-xftr-------", null);
+        iconColorMap.put("s-s-xh---------", null);
+        iconColorMap.put("s-s-xl---------", null);
+        iconColorMap.put("s-s-xm---------", null);
+        iconColorMap.put("s-s-xmc--------", null);
+        iconColorMap.put("s-s-xmf--------", null);
+        iconColorMap.put("s-s-xmh--------", null);
+        iconColorMap.put("s-s-xmo--------", null);
+        iconColorMap.put("s-s-xmp--------", null);
+        iconColorMap.put("s-s-xmr--------", null);
+        iconColorMap.put("s-s-xmto-------", null);
+        iconColorMap.put("s-s-xmtu-------", null);
+        iconColorMap.put("s-s-xp---------", null);
+        iconColorMap.put("s-s-xr---------", null);
+        iconColorMap.put("s-u-e----------", ICON_COLOR_GREEN);
+        iconColorMap.put("s-u-nd---------", null);
+        iconColorMap.put("s-u-sca--------", null);
+        iconColorMap.put("s-u-scb--------", null);
+        iconColorMap.put("s-u-scg--------", null);
+        iconColorMap.put("s-u-scm--------", null);
+        iconColorMap.put("s-u-sna--------", null);
+        iconColorMap.put("s-u-snb--------", null);
+        iconColorMap.put("s-u-sng--------", null);
+        iconColorMap.put("s-u-snm--------", null);
+        iconColorMap.put("s-u-v----------", ICON_COLOR_GREEN);
+        iconColorMap.put("s-u-wdm--------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wdmg-------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wdmm-------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wm---------", ICON_COLOR_RED);
+        iconColorMap.put("s-u-wma--------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wmb--------", ICON_COLOR_YELLOW);
+        iconColorMap.put("s-u-wmbd-------", ICON_COLOR_GREEN);
+        iconColorMap.put("s-u-wmc--------", ICON_COLOR_ORANGE);
+        iconColorMap.put("s-u-wmd--------", ICON_COLOR_GREEN);
+        iconColorMap.put("s-u-wme--------", ICON_COLOR_YELLOW);
+        iconColorMap.put("s-u-wmf--------", ICON_COLOR_RED);
+        iconColorMap.put("s-u-wmfc-------", ICON_COLOR_ORANGE);
+        iconColorMap.put("s-u-wmfd-------", ICON_COLOR_GREEN);
+        iconColorMap.put("s-u-wmfe-------", ICON_COLOR_YELLOW);
+        iconColorMap.put("s-u-wmfo-------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wmfr-------", ICON_COLOR_YELLOW);
+        iconColorMap.put("s-u-wmfx-------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wmg--------", ICON_COLOR_RED);
+        iconColorMap.put("s-u-wmgc-------", ICON_COLOR_ORANGE);
+        iconColorMap.put("s-u-wmgd-------", ICON_COLOR_GREEN);
+        iconColorMap.put("s-u-wmge-------", ICON_COLOR_YELLOW);
+        iconColorMap.put("s-u-wmgo-------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wmgr-------", ICON_COLOR_YELLOW);
+        iconColorMap.put("s-u-wmgx-------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wmm--------", ICON_COLOR_RED);
+        iconColorMap.put("s-u-wmmc-------", ICON_COLOR_ORANGE);
+        iconColorMap.put("s-u-wmmd-------", ICON_COLOR_GREEN);
+        iconColorMap.put("s-u-wmme-------", ICON_COLOR_YELLOW);
+        iconColorMap.put("s-u-wmmo-------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wmmr-------", ICON_COLOR_YELLOW);
+        iconColorMap.put("s-u-wmmx-------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wmn--------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wmo--------", ICON_COLOR_RED);
+        iconColorMap.put("s-u-wmod-------", ICON_COLOR_GREEN);
+        iconColorMap.put("s-u-wmr--------", ICON_COLOR_YELLOW);
+        iconColorMap.put("s-u-wms--------", ICON_COLOR_RED);
+        iconColorMap.put("s-u-wmsd-------", ICON_COLOR_GREEN);
+        iconColorMap.put("s-u-wmsx-------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-wmx--------", ICON_COLOR_DARK_GREEN);
+        iconColorMap.put("s-u-x----------", ICON_COLOR_RED);
+
+        // The MIL-STD-2525 symbol icons that are implicitly unfilled.
+        unfilledIconMap.add("s-u-wm---------");
+        unfilledIconMap.add("s-u-wmd--------");
+        unfilledIconMap.add("s-u-wmg--------");
+        unfilledIconMap.add("s-u-wmgd-------");
+        unfilledIconMap.add("s-u-wmgx-------");
+        unfilledIconMap.add("s-u-wmge-------");
+        unfilledIconMap.add("s-u-wmgc-------");
+        unfilledIconMap.add("s-u-wmgr-------");
+        unfilledIconMap.add("s-u-wmgo-------");
+        unfilledIconMap.add("s-u-wmm--------");
+        unfilledIconMap.add("s-u-wmmd-------");
+        unfilledIconMap.add("s-u-wmmx-------");
+        unfilledIconMap.add("s-u-wmme-------");
+        unfilledIconMap.add("s-u-wmmc-------");
+        unfilledIconMap.add("s-u-wmmr-------");
+        unfilledIconMap.add("s-u-wmmo-------");
+        unfilledIconMap.add("s-u-wmf--------");
+        unfilledIconMap.add("s-u-wmfd-------");
+        unfilledIconMap.add("s-u-wmfx-------");
+        unfilledIconMap.add("s-u-wmfe-------");
+        unfilledIconMap.add("s-u-wmfc-------");
+        unfilledIconMap.add("s-u-wmfr-------");
+        unfilledIconMap.add("s-u-wmfo-------");
+        unfilledIconMap.add("s-u-wmo--------");
+        unfilledIconMap.add("s-u-wmod-------");
+        unfilledIconMap.add("s-u-wmx--------");
+        unfilledIconMap.add("s-u-wme--------");
+        unfilledIconMap.add("s-u-wma--------");
+        unfilledIconMap.add("s-u-wmc--------");
+        unfilledIconMap.add("s-u-wmr--------");
+        unfilledIconMap.add("s-u-wmb--------");
+        unfilledIconMap.add("s-u-wmbd-------");
+        unfilledIconMap.add("s-u-wmn--------");
+        unfilledIconMap.add("s-u-wms--------");
+        unfilledIconMap.add("s-u-wmsx-------");
+        unfilledIconMap.add("s-u-wmsd-------");
+        unfilledIconMap.add("s-u-wdm--------");
+        unfilledIconMap.add("s-u-wdmg-------");
+        unfilledIconMap.add("s-u-wdmm-------");
+        unfilledIconMap.add("s-u-e----------");
+        unfilledIconMap.add("s-u-v----------");
+        unfilledIconMap.add("s-u-x----------");
+
+        // The MIL-STD-2525 symbol icons that are implicitly unframed.
+        unframedIconMap.add("s-s-o----------");
+        unframedIconMap.add("s-u-nd---------");
+
+        // The MIL-STD-2525 Emergency Management symbols representing units.
+        emsEquipment.add("e-o-ab---------");
+        emsEquipment.add("e-o-ae---------");
+        emsEquipment.add("e-o-af---------");
+        emsEquipment.add("e-o-bb---------");
+        emsEquipment.add("e-o-cb---------");
+        emsEquipment.add("e-o-cc---------");
+        emsEquipment.add("e-o-db---------");
+        emsEquipment.add("e-o-ddb--------");
+        emsEquipment.add("e-o-deb--------");
+        emsEquipment.add("e-o-dfb--------");
+        emsEquipment.add("e-o-dgb--------");
+        emsEquipment.add("e-o-dhb--------");
+        emsEquipment.add("e-o-dib--------");
+        emsEquipment.add("e-o-djb--------");
+        emsEquipment.add("e-o-dlb--------");
+        emsEquipment.add("e-o-dmb--------");
+        emsEquipment.add("e-o-dob--------");
+        emsEquipment.add("e-o-pea--------");
+        emsEquipment.add("e-o-peb--------");
+        emsEquipment.add("e-o-pec--------");
+        emsEquipment.add("e-o-ped--------");
+        emsEquipment.add("e-o-pee--------");
+        emsEquipment.add("e-f-ba---------");
+        emsEquipment.add("e-f-ma---------");
+        emsEquipment.add("e-f-mc---------");
+    }
+}
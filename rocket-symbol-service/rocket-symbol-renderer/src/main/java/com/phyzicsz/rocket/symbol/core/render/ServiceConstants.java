@@ -15,6 +15,8 @@
  */
 package com.phyzicsz.rocket.symbol.core.render;
 
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+
 /**
  *
  * @author phyzicsz <phyzics.z@gmail.com>
@@ -25,4 +27,26 @@ public class ServiceConstants {
     public static final String IMAGE_SIZE = "SymbolServiceProperties.Size";
     
     public static final Integer DEFAULT_IMAGE_SIZE = 128;
+    
+    public static final String RESIZE_QUALITY = "SymbolServiceProperties.ResizeQuality";
+    
+    public static final ResizeQuality DEFAULT_RESIZE_QUALITY = ResizeQuality.BILINEAR;
+    
+    public static final String INDEXED_COLOR = "SymbolServiceProperties.IndexedColor";
+    
+    public static final String PNG_COMPRESSION_LEVEL = "SymbolServiceProperties.PngCompressionLevel";
+    
+    public static final String PNG_FILTER = "SymbolServiceProperties.PngFilter";
+    
+    public static final String PNG_PALETTE = "SymbolServiceProperties.PngPalette";
+    
+    public static final String JPEG_QUALITY = "SymbolServiceProperties.JpegQuality";
+    
+    public static final String JPEG_BACKGROUND = "SymbolServiceProperties.JpegBackground";
+    
+    public static final long DEFAULT_RENDER_CACHE_SIZE = 4096;
+    
+    public static final long DEFAULT_SCALED_COMPONENT_CACHE_SIZE = 4096;
+    
+    public static final long DEFAULT_DOT_CACHE_SIZE = 1024;
 }
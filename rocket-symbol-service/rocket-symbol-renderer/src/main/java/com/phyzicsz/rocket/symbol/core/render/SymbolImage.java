@@ -0,0 +1,110 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.render;
+
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Read only handle on a rendered symbol. The handle wraps the cached render
+ * itself, so returning one on a cache hit copies nothing; pixels are read
+ * through the handle and a mutable {@link BufferedImage} is only copied when
+ * {@link #toBufferedImage()} is called.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class SymbolImage {
+
+    private static final Logger logger = LoggerFactory.getLogger(SymbolImage.class);
+
+    private final BufferedImage image;
+
+    SymbolImage(BufferedImage image) {
+        if (image == null) {
+            logger.error("image is null");
+            throw new IllegalArgumentException("image is null");
+        }
+        this.image = image;
+    }
+
+    public int getWidth() {
+        return image.getWidth();
+    }
+
+    public int getHeight() {
+        return image.getHeight();
+    }
+
+    /**
+     * A pixel as non-premultiplied ARGB.
+     *
+     * @param x Column of the pixel.
+     * @param y Row of the pixel.
+     * @return the pixel.
+     */
+    public int getRGB(int x, int y) {
+        return image.getRGB(x, y);
+    }
+
+    /**
+     * Copy a region of pixels as non-premultiplied ARGB into an array, like
+     * {@link BufferedImage#getRGB(int, int, int, int, int[], int, int)}.
+     *
+     * @param x Left edge of the region.
+     * @param y Top edge of the region.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param pixels Array to fill, null to allocate one.
+     * @param offset Index of the first pixel in the array.
+     * @param scanline Distance between rows in the array.
+     * @return the array.
+     */
+    public int[] getRGB(int x, int y, int width, int height, int[] pixels, int offset, int scanline) {
+        return image.getRGB(x, y, width, height, pixels, offset, scanline);
+    }
+
+    /**
+     * All pixels as non-premultiplied ARGB, row by row.
+     *
+     * @return a new array.
+     */
+    public int[] getRGB() {
+        return this.getRGB(0, 0, getWidth(), getHeight(), null, 0, getWidth());
+    }
+
+    /**
+     * Draw the symbol with its upper left corner at (x, y).
+     *
+     * @param g Graphics to draw with.
+     * @param x Horizontal position.
+     * @param y Vertical position.
+     */
+    public void draw(Graphics2D g, int x, int y) {
+        g.drawImage(image, x, y, null);
+    }
+
+    /**
+     * A mutable {@code TYPE_INT_ARGB} copy of the symbol.
+     *
+     * @return a new image owned by the caller.
+     */
+    public BufferedImage toBufferedImage() {
+        return ImageUtils.copyToIntArgb(image);
+    }
+}
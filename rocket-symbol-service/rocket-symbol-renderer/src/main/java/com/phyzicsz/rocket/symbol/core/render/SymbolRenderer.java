@@ -17,8 +17,11 @@ package com.phyzicsz.rocket.symbol.core.render;
 
 import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
 import com.phyzicsz.rocket.symbol.core.exception.UnsupportedMimeType;
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.util.List;
 
 /**
  * Render icons for symbols in a symbol set from a local disk or the network.
@@ -38,4 +41,76 @@ public interface SymbolRenderer {
      * @throws java.io.IOException
      */
     BufferedImage createIcon(String symbolId, SymbolServiceProperties props) throws IOException, UnsupportedMimeType;
+
+    /**
+     * Render a symbol into a caller supplied image, drawing it source-over
+     * with its upper left corner at (x, y). Parts outside the image are
+     * clipped, so x and y may be negative.
+     *
+     * @param symbolId Identifier for the symbol.
+     * @param props Symbol properties, the image size in them is ignored.
+     * @param dest Image to draw into.
+     * @param x Horizontal position in dest.
+     * @param y Vertical position in dest.
+     * @param size Size of the symbol's longer side.
+     * @throws java.io.IOException
+     */
+    default void renderInto(String symbolId, SymbolServiceProperties props, BufferedImage dest, int x, int y, int size)
+            throws IOException, UnsupportedMimeType {
+        SymbolServiceProperties sized = new SymbolServiceProperties();
+        sized.putAll(props);
+        sized.put(ServiceConstants.IMAGE_SIZE, size);
+
+        BufferedImage image = this.createIcon(symbolId, sized);
+        if (image != null) {
+            Graphics2D g = dest.createGraphics();
+            g.drawImage(image, x, y, null);
+            g.dispose();
+        }
+    }
+
+    /**
+     * Render a symbol into a caller supplied canvas of non-premultiplied ARGB
+     * pixels, as {@link #renderInto(String, SymbolServiceProperties, BufferedImage, int, int, int)}.
+     *
+     * @param symbolId Identifier for the symbol.
+     * @param props Symbol properties, the image size in them is ignored.
+     * @param pixels Canvas pixels, row by row.
+     * @param width Canvas width, also the length of a row.
+     * @param height Canvas height.
+     * @param x Horizontal position in the canvas.
+     * @param y Vertical position in the canvas.
+     * @param size Size of the symbol's longer side.
+     * @throws java.io.IOException
+     */
+    default void renderInto(String symbolId, SymbolServiceProperties props, int[] pixels, int width, int height,
+            int x, int y, int size) throws IOException, UnsupportedMimeType {
+        this.renderInto(symbolId, props, ImageUtils.wrap(pixels, width, height), x, y, size);
+    }
+
+    /**
+     * Render a batch of symbols into one caller supplied image. Each symbol is
+     * rendered at the size of its rectangle's shorter side, centered in the
+     * rectangle and drawn source-over, clipped to the rectangle.
+     *
+     * @param entries Symbols and their rectangles in dest.
+     * @param dest Image to draw into.
+     * @throws java.io.IOException
+     */
+    default void renderBatch(List<BatchEntry> entries, BufferedImage dest) throws IOException, UnsupportedMimeType {
+        for (BatchEntry entry : entries) {
+            SymbolServiceProperties sized = new SymbolServiceProperties();
+            sized.putAll(entry.getProperties());
+            sized.put(ServiceConstants.IMAGE_SIZE, entry.getSize());
+
+            BufferedImage image = this.createIcon(entry.getSymbolCode(), sized);
+            if (image != null) {
+                Graphics2D g = dest.createGraphics();
+                g.clipRect(entry.getX(), entry.getY(), entry.getWidth(), entry.getHeight());
+                g.drawImage(image, entry.getX() + (entry.getWidth() - image.getWidth()) / 2,
+                        entry.getY() + (entry.getHeight() - image.getHeight()) / 2, null);
+                g.dispose();
+            }
+        }
+    }
 }
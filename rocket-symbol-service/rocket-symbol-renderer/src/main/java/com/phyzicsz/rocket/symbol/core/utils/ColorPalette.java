@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exact palette of an image with few distinct colors, for indexed color
+ * rasters and palette encoders. Colors are non-premultiplied ARGB; every fully
+ * transparent pixel maps to the one transparent entry {@code 0x00000000}.
+ * Translucent entries come first, so encoders that store alpha for a prefix
+ * of the palette only, such as PNG's {@code tRNS}, store as little as possible.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class ColorPalette {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColorPalette.class);
+
+    /**
+     * The most colors an 8 bit palette holds.
+     */
+    public static final int MAX_COLORS = 256;
+
+    private static final int TABLE_SIZE = 1024; // power of two, at most a quarter full
+
+    private final int[] colors;
+    private final int translucent;
+    private final int[] keys = new int[TABLE_SIZE];
+    private final short[] indices = new short[TABLE_SIZE];
+
+    private ColorPalette(int[] colors) {
+        Arrays.fill(indices, (short) -1);
+        int[] sorted = new int[colors.length];
+        int n = 0;
+        for (int c : colors) {
+            if (c >>> 24 != 0xff) {
+                sorted[n++] = c;
+            }
+        }
+        this.translucent = n;
+        for (int c : colors) {
+            if (c >>> 24 == 0xff) {
+                sorted[n++] = c;
+            }
+        }
+        this.colors = sorted;
+        for (int i = 0; i < sorted.length; i++) {
+            int slot = slot(sorted[i]);
+            keys[slot] = sorted[i];
+            indices[slot] = (short) i;
+        }
+    }
+
+    /**
+     * Build the palette of a region of non-premultiplied ARGB pixels.
+     *
+     * @param pixels Pixels of the image.
+     * @param offset Index of the first pixel.
+     * @param scanline Distance between rows in the array.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @return the palette, or null if the region has more than
+     * {@link #MAX_COLORS} colors.
+     */
+    public static ColorPalette of(int[] pixels, int offset, int scanline, int width, int height) {
+        int[] keys = new int[TABLE_SIZE];
+        boolean[] used = new boolean[TABLE_SIZE];
+        int[] colors = new int[MAX_COLORS];
+        int count = 0;
+        int last = 0;
+        boolean first = true;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0, i = offset + y * scanline; x < width; x++, i++) {
+                int c = normalize(pixels[i]);
+                if (c == last && !first) {
+                    continue; // runs of one color are the common case
+                }
+                first = false;
+                last = c;
+                int slot = hash(c);
+                while (used[slot] && keys[slot] != c) {
+                    slot = (slot + 1) & (TABLE_SIZE - 1);
+                }
+                if (!used[slot]) {
+                    if (count == MAX_COLORS) {
+                        return null;
+                    }
+                    used[slot] = true;
+                    keys[slot] = c;
+                    colors[count++] = c;
+                }
+            }
+        }
+        return new ColorPalette(Arrays.copyOf(colors, count));
+    }
+
+    public int size() {
+        return colors.length;
+    }
+
+    /**
+     * Number of entries, at the start of the palette, that are not opaque.
+     *
+     * @return the count of translucent entries.
+     */
+    public int getTranslucentCount() {
+        return translucent;
+    }
+
+    /**
+     * @return a copy of the palette's colors.
+     */
+    public int[] getColors() {
+        return colors.clone();
+    }
+
+    /**
+     * @param i Index of an entry.
+     * @return the color of the entry.
+     */
+    public int getColor(int i) {
+        return colors[i];
+    }
+
+    /**
+     * Index of a color in the palette.
+     *
+     * @param argb Non-premultiplied ARGB color.
+     * @return the index, or -1 if the color is not in the palette.
+     */
+    public int indexOf(int argb) {
+        return indices[slot(normalize(argb))];
+    }
+
+    /**
+     * Write the palette index of every pixel of a region, one byte each.
+     *
+     * @param pixels Non-premultiplied ARGB pixels, all in the palette.
+     * @param offset Index of the first pixel.
+     * @param scanline Distance between rows in the array.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param dest Array receiving the indices.
+     * @param destOffset Index of the first pixel in dest.
+     * @param destScanline Distance between rows in dest.
+     */
+    public void index(int[] pixels, int offset, int scanline, int width, int height,
+            byte[] dest, int destOffset, int destScanline) {
+        int last = 0;
+        int lastIndex = indexOf(0);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0, i = offset + y * scanline, d = destOffset + y * destScanline; x < width; x++, i++, d++) {
+                int c = pixels[i];
+                if (c != last) {
+                    last = c;
+                    lastIndex = indexOf(c);
+                    if (lastIndex < 0) {
+                        logger.error("color not in palette: {}", Integer.toHexString(c));
+                        throw new IllegalArgumentException("color not in palette: " + Integer.toHexString(c));
+                    }
+                }
+                dest[d] = (byte) lastIndex;
+            }
+        }
+    }
+
+    private int slot(int c) {
+        int slot = hash(c);
+        while (indices[slot] >= 0 && keys[slot] != c) {
+            slot = (slot + 1) & (TABLE_SIZE - 1);
+        }
+        return slot;
+    }
+
+    private static int normalize(int argb) {
+        return argb >>> 24 == 0 ? 0 : argb;
+    }
+
+    private static int hash(int c) {
+        return (c * 0x9e3779b9) >>> 22; // top 10 bits, TABLE_SIZE slots
+    }
+}
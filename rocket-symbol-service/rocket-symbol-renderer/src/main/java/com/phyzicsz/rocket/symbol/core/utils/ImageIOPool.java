@@ -0,0 +1,182 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * Per-thread ImageIO readers and writers, one of each per format. Each
+ * thread looks up a format's reader or writer once. Afterwards it is only
+ * rebound to a new memory cached stream, so the service provider lookup
+ * and ImageIO's temporary file cache stay off the hot path. A reader or
+ * writer that fails is disposed and looked up again on the next call.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class ImageIOPool {
+
+    private static final ThreadLocal<ImageIOPool> local = ThreadLocal.withInitial(ImageIOPool::new);
+
+    private final Map<String, ImageReader> readers = new HashMap<>();
+    private final Map<String, ImageWriter> writers = new HashMap<>();
+    private final Map<String, ImageWriteParam> params = new HashMap<>();
+
+    private ImageIOPool() {
+    }
+
+    /**
+     * Decode an image with this thread's reader for a format. The stream is
+     * not closed.
+     *
+     * @param in Stream holding the image.
+     * @param format Informal format name, such as "png".
+     * @return the image, or null if no reader handles the format.
+     * @throws IOException if the stream fails or the image is malformed.
+     */
+    public static BufferedImage read(InputStream in, String format) throws IOException {
+        ImageIOPool pool = local.get();
+        String key = format.toLowerCase(Locale.ROOT);
+        ImageReader reader = pool.readers.get(key);
+        if (reader == null) {
+            Iterator<ImageReader> found = ImageIO.getImageReadersByFormatName(key);
+            if (!found.hasNext()) {
+                return null;
+            }
+            reader = found.next();
+            pool.readers.put(key, reader);
+        }
+
+        boolean read = false;
+        try (ImageInputStream stream = new MemoryCacheImageInputStream(in)) {
+            reader.setInput(stream, true, true);
+            BufferedImage image = reader.read(0, reader.getDefaultReadParam());
+            read = true;
+            return image;
+        } finally {
+            if (read) {
+                reader.setInput(null);
+            } else {
+                pool.readers.remove(key).dispose();
+            }
+        }
+    }
+
+    /**
+     * This thread's write parameters for a format, to configure before
+     * {@link #write(RenderedImage, String, ImageWriteParam, OutputStream)}.
+     * They are shared by every write of the format on this thread, so set
+     * every parameter the write depends on.
+     *
+     * @param format Informal format name, such as "jpeg".
+     * @return the parameters, or null if no writer handles the format.
+     */
+    public static ImageWriteParam writeParam(String format) {
+        ImageIOPool pool = local.get();
+        String key = format.toLowerCase(Locale.ROOT);
+        ImageWriteParam param = pool.params.get(key);
+        if (param == null) {
+            ImageWriter writer = pool.writer(key);
+            if (writer == null) {
+                return null;
+            }
+            param = writer.getDefaultWriteParam();
+            pool.params.put(key, param);
+        }
+        return param;
+    }
+
+    /**
+     * Encode an image with this thread's writer for a format. The stream is
+     * not closed.
+     *
+     * @param image Image to encode.
+     * @param format Informal format name, such as "png".
+     * @param out Stream receiving the image.
+     * @return false if no writer handles the format.
+     * @throws IOException if the stream fails.
+     */
+    public static boolean write(RenderedImage image, String format, OutputStream out) throws IOException {
+        return write(image, format, null, out);
+    }
+
+    /**
+     * Encode an image with this thread's writer for a format. The stream is
+     * not closed.
+     *
+     * @param image Image to encode.
+     * @param format Informal format name, such as "jpeg".
+     * @param param Parameters from {@link #writeParam}, or null for the
+     * writer's defaults.
+     * @param out Stream receiving the image.
+     * @return false if no writer handles the format.
+     * @throws IOException if the stream fails.
+     */
+    public static boolean write(RenderedImage image, String format, ImageWriteParam param, OutputStream out)
+            throws IOException {
+        ImageIOPool pool = local.get();
+        String key = format.toLowerCase(Locale.ROOT);
+        ImageWriter writer = pool.writer(key);
+        if (writer == null) {
+            return false;
+        }
+
+        boolean written = false;
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.write(null, new IIOImage(image, null, null), param);
+            written = true;
+        } finally {
+            if (written) {
+                writer.setOutput(null);
+            } else {
+                // a failed writer may be left mid-image
+                pool.writers.remove(key).dispose();
+                pool.params.remove(key);
+            }
+        }
+        return true;
+    }
+
+    private ImageWriter writer(String key) {
+        ImageWriter writer = writers.get(key);
+        if (writer == null) {
+            Iterator<ImageWriter> found = ImageIO.getImageWritersByFormatName(key);
+            if (!found.hasNext()) {
+                return null;
+            }
+            writer = found.next();
+            writers.put(key, writer);
+        }
+        return writer;
+    }
+}
@@ -19,6 +19,14 @@ import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.Transparency;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 
 /**
  *
@@ -27,22 +35,288 @@ import java.awt.image.BufferedImage;
 public class ImageUtils {
 
     public static BufferedImage resize(BufferedImage src, int targetSize) {
+        return resize(src, targetSize, ResizeQuality.BILINEAR);
+    }
+
+    /**
+     * Resize an image so its longer side is {@code targetSize}, keeping the
+     * aspect ratio. The result is {@code TYPE_INT_RGB} for opaque sources,
+     * {@code TYPE_INT_ARGB_PRE} for premultiplied ones and
+     * {@code TYPE_INT_ARGB} otherwise.
+     *
+     * @param src Image to resize.
+     * @param targetSize Size of the longer side, the image is returned as is
+     * if this is not positive.
+     * @param quality Resampling to use, null for {@link ResizeQuality#BILINEAR}.
+     * @return The resized image.
+     */
+    public static BufferedImage resize(BufferedImage src, int targetSize, ResizeQuality quality) {
         if (targetSize <= 0) {
             return src; //this can't be resized
         }
-        int targetWidth = targetSize;
-        int targetHeight = targetSize;
-        float ratio = ((float) src.getHeight() / (float) src.getWidth());
-        if (ratio <= 1) { //square or landscape-oriented image
-            targetHeight = (int) Math.ceil((float) targetWidth * ratio);
-        } else { //portrait image
-            targetWidth = Math.round((float) targetHeight / ratio);
+        int targetWidth = Resampler.targetWidth(src.getWidth(), src.getHeight(), targetSize);
+        int targetHeight = Resampler.targetHeight(src.getWidth(), src.getHeight(), targetSize);
+        if (quality == null) {
+            quality = ResizeQuality.BILINEAR;
         }
-        BufferedImage bi = new BufferedImage(targetWidth, targetHeight, src.getTransparency() == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        switch (quality) {
+            case NEAREST:
+                return nearest(src, targetWidth, targetHeight);
+            case PROGRESSIVE:
+                return progressive(src, targetWidth, targetHeight);
+            case AREA_AVERAGE:
+                return areaAverage(src, targetWidth, targetHeight);
+            default:
+                return bilinear(src, targetWidth, targetHeight);
+        }
+    }
+
+    private static int targetType(BufferedImage src) {
+        return src.getTransparency() == Transparency.OPAQUE ? BufferedImage.TYPE_INT_RGB
+                : src.isAlphaPremultiplied() ? BufferedImage.TYPE_INT_ARGB_PRE : BufferedImage.TYPE_INT_ARGB;
+    }
+
+    private static BufferedImage bilinear(BufferedImage src, int targetWidth, int targetHeight) {
+        BufferedImage bi = new BufferedImage(targetWidth, targetHeight, targetType(src));
         Graphics2D g2d = bi.createGraphics();
         g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR); //produces a balanced resizing (fast and decent quality)
         g2d.drawImage(src, 0, 0, targetWidth, targetHeight, null);
         g2d.dispose();
         return bi;
     }
+
+    private static BufferedImage progressive(BufferedImage src, int targetWidth, int targetHeight) {
+        BufferedImage bi = src;
+        int w = src.getWidth();
+        int h = src.getHeight();
+        // halve while bilinear would still skip source pixels, then finish in one step
+        while (w >= targetWidth * 2 || h >= targetHeight * 2) {
+            w = Math.max(w / 2, targetWidth);
+            h = Math.max(h / 2, targetHeight);
+            bi = bilinear(bi, w, h);
+        }
+        if (bi == src || w != targetWidth || h != targetHeight) {
+            bi = bilinear(bi, targetWidth, targetHeight);
+        }
+        return bi;
+    }
+
+    private static BufferedImage nearest(BufferedImage src, int targetWidth, int targetHeight) {
+        BufferedImage source = intImage(src);
+        BufferedImage bi = new BufferedImage(targetWidth, targetHeight, targetType(src));
+        WritableRaster s = source.getRaster();
+        Resampler.nearest(PixelKernels.data(s), PixelKernels.offset(s), PixelKernels.scanline(s),
+                source.getWidth(), source.getHeight(),
+                PixelKernels.data(bi.getRaster()), 0, targetWidth, targetWidth, targetHeight);
+        return bi;
+    }
+
+    private static BufferedImage areaAverage(BufferedImage src, int targetWidth, int targetHeight) {
+        BufferedImage source = intImage(src);
+        BufferedImage bi = new BufferedImage(targetWidth, targetHeight, targetType(src));
+        WritableRaster s = source.getRaster();
+        Resampler.areaAverage(PixelKernels.data(s), PixelKernels.offset(s), PixelKernels.scanline(s),
+                source.getWidth(), source.getHeight(),
+                PixelKernels.data(bi.getRaster()), 0, targetWidth, targetWidth, targetHeight,
+                source.getType() == BufferedImage.TYPE_INT_ARGB_PRE, src.getTransparency() == Transparency.OPAQUE);
+        return bi;
+    }
+
+    /**
+     * The image itself if its pixels are ints in the layout resize writes for
+     * it, otherwise an equivalent {@code TYPE_INT_ARGB} or
+     * {@code TYPE_INT_ARGB_PRE} copy.
+     */
+    private static BufferedImage intImage(BufferedImage src) {
+        int type = src.getType();
+        if (type == BufferedImage.TYPE_INT_ARGB || type == BufferedImage.TYPE_INT_ARGB_PRE
+                || type == BufferedImage.TYPE_INT_RGB) {
+            return src;
+        }
+        if (src.isAlphaPremultiplied() && src.getTransparency() != Transparency.OPAQUE) {
+            BufferedImage bi = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g2d = bi.createGraphics();
+            g2d.drawImage(src, 0, 0, null);
+            g2d.dispose();
+            return bi;
+        }
+        return convert(src);
+    }
+
+    /**
+     * A {@code TYPE_INT_ARGB} image backed by an existing pixel array, so
+     * drawing into the image writes the array.
+     *
+     * @param pixels Non-premultiplied ARGB pixels, row by row.
+     * @param width Image width, also the length of a row.
+     * @param height Image height.
+     * @return The image.
+     */
+    public static BufferedImage wrap(int[] pixels, int width, int height) {
+        if (pixels == null || width <= 0 || height <= 0 || pixels.length < width * height) {
+            throw new IllegalArgumentException("invalid pixel array for " + width + "x" + height);
+        }
+        DirectColorModel cm = (DirectColorModel) ColorModel.getRGBdefault();
+        WritableRaster raster = Raster.createPackedRaster(new DataBufferInt(pixels, pixels.length),
+                width, height, width, cm.getMasks(), null);
+        return new BufferedImage(cm, raster, false, null);
+    }
+
+    /**
+     * Convert an image to {@code TYPE_INT_ARGB}. Images that already have that
+     * type are returned as is. This is where premultiplied renders are
+     * converted back for encoding.
+     *
+     * @param src Image to convert.
+     * @return An image of type {@code TYPE_INT_ARGB}, or null if src is null.
+     */
+    public static BufferedImage toIntArgb(BufferedImage src) {
+        if (src == null || src.getType() == BufferedImage.TYPE_INT_ARGB) {
+            return src;
+        }
+        return convert(src);
+    }
+
+    /**
+     * Convert an image to {@code TYPE_INT_ARGB} into an existing image, for
+     * example a {@link ScratchBuffers} image. Images that already have that
+     * type are returned as is.
+     *
+     * @param src Image to convert.
+     * @param dest {@code TYPE_INT_ARGB} image the size of src.
+     * @return src if it is {@code TYPE_INT_ARGB}, otherwise dest.
+     */
+    public static BufferedImage toIntArgb(BufferedImage src, BufferedImage dest) {
+        if (src.getType() == BufferedImage.TYPE_INT_ARGB) {
+            return src;
+        }
+        return convert(src, dest);
+    }
+
+    /**
+     * Create a {@code TYPE_INT_ARGB} copy of an image that shares no pixel
+     * storage with the source, whatever the source's type. This is the form
+     * renders are handed to callers in.
+     *
+     * @param src Image to copy.
+     * @return The copy, or null if src is null.
+     */
+    public static BufferedImage copyToIntArgb(BufferedImage src) {
+        if (src == null) {
+            return null;
+        }
+        return src.getType() == BufferedImage.TYPE_INT_ARGB ? copy(src) : convert(src);
+    }
+
+    /**
+     * Create a copy of an image that shares no pixel storage with the source.
+     * {@code TYPE_INT_ARGB} and {@code TYPE_INT_ARGB_PRE} images are copied
+     * as is, anything else is converted to {@code TYPE_INT_ARGB}.
+     *
+     * @param src Image to copy.
+     * @return The copy.
+     */
+    public static BufferedImage copy(BufferedImage src) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        int type = src.getType();
+        if (type == BufferedImage.TYPE_INT_ARGB_PRE || type == BufferedImage.TYPE_INT_ARGB) {
+            BufferedImage bi = new BufferedImage(w, h, type);
+            WritableRaster s = src.getRaster();
+            int[] srcPixels = PixelKernels.data(s);
+            int[] destPixels = PixelKernels.data(bi.getRaster());
+            for (int y = 0, si = PixelKernels.offset(s); y < h; y++, si += PixelKernels.scanline(s)) {
+                System.arraycopy(srcPixels, si, destPixels, y * w, w);
+            }
+            return bi;
+        }
+        return convert(src);
+    }
+
+    /**
+     * Convert an image to an 8 bit {@code TYPE_BYTE_INDEXED} image with an
+     * exact palette, a quarter of the memory of an int image. Pixels read
+     * back with {@code getRGB} are unchanged, except that every fully
+     * transparent pixel becomes {@code 0x00000000}.
+     *
+     * @param src Image to convert.
+     * @return the indexed image, or src itself if it has more than
+     * {@link ColorPalette#MAX_COLORS} colors or is already indexed.
+     */
+    public static BufferedImage toIndexed(BufferedImage src) {
+        if (src.getType() == BufferedImage.TYPE_BYTE_INDEXED) {
+            return src;
+        }
+        int w = src.getWidth();
+        int h = src.getHeight();
+        BufferedImage argb = toIntArgb(src, ScratchBuffers.image(w, h, BufferedImage.TYPE_INT_ARGB));
+        WritableRaster s = argb.getRaster();
+        int[] pixels = PixelKernels.data(s);
+        int offset = PixelKernels.offset(s);
+        int scanline = PixelKernels.scanline(s);
+
+        ColorPalette palette = ColorPalette.of(pixels, offset, scanline, w, h);
+        if (palette == null) {
+            return src;
+        }
+        int n = palette.size();
+        byte[] r = new byte[n];
+        byte[] g = new byte[n];
+        byte[] b = new byte[n];
+        byte[] a = new byte[n];
+        for (int i = 0; i < n; i++) {
+            int c = palette.getColor(i);
+            a[i] = (byte) (c >>> 24);
+            r[i] = (byte) (c >> 16);
+            g[i] = (byte) (c >> 8);
+            b[i] = (byte) c;
+        }
+        BufferedImage bi = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_INDEXED,
+                new IndexColorModel(8, n, r, g, b, a));
+        palette.index(pixels, offset, scanline, w, h,
+                ((DataBufferByte) bi.getRaster().getDataBuffer()).getData(), 0, w);
+        return bi;
+    }
+
+    private static BufferedImage convert(BufferedImage src) {
+        return convert(src, new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB));
+    }
+
+    private static BufferedImage convert(BufferedImage src, BufferedImage bi) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        WritableRaster d = bi.getRaster();
+        if (src.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+            WritableRaster s = src.getRaster();
+            PixelKernels.unpremultiply(PixelKernels.data(s), PixelKernels.offset(s), PixelKernels.scanline(s),
+                    PixelKernels.data(d), PixelKernels.offset(d), PixelKernels.scanline(d), w, h);
+            return bi;
+        }
+        if (src.getType() == BufferedImage.TYPE_BYTE_INDEXED && src.getColorModel().getPixelSize() == 8
+                && src.getRaster().getSampleModel() instanceof PixelInterleavedSampleModel) {
+            // look the indices up in the palette instead of going through the color model
+            int[] lut = new int[256];
+            ((IndexColorModel) src.getColorModel()).getRGBs(lut);
+            WritableRaster s = src.getRaster();
+            PixelInterleavedSampleModel sm = (PixelInterleavedSampleModel) s.getSampleModel();
+            byte[] indices = ((DataBufferByte) s.getDataBuffer()).getData();
+            int sOffset = s.getDataBuffer().getOffset() + sm.getOffset(-s.getSampleModelTranslateX(),
+                    -s.getSampleModelTranslateY());
+            int[] dest = PixelKernels.data(d);
+            int dOffset = PixelKernels.offset(d);
+            int dScanline = PixelKernels.scanline(d);
+            for (int y = 0; y < h; y++) {
+                for (int x = 0, si = sOffset + y * sm.getScanlineStride(), di = dOffset + y * dScanline; x < w; x++) {
+                    dest[di++] = lut[indices[si++] & 0xff];
+                }
+            }
+            return bi;
+        }
+        int[] row = ScratchBuffers.row(0, w);
+        for (int y = 0; y < h; y++) {
+            src.getRGB(0, y, w, 1, row, 0, w);
+            bi.setRGB(0, y, w, 1, row, 0, w);
+        }
+        return bi;
+    }
 }
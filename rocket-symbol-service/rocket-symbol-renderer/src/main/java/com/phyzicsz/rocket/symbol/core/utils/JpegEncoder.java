@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import javax.imageio.ImageWriteParam;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * JPEG encoder for ARGB symbols. JPEG has no alpha, so pixels are composited
+ * onto an opaque background color in one pass into this thread's scratch RGB
+ * image, which is then written by this thread's JPEG writer from
+ * {@link ImageIOPool}.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class JpegEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(JpegEncoder.class);
+
+    /**
+     * Default quality, the JPEG writer's own default.
+     */
+    public static final float DEFAULT_QUALITY = 0.75f;
+
+    /**
+     * Default background, opaque white.
+     */
+    public static final int DEFAULT_BACKGROUND = 0xffffffff;
+
+    private static final String FORMAT = "jpeg";
+
+    private JpegEncoder() {
+    }
+
+    /**
+     * Encode a region of non-premultiplied ARGB pixels, for example the int
+     * array behind a {@code TYPE_INT_ARGB} image.
+     *
+     * @param pixels Pixels of the image.
+     * @param offset Index of the first pixel.
+     * @param scanline Distance between rows in the array.
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param background RGB color translucent pixels are composited onto,
+     * its alpha is ignored.
+     * @param quality Quality from 0 (smallest) to 1 (best).
+     * @param out Stream receiving the JPEG.
+     * @throws IOException if the stream fails.
+     */
+    public static void encode(int[] pixels, int offset, int scanline, int width, int height,
+            int background, float quality, OutputStream out) throws IOException {
+        if (width <= 0 || height <= 0) {
+            logger.error("invalid image size: {}x{}", width, height);
+            throw new IllegalArgumentException("invalid image size: " + width + "x" + height);
+        }
+        if (!(quality >= 0f && quality <= 1f)) {
+            logger.error("invalid jpeg quality: {}", quality);
+            throw new IllegalArgumentException("invalid jpeg quality: " + quality);
+        }
+
+        BufferedImage rgb = ScratchBuffers.image(width, height, BufferedImage.TYPE_INT_RGB);
+        flatten(pixels, offset, scanline, width, height, background,
+                PixelKernels.data(rgb.getRaster()), PixelKernels.offset(rgb.getRaster()),
+                PixelKernels.scanline(rgb.getRaster()));
+
+        ImageWriteParam param = ImageIOPool.writeParam(FORMAT);
+        if (param == null) {
+            logger.error("no jpeg image writer available");
+            throw new IllegalStateException("no jpeg image writer available");
+        }
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(quality);
+        ImageIOPool.write(rgb, FORMAT, param, out);
+    }
+
+    /**
+     * Composite ARGB pixels over an opaque color, rounding to nearest.
+     */
+    static void flatten(int[] src, int srcOffset, int srcScanline, int width, int height, int background,
+            int[] dest, int destOffset, int destScanline) {
+        int br = background >> 16 & 0xff;
+        int bg = background >> 8 & 0xff;
+        int bb = background & 0xff;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0, s = srcOffset + y * srcScanline, d = destOffset + y * destScanline; x < width;
+                    x++, s++, d++) {
+                int argb = src[s];
+                int a = argb >>> 24;
+                if (a == 0xff) {
+                    dest[d] = argb & 0xffffff;
+                } else if (a == 0) {
+                    dest[d] = background & 0xffffff;
+                } else {
+                    int na = 255 - a;
+                    int r = PixelKernels.div255((argb >> 16 & 0xff) * a + br * na);
+                    int g = PixelKernels.div255((argb >> 8 & 0xff) * a + bg * na);
+                    int b = PixelKernels.div255((argb & 0xff) * a + bb * na);
+                    dest[d] = r << 16 | g << 8 | b;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,491 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Integer pixel kernels that work directly on the int array behind an ARGB
+ * raster, avoiding the per pixel color model conversions of
+ * {@code getRGB}/{@code setRGB}. Regions at least
+ * {@link RowTasks#getThreshold()} pixels are split across rows.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class PixelKernels {
+
+    private static final Logger logger = LoggerFactory.getLogger(PixelKernels.class);
+
+    /**
+     * System property naming the tint kernel: {@code vector} (the default
+     * where supported) or {@code scalar}.
+     */
+    public static final String KERNEL_PROPERTY = "rocket.symbol.kernel";
+
+    /**
+     * Subsamples per pixel side used to anti-alias the dot.
+     */
+    public static final int DOT_SUBSAMPLES = 8;
+
+    private static final String VECTOR_KERNEL = "com.phyzicsz.rocket.symbol.core.utils.VectorTintKernel";
+
+    private static final TintKernel KERNEL = loadKernel();
+
+    /**
+     * The tint kernel in use. On JDK 17+ started with
+     * {@code --add-modules jdk.incubator.vector} this is the Vector API
+     * kernel from the multi-release jar, everywhere else the scalar one. The
+     * choice and its reason are logged once at INFO.
+     *
+     * @return the active kernel.
+     */
+    public static TintKernel kernel() {
+        return KERNEL;
+    }
+
+    /**
+     * Multiply every pixel of an ARGB int array by a color, channel by
+     * channel. White pixels become the color, black pixels are unaffected.
+     *
+     * @param pixels Non-premultiplied ARGB pixels.
+     * @param offset Index of the first pixel.
+     * @param scanline Distance between rows in the array.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param argb Color to multiply by.
+     */
+    public static void multiply(int[] pixels, int offset, int scanline, int width, int height, int argb) {
+        multiply(pixels, offset, scanline, pixels, offset, scanline, width, height, argb);
+    }
+
+    /**
+     * Multiply ARGB source pixels by a color and write them to a destination,
+     * replacing what was there. Source and destination may be the same array.
+     *
+     * @param src Non-premultiplied ARGB source pixels.
+     * @param srcOffset Index of the first source pixel.
+     * @param srcScanline Distance between source rows.
+     * @param dest Destination pixels.
+     * @param destOffset Index of the first destination pixel.
+     * @param destScanline Distance between destination rows.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param argb Color to multiply by.
+     */
+    public static void multiply(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        if (!RowTasks.isParallel(width, height)) {
+            KERNEL.multiply(src, srcOffset, srcScanline, dest, destOffset, destScanline, width, height, argb);
+            return;
+        }
+        RowTasks.forRows(width, height, (from, to) -> KERNEL.multiply(src, srcOffset + from * srcScanline, srcScanline,
+                dest, destOffset + from * destScanline, destScanline, width, to - from, argb));
+    }
+
+    /**
+     * Multiply every pixel of an image by a color. Images backed by an ARGB
+     * int raster are processed in place, other images row by row through
+     * {@code getRGB}/{@code setRGB}.
+     *
+     * @param image Image to operate on.
+     * @param argb Color to multiply by.
+     */
+    public static void multiply(BufferedImage image, int argb) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB) {
+            WritableRaster raster = image.getRaster();
+            multiply(data(raster), offset(raster), scanline(raster), w, h, argb);
+            return;
+        }
+
+        int[] row = ScratchBuffers.row(0, w);
+        for (int y = 0; y < h; y++) {
+            image.getRGB(0, y, w, 1, row, 0, w);
+            multiply(row, 0, w, w, 1, argb);
+            image.setRGB(0, y, w, 1, row, 0, w);
+        }
+    }
+
+    /**
+     * Multiply the pixels of one image by a color into another image, replacing
+     * its contents. Only the overlapping region is written. A
+     * {@code TYPE_INT_ARGB_PRE} destination receives premultiplied pixels.
+     *
+     * @param src Image to tint.
+     * @param argb Color to multiply by.
+     * @param dest Image to receive the tinted pixels.
+     */
+    public static void multiply(BufferedImage src, int argb, BufferedImage dest) {
+        int w = Math.min(src.getWidth(), dest.getWidth());
+        int h = Math.min(src.getHeight(), dest.getHeight());
+
+        if (src.getType() == BufferedImage.TYPE_INT_ARGB && dest.getType() == BufferedImage.TYPE_INT_ARGB) {
+            WritableRaster s = src.getRaster();
+            WritableRaster d = dest.getRaster();
+            multiply(data(s), offset(s), scanline(s), data(d), offset(d), scanline(d), w, h, argb);
+            return;
+        }
+        if (src.getType() == BufferedImage.TYPE_INT_ARGB && dest.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+            WritableRaster s = src.getRaster();
+            WritableRaster d = dest.getRaster();
+            multiplyPre(data(s), offset(s), scanline(s), data(d), offset(d), scanline(d), w, h, argb);
+            return;
+        }
+
+        int[] row = ScratchBuffers.row(0, w);
+        for (int y = 0; y < h; y++) {
+            src.getRGB(0, y, w, 1, row, 0, w);
+            multiply(row, 0, w, w, 1, argb);
+            dest.setRGB(0, y, w, 1, row, 0, w);
+        }
+    }
+
+    /**
+     * Tint source pixels by a color and blend them source-over into a
+     * destination in one pass. This is {@link #multiply} followed by a
+     * Java2D {@code SrcOver} draw, without the intermediate image. The blend
+     * uses the same 8 bit arithmetic as Java2D so the output is identical.
+     *
+     * @param src Non-premultiplied ARGB source pixels.
+     * @param srcOffset Index of the first source pixel.
+     * @param srcScanline Distance between source rows.
+     * @param dest Non-premultiplied ARGB destination pixels.
+     * @param destOffset Index of the first destination pixel.
+     * @param destScanline Distance between destination rows.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param argb Color to multiply the source by.
+     */
+    public static void multiplyOver(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        if (!RowTasks.isParallel(width, height)) {
+            KERNEL.multiplyOver(src, srcOffset, srcScanline, dest, destOffset, destScanline, width, height, argb);
+            return;
+        }
+        RowTasks.forRows(width, height, (from, to) -> KERNEL.multiplyOver(src, srcOffset + from * srcScanline, srcScanline,
+                dest, destOffset + from * destScanline, destScanline, width, to - from, argb));
+    }
+
+    /**
+     * Multiply non-premultiplied ARGB source pixels by a color and write them
+     * premultiplied to a destination.
+     *
+     * @param src Non-premultiplied ARGB source pixels.
+     * @param srcOffset Index of the first source pixel.
+     * @param srcScanline Distance between source rows.
+     * @param dest Premultiplied ARGB destination pixels.
+     * @param destOffset Index of the first destination pixel.
+     * @param destScanline Distance between destination rows.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param argb Color to multiply by.
+     */
+    public static void multiplyPre(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        if (!RowTasks.isParallel(width, height)) {
+            KERNEL.multiplyPre(src, srcOffset, srcScanline, dest, destOffset, destScanline, width, height, argb);
+            return;
+        }
+        RowTasks.forRows(width, height, (from, to) -> KERNEL.multiplyPre(src, srcOffset + from * srcScanline, srcScanline,
+                dest, destOffset + from * destScanline, destScanline, width, to - from, argb));
+    }
+
+    /**
+     * Tint non-premultiplied source pixels by a color and blend them
+     * source-over into premultiplied destination pixels, matching a Java2D
+     * draw into a {@code TYPE_INT_ARGB_PRE} image.
+     *
+     * @param src Non-premultiplied ARGB source pixels.
+     * @param srcOffset Index of the first source pixel.
+     * @param srcScanline Distance between source rows.
+     * @param dest Premultiplied ARGB destination pixels.
+     * @param destOffset Index of the first destination pixel.
+     * @param destScanline Distance between destination rows.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param argb Color to multiply the source by.
+     */
+    public static void multiplyOverPre(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        if (!RowTasks.isParallel(width, height)) {
+            KERNEL.multiplyOverPre(src, srcOffset, srcScanline, dest, destOffset, destScanline, width, height, argb);
+            return;
+        }
+        RowTasks.forRows(width, height, (from, to) -> KERNEL.multiplyOverPre(src, srcOffset + from * srcScanline, srcScanline,
+                dest, destOffset + from * destScanline, destScanline, width, to - from, argb));
+    }
+
+    /**
+     * Tint an image by a color and blend it source-over into another image at
+     * (0, 0). Both images are clipped to the smaller of the two. A
+     * {@code TYPE_INT_ARGB_PRE} destination is blended premultiplied, which
+     * is cheaper than blending non-premultiplied pixels.
+     *
+     * @param src Image to tint and draw.
+     * @param argb Color to multiply the source by.
+     * @param dest Image to draw into.
+     */
+    public static void multiplyOver(BufferedImage src, int argb, BufferedImage dest) {
+        int w = Math.min(src.getWidth(), dest.getWidth());
+        int h = Math.min(src.getHeight(), dest.getHeight());
+
+        if (src.getType() == BufferedImage.TYPE_INT_ARGB && dest.getType() == BufferedImage.TYPE_INT_ARGB) {
+            WritableRaster s = src.getRaster();
+            WritableRaster d = dest.getRaster();
+            multiplyOver(data(s), offset(s), scanline(s), data(d), offset(d), scanline(d), w, h, argb);
+            return;
+        }
+        if (src.getType() == BufferedImage.TYPE_INT_ARGB && dest.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+            WritableRaster s = src.getRaster();
+            WritableRaster d = dest.getRaster();
+            multiplyOverPre(data(s), offset(s), scanline(s), data(d), offset(d), scanline(d), w, h, argb);
+            return;
+        }
+
+        int[] srcRow = ScratchBuffers.row(0, w);
+        int[] destRow = ScratchBuffers.row(1, w);
+        for (int y = 0; y < h; y++) {
+            src.getRGB(0, y, w, 1, srcRow, 0, w);
+            dest.getRGB(0, y, w, 1, destRow, 0, w);
+            multiplyOver(srcRow, 0, w, destRow, 0, w, w, 1, argb);
+            dest.setRGB(0, y, w, 1, destRow, 0, w);
+        }
+    }
+
+    /**
+     * Convert premultiplied ARGB pixels to non-premultiplied, rounding the
+     * same way as {@code getRGB} on a {@code TYPE_INT_ARGB_PRE} image.
+     *
+     * @param src Premultiplied ARGB pixels.
+     * @param srcOffset Index of the first source pixel.
+     * @param srcScanline Distance between source rows.
+     * @param dest Non-premultiplied destination pixels.
+     * @param destOffset Index of the first destination pixel.
+     * @param destScanline Distance between destination rows.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     */
+    public static void unpremultiply(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height) {
+        RowTasks.forRows(width, height, (from, to) -> unpremultiplyRows(src, srcOffset, srcScanline,
+                dest, destOffset, destScanline, width, from, to));
+    }
+
+    private static void unpremultiplyRows(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int from, int to) {
+        for (int y = from; y < to; y++) {
+            int si = srcOffset + y * srcScanline;
+            int di = destOffset + y * destScanline;
+            for (int x = 0; x < width; x++, si++, di++) {
+                int s = src[si];
+                int a = s >>> 24;
+                if (a == 0xff) {
+                    dest[di] = s;
+                } else if (a == 0) {
+                    dest[di] = 0;
+                } else {
+                    int half = a >>> 1;
+                    dest[di] = a << 24
+                            | ((((s >>> 16) & 0xff) * 0xff + half) / a) << 16
+                            | ((((s >>> 8) & 0xff) * 0xff + half) / a) << 8
+                            | (((s & 0xff) * 0xff + half) / a);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draw an anti-aliased filled circle with an outline centered on its edge
+     * source-over into non-premultiplied ARGB pixels. Coverage is sampled on
+     * a {@value #DOT_SUBSAMPLES} by {@value #DOT_SUBSAMPLES} grid per pixel.
+     * This is the dot of symbols without frame and icon, shared by the
+     * renderers so their dots are identical.
+     *
+     * @param pixels Non-premultiplied ARGB pixels.
+     * @param offset Index of the first pixel.
+     * @param scanline Distance between rows in the array.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param cx Horizontal center.
+     * @param cy Vertical center.
+     * @param radius Circle radius.
+     * @param fill ARGB fill color.
+     * @param lineWidth Width of the outline.
+     * @param stroke ARGB outline color.
+     */
+    public static void drawDot(int[] pixels, int offset, int scanline, int width, int height,
+            double cx, double cy, double radius, int fill, double lineWidth, int stroke) {
+        double inner = Math.max(0, radius - lineWidth / 2);
+        double outer = radius + lineWidth / 2;
+        double r2 = radius * radius;
+        double inner2 = inner * inner;
+        double outer2 = outer * outer;
+        int x0 = Math.max(0, (int) Math.floor(cx - outer));
+        int y0 = Math.max(0, (int) Math.floor(cy - outer));
+        int x1 = Math.min(width, (int) Math.ceil(cx + outer));
+        int y1 = Math.min(height, (int) Math.ceil(cy + outer));
+        int samples = DOT_SUBSAMPLES * DOT_SUBSAMPLES;
+
+        for (int y = y0; y < y1; y++) {
+            for (int x = x0; x < x1; x++) {
+                int inFill = 0;
+                int inStroke = 0;
+                for (int sy = 0; sy < DOT_SUBSAMPLES; sy++) {
+                    double dy = y + (sy + 0.5) / DOT_SUBSAMPLES - cy;
+                    for (int sx = 0; sx < DOT_SUBSAMPLES; sx++) {
+                        double dx = x + (sx + 0.5) / DOT_SUBSAMPLES - cx;
+                        double d2 = dx * dx + dy * dy;
+                        if (d2 <= r2) {
+                            inFill++;
+                        }
+                        if (d2 >= inner2 && d2 <= outer2) {
+                            inStroke++;
+                        }
+                    }
+                }
+                int i = offset + y * scanline + x;
+                if (inFill > 0) {
+                    pixels[i] = over(coverage(fill, inFill, samples), pixels[i]);
+                }
+                if (inStroke > 0) {
+                    pixels[i] = over(coverage(stroke, inStroke, samples), pixels[i]);
+                }
+            }
+        }
+    }
+
+    private static int coverage(int argb, int covered, int samples) {
+        int a = ((argb >>> 24) * covered + samples / 2) / samples;
+        return a << 24 | (argb & 0xffffff);
+    }
+
+    /**
+     * Source-over of one non-premultiplied pixel onto another.
+     */
+    private static int over(int src, int dest) {
+        int sa = src >>> 24;
+        int da = dest >>> 24;
+        if (sa == 0xff || da == 0) {
+            return src;
+        }
+        int dfa = (da * (0xff - sa) + 127) / 0xff;
+        int a = sa + dfa;
+        int r = (((src >> 16) & 0xff) * sa + ((dest >> 16) & 0xff) * dfa + a / 2) / a;
+        int g = (((src >> 8) & 0xff) * sa + ((dest >> 8) & 0xff) * dfa + a / 2) / a;
+        int b = ((src & 0xff) * sa + (dest & 0xff) * dfa + a / 2) / a;
+        return a << 24 | r << 16 | g << 8 | b;
+    }
+
+    /**
+     * The int array behind an ARGB int raster.
+     *
+     * @param raster Raster backed by a {@link DataBufferInt}.
+     * @return the pixel array.
+     */
+    public static int[] data(WritableRaster raster) {
+        return ((DataBufferInt) raster.getDataBuffer()).getData();
+    }
+
+    /**
+     * Index of pixel (0, 0) of a raster in its int array. Sub-images share
+     * the array of their parent and start at an offset.
+     *
+     * @param raster Raster backed by a {@link DataBufferInt}.
+     * @return the index of the first pixel.
+     */
+    public static int offset(WritableRaster raster) {
+        return raster.getDataBuffer().getOffset()
+                - raster.getSampleModelTranslateY() * scanline(raster)
+                - raster.getSampleModelTranslateX();
+    }
+
+    /**
+     * Distance between rows of a raster in its int array.
+     *
+     * @param raster Raster backed by a {@link DataBufferInt}.
+     * @return the scanline stride.
+     */
+    public static int scanline(WritableRaster raster) {
+        return ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+    }
+
+    /**
+     * Round(a * b / 255) for a and b in [0, 255] without a division.
+     */
+    static int mul255(int a, int b) {
+        return div255(a * b);
+    }
+
+    /**
+     * Round(v / 255) for v in [0, 255 * 255] without a division.
+     */
+    static int div255(int v) {
+        int t = v + 128;
+        return (t + (t >>> 8)) >>> 8;
+    }
+
+    /**
+     * Java2D's {@code MUL8}: a * b / 255 in 8.24 fixed point. The product
+     * overflows a signed int but not 32 bits, hence the unsigned shift.
+     */
+    static int mul8(int a, int b) {
+        return (a * b * 0x010101 + 0x800000) >>> 24;
+    }
+
+    /**
+     * Java2D's {@code DIV8}: v * 255 / a in 8.24 fixed point, 255 if v &gt;= a.
+     */
+    static int div8(int v, int a) {
+        return v >= a ? 0xff : (int) ((v * DIV8_INC[a] + 0x800000L) >>> 24);
+    }
+
+    private static TintKernel loadKernel() {
+        if ("scalar".equals(System.getProperty(KERNEL_PROPERTY))) {
+            logger.info("using scalar tint kernel: -D{}=scalar is set", KERNEL_PROPERTY);
+            return new ScalarTintKernel();
+        }
+        try {
+            TintKernel kernel = Class.forName(VECTOR_KERNEL).asSubclass(TintKernel.class).getDeclaredConstructor().newInstance();
+            logger.info("using vector tint kernel");
+            return kernel;
+        } catch (ClassNotFoundException ex) {
+            // the vector kernel is only in the Java 17 part of the multi-release jar
+            logger.info("using scalar tint kernel: the vector kernel needs Java 17 or later, running on {}",
+                    System.getProperty("java.specification.version"));
+        } catch (NoClassDefFoundError ex) {
+            logger.info("using scalar tint kernel: start the JVM with --add-modules jdk.incubator.vector"
+                    + " to use the vector kernel ({})", ex.toString());
+        } catch (ReflectiveOperationException | LinkageError ex) {
+            logger.info("using scalar tint kernel: the vector kernel failed to load ({})", ex.toString());
+        }
+        return new ScalarTintKernel();
+    }
+
+    private static final long[] DIV8_INC = new long[256];
+
+    static {
+        for (int a = 1; a < 256; a++) {
+            DIV8_INC[a] = ((0xffL << 24) + a / 2) / a;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Precomputed resampling of one axis from a source length to a target length:
+ * the source index under each target pixel for nearest neighbour, and the
+ * source pixels and 16.16 fixed point coverage weights for area averaging.
+ * Weights of each target pixel sum to exactly {@link #ONE}. Weights are
+ * cached per (source length, target length) pair, since the same few symbol
+ * sizes are requested over and over.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class ResampleWeights {
+
+    public static final int ONE = 1 << 16;
+
+    public static final long DEFAULT_CACHE_SIZE = 256;
+
+    private static final Cache<Long, ResampleWeights> cache = CacheBuilder.newBuilder()
+            .maximumSize(DEFAULT_CACHE_SIZE)
+            .build();
+
+    private final int sourceLength;
+    private final int targetLength;
+
+    /**
+     * Source index under the center of each target pixel.
+     */
+    final int[] nearest;
+
+    /**
+     * First source index covered by each target pixel.
+     */
+    final int[] first;
+
+    /**
+     * Index into {@link #weights} of the first weight of each target pixel,
+     * with one extra entry marking the end.
+     */
+    final int[] start;
+
+    final int[] weights;
+
+    private ResampleWeights(int sourceLength, int targetLength) {
+        this.sourceLength = sourceLength;
+        this.targetLength = targetLength;
+        this.nearest = new int[targetLength];
+        this.first = new int[targetLength];
+        this.start = new int[targetLength + 1];
+
+        // work in units of 1 / targetLength source pixels so every edge is an integer
+        long s = sourceLength;
+        long d = targetLength;
+        int count = 0;
+        for (int i = 0; i < targetLength; i++) {
+            count += (int) (((i + 1) * s - 1) / d - (i * s) / d + 1);
+        }
+        this.weights = new int[count];
+
+        int w = 0;
+        for (int i = 0; i < targetLength; i++) {
+            nearest[i] = (int) (((2 * i + 1) * s) / (2 * d));
+
+            long lo = i * s;
+            long hi = (i + 1) * s;
+            int j0 = (int) (lo / d);
+            int j1 = (int) ((hi - 1) / d);
+            first[i] = j0;
+            start[i] = w;
+
+            int sum = 0;
+            for (int j = j0; j <= j1; j++) {
+                long overlap = Math.min(hi, (j + 1) * d) - Math.max(lo, j * d);
+                int weight = j == j1 ? ONE - sum : (int) ((overlap * ONE + s / 2) / s);
+                weights[w++] = weight;
+                sum += weight;
+            }
+        }
+        start[targetLength] = w;
+    }
+
+    /**
+     * Weights for resampling an axis, computed once per pair of lengths.
+     *
+     * @param sourceLength Source width or height, at least 1.
+     * @param targetLength Target width or height, at least 1.
+     * @return the weights.
+     */
+    public static ResampleWeights of(int sourceLength, int targetLength) {
+        if (sourceLength <= 0 || targetLength <= 0) {
+            throw new IllegalArgumentException("lengths must be positive: " + sourceLength + " -> " + targetLength);
+        }
+        long key = (long) sourceLength << 32 | targetLength;
+        return cache.asMap().computeIfAbsent(key, k -> new ResampleWeights(sourceLength, targetLength));
+    }
+
+    public int getSourceLength() {
+        return sourceLength;
+    }
+
+    public int getTargetLength() {
+        return targetLength;
+    }
+}
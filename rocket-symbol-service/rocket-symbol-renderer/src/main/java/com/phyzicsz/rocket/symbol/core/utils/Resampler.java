@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+/**
+ * Resampling kernels on plain ARGB int arrays, shared by {@link ImageUtils}
+ * and renderers that do not use AWT. Arrays are addressed with an offset and
+ * a scanline like {@link PixelKernels}. Pixels are non-premultiplied unless a
+ * kernel is told otherwise. Large targets are resampled in parallel bands of
+ * rows, see {@link RowTasks}.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class Resampler {
+
+    /**
+     * One half in 32.32 fixed point.
+     */
+    private static final long HALF = 1L << 31;
+
+    private Resampler() {
+    }
+
+    /**
+     * Width of a {@code size} resize of an image, keeping the aspect ratio the
+     * same way {@link ImageUtils#resize(java.awt.image.BufferedImage, int)}
+     * does.
+     *
+     * @param width Source width.
+     * @param height Source height.
+     * @param size Size of the longer side.
+     * @return target width.
+     */
+    public static int targetWidth(int width, int height, int size) {
+        float ratio = ((float) height / (float) width);
+        return ratio <= 1 ? size : Math.round((float) size / ratio);
+    }
+
+    /**
+     * Height of a {@code size} resize of an image.
+     *
+     * @param width Source width.
+     * @param height Source height.
+     * @param size Size of the longer side.
+     * @return target height.
+     */
+    public static int targetHeight(int width, int height, int size) {
+        float ratio = ((float) height / (float) width);
+        return ratio <= 1 ? (int) Math.ceil((float) size * ratio) : size;
+    }
+
+    /**
+     * Nearest neighbour resampling, each target pixel copies the source pixel
+     * under its center. Works on any pixel format.
+     */
+    public static void nearest(int[] src, int srcOffset, int srcScanline, int srcWidth, int srcHeight,
+            int[] dest, int destOffset, int destScanline, int width, int height) {
+        ResampleWeights wx = ResampleWeights.of(srcWidth, width);
+        ResampleWeights wy = ResampleWeights.of(srcHeight, height);
+        RowTasks.forRows(width, height, (from, to) -> {
+            for (int y = from; y < to; y++) {
+                int row = srcOffset + wy.nearest[y] * srcScanline;
+                for (int x = 0, di = destOffset + y * destScanline; x < width; x++) {
+                    dest[di++] = src[row + wx.nearest[x]];
+                }
+            }
+        });
+    }
+
+    /**
+     * Area averaging, each target pixel is the alpha weighted average of the
+     * source area it covers, so transparent pixels contribute no color.
+     *
+     * @param premultiplied true if source and target pixels are premultiplied.
+     * @param opaque true to ignore the alpha byte and write opaque pixels.
+     */
+    public static void areaAverage(int[] src, int srcOffset, int srcScanline, int srcWidth, int srcHeight,
+            int[] dest, int destOffset, int destScanline, int width, int height,
+            boolean premultiplied, boolean opaque) {
+        ResampleWeights wx = ResampleWeights.of(srcWidth, width);
+        ResampleWeights wy = ResampleWeights.of(srcHeight, height);
+
+        // horizontal pass: alpha and alpha weighted channels of every source row,
+        // so transparent pixels contribute no color
+        long[] rows = new long[srcHeight * width * 4];
+        RowTasks.forRows(srcWidth, srcHeight, (from, to) -> {
+            for (int y = from, ri = from * width * 4; y < to; y++) {
+                int row = srcOffset + y * srcScanline;
+                for (int x = 0; x < width; x++) {
+                    long sa = 0, sr = 0, sg = 0, sb = 0;
+                    for (int k = wx.start[x], j = row + wx.first[x]; k < wx.start[x + 1]; k++, j++) {
+                        int p = src[j];
+                        long w = wx.weights[k];
+                        int a = opaque ? 0xff : p >>> 24;
+                        long wc = premultiplied ? w * 0xff : w * a;
+                        sa += w * a;
+                        sr += wc * ((p >> 16) & 0xff);
+                        sg += wc * ((p >> 8) & 0xff);
+                        sb += wc * (p & 0xff);
+                    }
+                    rows[ri++] = sa;
+                    rows[ri++] = sr;
+                    rows[ri++] = sg;
+                    rows[ri++] = sb;
+                }
+            }
+        });
+
+        // vertical pass, sums are now scaled by ONE * ONE
+        RowTasks.forRows(width, height, (from, to) -> averageRows(rows, wy, dest, destOffset, destScanline,
+                width, from, to, premultiplied));
+    }
+
+    private static void averageRows(long[] rows, ResampleWeights wy, int[] dest, int destOffset, int destScanline,
+            int width, int from, int to, boolean premultiplied) {
+        for (int y = from; y < to; y++) {
+            for (int x = 0, di = destOffset + y * destScanline; x < width; x++) {
+                long sa = 0, sr = 0, sg = 0, sb = 0;
+                for (int k = wy.start[y], j = wy.first[y]; k < wy.start[y + 1]; k++, j++) {
+                    long w = wy.weights[k];
+                    int ri = (j * width + x) * 4;
+                    sa += w * rows[ri];
+                    sr += w * rows[ri + 1];
+                    sg += w * rows[ri + 2];
+                    sb += w * rows[ri + 3];
+                }
+                int a = (int) ((sa + (1L << 31)) >>> 32);
+                int r, g, b;
+                if (sa == 0) {
+                    r = g = b = 0;
+                } else if (premultiplied) {
+                    long d = 0xffL << 32;
+                    r = (int) ((sr + d / 2) / d);
+                    g = (int) ((sg + d / 2) / d);
+                    b = (int) ((sb + d / 2) / d);
+                } else {
+                    r = (int) ((sr + sa / 2) / sa);
+                    g = (int) ((sg + sa / 2) / sa);
+                    b = (int) ((sb + sa / 2) / sa);
+                }
+                dest[di++] = a << 24 | r << 16 | g << 8 | b;
+            }
+        }
+    }
+
+    /**
+     * Bilinear resampling of non-premultiplied pixels, see
+     * {@link #bilinear(int[], int, int, int, int, int[], int, int, int, int, boolean)}.
+     */
+    public static void bilinear(int[] src, int srcOffset, int srcScanline, int srcWidth, int srcHeight,
+            int[] dest, int destOffset, int destScanline, int width, int height) {
+        bilinear(src, srcOffset, srcScanline, srcWidth, srcHeight, dest, destOffset, destScanline,
+                width, height, false);
+    }
+
+    /**
+     * Bilinear resampling with the arithmetic of Java2D's bilinear image
+     * scaling, so the result is identical to drawing the source scaled into
+     * an empty image of the same type: target pixel centers are mapped into
+     * the source in 32.32 fixed point from the inverted scale, the four
+     * nearest source pixels, clamped to the edges, are blended in
+     * premultiplied space with 8 bit fractions and rounded once, and
+     * non-premultiplied results are divided back with Java2D's tables.
+     *
+     * @param premultiplied true if source and target pixels are premultiplied.
+     */
+    public static void bilinear(int[] src, int srcOffset, int srcScanline, int srcWidth, int srcHeight,
+            int[] dest, int destOffset, int destScanline, int width, int height, boolean premultiplied) {
+        double scaleX = 1.0 / ((double) width / srcWidth);
+        double scaleY = 1.0 / ((double) height / srcHeight);
+        long dxlong = fixed(scaleX);
+        long dylong = fixed(scaleY);
+        long ystart = fixed(0.5 * scaleY) - HALF;
+        int[] x0 = new int[width];
+        int[] x1 = new int[width];
+        int[] fx = new int[width];
+        long xlong = fixed(0.5 * scaleX) - HALF;
+        for (int x = 0; x < width; x++, xlong += dxlong) {
+            x0[x] = clamp((int) (xlong >> 32), srcWidth);
+            x1[x] = clamp((int) (xlong >> 32) + 1, srcWidth);
+            fx[x] = (int) ((xlong >>> 24) & 0xff);
+        }
+        RowTasks.forRows(width, height, (from, to) -> {
+            for (int y = from; y < to; y++) {
+                long ylong = ystart + y * dylong;
+                int r0 = srcOffset + clamp((int) (ylong >> 32), srcHeight) * srcScanline;
+                int r1 = srcOffset + clamp((int) (ylong >> 32) + 1, srcHeight) * srcScanline;
+                int fy = (int) ((ylong >>> 24) & 0xff);
+                for (int x = 0, di = destOffset + y * destScanline; x < width; x++) {
+                    int p00 = src[r0 + x0[x]];
+                    int p01 = src[r0 + x1[x]];
+                    int p10 = src[r1 + x0[x]];
+                    int p11 = src[r1 + x1[x]];
+                    if (!premultiplied) {
+                        p00 = premultiply(p00);
+                        p01 = premultiply(p01);
+                        p10 = premultiply(p10);
+                        p11 = premultiply(p11);
+                    }
+                    int f = fx[x];
+                    int p = lerp(p00, p01, p10, p11, f, fy, 24) << 24 | lerp(p00, p01, p10, p11, f, fy, 16) << 16
+                            | lerp(p00, p01, p10, p11, f, fy, 8) << 8 | lerp(p00, p01, p10, p11, f, fy, 0);
+                    dest[di++] = premultiplied ? p : unpremultiply(p);
+                }
+            }
+        });
+    }
+
+    /**
+     * A double in 32.32 fixed point, truncated like Java2D's
+     * {@code DblToLong}.
+     */
+    private static long fixed(double d) {
+        return (long) (d * (1L << 32));
+    }
+
+    private static int clamp(int i, int length) {
+        return i < 0 ? 0 : i >= length ? length - 1 : i;
+    }
+
+    /**
+     * One channel of the bilinear blend of four pixels, interpolated along
+     * x then y in 16.16 and rounded once like Java2D's {@code BL_ACCUM}.
+     */
+    private static int lerp(int p00, int p01, int p10, int p11, int fx, int fy, int shift) {
+        int c00 = (p00 >>> shift) & 0xff;
+        int c01 = (p01 >>> shift) & 0xff;
+        int c10 = (p10 >>> shift) & 0xff;
+        int c11 = (p11 >>> shift) & 0xff;
+        int top = (c00 << 8) + (c01 - c00) * fx;
+        int bottom = (c10 << 8) + (c11 - c10) * fx;
+        return ((top << 8) + (bottom - top) * fy + (1 << 15)) >> 16;
+    }
+
+    private static int premultiply(int p) {
+        int a = p >>> 24;
+        if (a == 0xff) {
+            return p;
+        }
+        if (a == 0) {
+            return 0;
+        }
+        return a << 24 | PixelKernels.mul8(a, (p >> 16) & 0xff) << 16
+                | PixelKernels.mul8(a, (p >> 8) & 0xff) << 8 | PixelKernels.mul8(a, p & 0xff);
+    }
+
+    private static int unpremultiply(int p) {
+        int a = p >>> 24;
+        if (a == 0xff || a == 0) {
+            return a == 0 ? 0 : p;
+        }
+        return a << 24 | PixelKernels.div8((p >> 16) & 0xff, a) << 16
+                | PixelKernels.div8((p >> 8) & 0xff, a) << 8 | PixelKernels.div8(p & 0xff, a);
+    }
+}
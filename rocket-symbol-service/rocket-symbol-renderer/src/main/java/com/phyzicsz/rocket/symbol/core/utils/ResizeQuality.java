@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+/**
+ * Resampling used by {@link ImageUtils#resize(java.awt.image.BufferedImage, int, ResizeQuality)},
+ * from cheapest to smoothest.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public enum ResizeQuality {
+    /**
+     * Each target pixel copies the source pixel under its center. No
+     * blending, aliased for reductions, exact for integer enlargements.
+     */
+    NEAREST,
+    /**
+     * A single Java2D bilinear draw. Fast, but reductions by more than half
+     * skip source pixels and alias.
+     */
+    BILINEAR,
+    /**
+     * Bilinear halving steps down to within a factor of two of the target,
+     * then a final bilinear step. Close to area averaging for large
+     * reductions at a fraction of the cost.
+     */
+    PROGRESSIVE,
+    /**
+     * Each target pixel is the alpha weighted average of the source area it
+     * covers. The smoothest reduction and the most expensive.
+     */
+    AREA_AVERAGE
+}
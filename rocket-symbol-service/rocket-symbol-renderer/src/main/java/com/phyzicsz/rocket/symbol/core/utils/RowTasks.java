@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits pixel kernels across rows on the common fork/join pool. Regions
+ * smaller than the parallel threshold run on the calling thread, so the
+ * default size symbols never pay for scheduling; only the very large images
+ * of print and export renders are split.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class RowTasks {
+
+    private static final Logger logger = LoggerFactory.getLogger(RowTasks.class);
+
+    /**
+     * System property setting the parallel threshold in pixels.
+     */
+    public static final String THRESHOLD_PROPERTY = "rocket.symbol.parallelThreshold";
+
+    /**
+     * Default parallel threshold, a 512 x 512 image.
+     */
+    public static final int DEFAULT_THRESHOLD = 512 * 512;
+
+    /**
+     * Pixels below which a band is not split further.
+     */
+    static final int MIN_BAND_PIXELS = 64 * 1024;
+
+    private static volatile int threshold = loadThreshold();
+
+    private RowTasks() {
+    }
+
+    /**
+     * A kernel applied to a band of rows.
+     */
+    @FunctionalInterface
+    public interface RowBand {
+
+        /**
+         * Process rows {@code from} (inclusive) to {@code to} (exclusive).
+         *
+         * @param from First row.
+         * @param to Row after the last.
+         */
+        void apply(int from, int to);
+    }
+
+    /**
+     * The number of pixels from which kernels are split across threads.
+     *
+     * @return the threshold in pixels.
+     */
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Set the number of pixels from which kernels are split across threads,
+     * {@link Integer#MAX_VALUE} to never split.
+     *
+     * @param pixels Threshold in pixels.
+     */
+    public static void setThreshold(int pixels) {
+        if (pixels < 1) {
+            logger.error("parallel threshold must be positive: {}", pixels);
+            throw new IllegalArgumentException("parallel threshold must be positive: " + pixels);
+        }
+        threshold = pixels;
+    }
+
+    /**
+     * Whether a region is large enough to be split.
+     *
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @return true if {@link #forRows} would split it.
+     */
+    public static boolean isParallel(int width, int height) {
+        return height > 1 && (long) width * height >= threshold
+                && ForkJoinPool.getCommonPoolParallelism() > 1;
+    }
+
+    /**
+     * Apply a kernel to all rows of a region, in parallel bands if the region
+     * is at least the threshold. Bands never overlap, so kernels writing only
+     * their own rows need no synchronization. Returns when all rows are done.
+     *
+     * @param width Width of the region, to size the bands.
+     * @param height Number of rows.
+     * @param band Kernel to apply.
+     */
+    public static void forRows(int width, int height, RowBand band) {
+        if (!isParallel(width, height)) {
+            band.apply(0, height);
+            return;
+        }
+        int parallelism = ForkJoinPool.getCommonPoolParallelism();
+        long pixels = (long) width * height;
+        long bandPixels = Math.max(MIN_BAND_PIXELS, pixels / (parallelism * 4L));
+        int rows = (int) Math.max(1, Math.min(height, bandPixels / Math.max(1, width)));
+        ForkJoinPool.commonPool().invoke(new Band(band, 0, height, rows));
+    }
+
+    private static int loadThreshold() {
+        String value = System.getProperty(THRESHOLD_PROPERTY);
+        if (value != null) {
+            try {
+                int pixels = Integer.parseInt(value.trim());
+                if (pixels > 0) {
+                    return pixels;
+                }
+            } catch (NumberFormatException ex) {
+                // fall through to the default
+            }
+            logger.warn("ignoring invalid {}: {}", THRESHOLD_PROPERTY, value);
+        }
+        return DEFAULT_THRESHOLD;
+    }
+
+    private static final class Band extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient RowBand band;
+        private final int from;
+        private final int to;
+        private final int rows;
+
+        Band(RowBand band, int from, int to, int rows) {
+            this.band = band;
+            this.from = from;
+            this.to = to;
+            this.rows = rows;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= rows) {
+                band.apply(from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Band(band, from, mid, rows), new Band(band, mid, to, rows));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+/**
+ * Tint kernel that processes one pixel at a time, multiplying channels through
+ * the color's {@link TintTable}. Used on every JDK and as the tail loop of the
+ * vectorized kernel.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ScalarTintKernel implements TintKernel {
+
+    @Override
+    public void multiply(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        TintTable table = TintTable.of(argb);
+        int[] ta = table.alpha;
+        int[] tr = table.red;
+        int[] tg = table.green;
+        int[] tb = table.blue;
+
+        for (int y = 0; y < height; y++) {
+            int si = srcOffset + y * srcScanline;
+            int di = destOffset + y * destScanline;
+            for (int x = 0; x < width; x++, si++, di++) {
+                int s = src[si];
+                dest[di] = ta[s >>> 24] << 24
+                        | tr[(s >>> 16) & 0xff] << 16
+                        | tg[(s >>> 8) & 0xff] << 8
+                        | tb[s & 0xff];
+            }
+        }
+    }
+
+    @Override
+    public void multiplyOver(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        TintTable table = TintTable.of(argb);
+        int[] ta = table.alpha;
+        int[] tr = table.red;
+        int[] tg = table.green;
+        int[] tb = table.blue;
+
+        for (int y = 0; y < height; y++) {
+            int si = srcOffset + y * srcScanline;
+            int di = destOffset + y * destScanline;
+            for (int x = 0; x < width; x++, si++, di++) {
+                int s = src[si];
+                int sa = ta[s >>> 24];
+                if (sa == 0) {
+                    continue;
+                }
+                int sr = tr[(s >>> 16) & 0xff];
+                int sg = tg[(s >>> 8) & 0xff];
+                int sb = tb[s & 0xff];
+                if (sa == 0xff) {
+                    dest[di] = 0xff000000 | sr << 16 | sg << 8 | sb;
+                    continue;
+                }
+
+                int d = dest[di];
+                int df = PixelKernels.mul8(0xff - sa, (d >>> 24) & 0xff);
+                int ra = sa + df;
+                int rr = PixelKernels.mul8(sa, sr) + PixelKernels.mul8(df, (d >>> 16) & 0xff);
+                int rg = PixelKernels.mul8(sa, sg) + PixelKernels.mul8(df, (d >>> 8) & 0xff);
+                int rb = PixelKernels.mul8(sa, sb) + PixelKernels.mul8(df, d & 0xff);
+                if (ra < 0xff) {
+                    rr = PixelKernels.div8(rr, ra);
+                    rg = PixelKernels.div8(rg, ra);
+                    rb = PixelKernels.div8(rb, ra);
+                }
+                dest[di] = ra << 24 | rr << 16 | rg << 8 | rb;
+            }
+        }
+    }
+
+    @Override
+    public void multiplyPre(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        TintTable table = TintTable.of(argb);
+        int[] ta = table.alpha;
+        int[] tr = table.red;
+        int[] tg = table.green;
+        int[] tb = table.blue;
+
+        for (int y = 0; y < height; y++) {
+            int si = srcOffset + y * srcScanline;
+            int di = destOffset + y * destScanline;
+            for (int x = 0; x < width; x++, si++, di++) {
+                int s = src[si];
+                int sa = ta[s >>> 24];
+                if (sa == 0) {
+                    dest[di] = 0;
+                } else if (sa == 0xff) {
+                    dest[di] = 0xff000000 | tr[(s >>> 16) & 0xff] << 16 | tg[(s >>> 8) & 0xff] << 8 | tb[s & 0xff];
+                } else {
+                    dest[di] = sa << 24
+                            | PixelKernels.mul8(sa, tr[(s >>> 16) & 0xff]) << 16
+                            | PixelKernels.mul8(sa, tg[(s >>> 8) & 0xff]) << 8
+                            | PixelKernels.mul8(sa, tb[s & 0xff]);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void multiplyOverPre(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        TintTable table = TintTable.of(argb);
+        int[] ta = table.alpha;
+        int[] tr = table.red;
+        int[] tg = table.green;
+        int[] tb = table.blue;
+
+        for (int y = 0; y < height; y++) {
+            int si = srcOffset + y * srcScanline;
+            int di = destOffset + y * destScanline;
+            for (int x = 0; x < width; x++, si++, di++) {
+                int s = src[si];
+                int sa = ta[s >>> 24];
+                if (sa == 0) {
+                    continue;
+                }
+                if (sa == 0xff) {
+                    dest[di] = 0xff000000 | tr[(s >>> 16) & 0xff] << 16 | tg[(s >>> 8) & 0xff] << 8 | tb[s & 0xff];
+                    continue;
+                }
+
+                int sr = PixelKernels.mul8(sa, tr[(s >>> 16) & 0xff]);
+                int sg = PixelKernels.mul8(sa, tg[(s >>> 8) & 0xff]);
+                int sb = PixelKernels.mul8(sa, tb[s & 0xff]);
+                int d = dest[di];
+                int df = 0xff - sa;
+                dest[di] = (sa + PixelKernels.mul8(df, d >>> 24)) << 24
+                        | (sr + PixelKernels.mul8(df, (d >>> 16) & 0xff)) << 16
+                        | (sg + PixelKernels.mul8(df, (d >>> 8) & 0xff)) << 8
+                        | (sb + PixelKernels.mul8(df, d & 0xff));
+            }
+        }
+    }
+}
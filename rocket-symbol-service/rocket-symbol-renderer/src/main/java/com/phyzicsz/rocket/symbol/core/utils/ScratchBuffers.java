@@ -0,0 +1,170 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Per-thread scratch storage for the render and encode pipeline, so that a
+ * steady state render does not allocate intermediate rasters, row buffers or
+ * encoder output buffers. Everything handed out belongs to the calling thread
+ * and is only valid until the next request for the same kind of buffer on
+ * that thread, so it must never be cached, returned to a caller or shared
+ * with another thread. Buffers larger than {@link #MAX_RETAINED_BYTES} are
+ * handed out but not kept.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class ScratchBuffers {
+
+    public static final int MAX_RETAINED_BYTES = 4 << 20;
+
+    private static final int ROWS = 2;
+
+    private static final int OUTPUTS = 2;
+
+    private static final ThreadLocal<ScratchBuffers> local = ThreadLocal.withInitial(ScratchBuffers::new);
+
+    private final int[][] rows = new int[ROWS][];
+    private final BufferedImage[] images = new BufferedImage[3];
+    private final ScratchOutputStream[] outputs = new ScratchOutputStream[OUTPUTS];
+
+    private ScratchBuffers() {
+    }
+
+    /**
+     * A row buffer of at least {@code length} ints. Two independent buffers
+     * are kept per thread, selected by {@code slot}.
+     *
+     * @param slot 0 or 1.
+     * @param length Minimum length.
+     * @return the buffer, its contents are undefined.
+     */
+    public static int[] row(int slot, int length) {
+        ScratchBuffers buffers = local.get();
+        int[] row = buffers.rows[slot];
+        if (row == null || row.length < length) {
+            row = new int[length];
+            if (retain((long) length * Integer.BYTES)) {
+                buffers.rows[slot] = row;
+            }
+        }
+        return row;
+    }
+
+    /**
+     * A {@code TYPE_INT_ARGB}, {@code TYPE_INT_ARGB_PRE} or
+     * {@code TYPE_INT_RGB} image of exactly the given size. The contents are
+     * undefined, the caller must overwrite every pixel it reads back.
+     *
+     * @param width Image width.
+     * @param height Image height.
+     * @param type {@code TYPE_INT_ARGB}, {@code TYPE_INT_ARGB_PRE} or
+     * {@code TYPE_INT_RGB}.
+     * @return the image.
+     */
+    public static BufferedImage image(int width, int height, int type) {
+        int slot;
+        switch (type) {
+            case BufferedImage.TYPE_INT_ARGB:
+                slot = 0;
+                break;
+            case BufferedImage.TYPE_INT_ARGB_PRE:
+                slot = 1;
+                break;
+            case BufferedImage.TYPE_INT_RGB:
+                slot = 2;
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported scratch image type: " + type);
+        }
+        ScratchBuffers buffers = local.get();
+        BufferedImage image = buffers.images[slot];
+        if (image != null && image.getWidth() == width && image.getHeight() == height) {
+            return image;
+        }
+        image = new BufferedImage(width, height, type);
+        if (retain((long) width * height * Integer.BYTES)) {
+            buffers.images[slot] = image;
+        }
+        return image;
+    }
+
+    /**
+     * An empty output stream for encoding. Copy the result out with
+     * {@link ByteArrayOutputStream#toByteArray()} or
+     * {@link ByteArrayOutputStream#writeTo(java.io.OutputStream)}, or read it
+     * in place through {@link #contents}.
+     *
+     * @return the stream.
+     */
+    public static ByteArrayOutputStream output() {
+        return output(0);
+    }
+
+    /**
+     * An empty output stream for encoding. Two independent streams are kept
+     * per thread, selected by {@code slot}.
+     *
+     * @param slot 0 or 1.
+     * @return the stream.
+     */
+    public static ByteArrayOutputStream output(int slot) {
+        ScratchBuffers buffers = local.get();
+        ScratchOutputStream output = buffers.outputs[slot];
+        if (output == null || !retain(output.capacity())) {
+            output = new ScratchOutputStream();
+            buffers.outputs[slot] = output;
+        }
+        output.reset();
+        return output;
+    }
+
+    /**
+     * The bytes written to an output stream, without copying them if it is a
+     * scratch stream. Valid until the stream is next written or reset.
+     *
+     * @param output Stream from {@link #output}.
+     * @return a read-only buffer from the first to the last byte written.
+     */
+    public static ByteBuffer contents(ByteArrayOutputStream output) {
+        if (output instanceof ScratchOutputStream) {
+            return ((ScratchOutputStream) output).contents();
+        }
+        return ByteBuffer.wrap(output.toByteArray()).asReadOnlyBuffer();
+    }
+
+    private static boolean retain(long bytes) {
+        return bytes <= MAX_RETAINED_BYTES;
+    }
+
+    private static final class ScratchOutputStream extends ByteArrayOutputStream {
+
+        ScratchOutputStream() {
+            super(16 * 1024);
+        }
+
+        int capacity() {
+            return buf.length;
+        }
+
+        ByteBuffer contents() {
+            return ByteBuffer.wrap(buf, 0, count).asReadOnlyBuffer();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+/**
+ * Tint and composite loops over ARGB int arrays. Sources are always
+ * non-premultiplied, destinations either non-premultiplied or, for the
+ * {@code Pre} variants, premultiplied.
+ * Implementations must produce identical output; {@link PixelKernels} picks
+ * the fastest one the running JDK supports.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public interface TintKernel {
+
+    /**
+     * Multiply source pixels by a color and write them to a destination,
+     * replacing what was there. Source and destination may be the same array.
+     *
+     * @param src Source pixels.
+     * @param srcOffset Index of the first source pixel.
+     * @param srcScanline Distance between source rows.
+     * @param dest Destination pixels.
+     * @param destOffset Index of the first destination pixel.
+     * @param destScanline Distance between destination rows.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param argb Color to multiply by.
+     */
+    void multiply(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb);
+
+    /**
+     * Multiply source pixels by a color and blend them source-over into a
+     * destination, with Java2D's 8 bit {@code SrcOver} arithmetic.
+     *
+     * @param src Source pixels.
+     * @param srcOffset Index of the first source pixel.
+     * @param srcScanline Distance between source rows.
+     * @param dest Destination pixels.
+     * @param destOffset Index of the first destination pixel.
+     * @param destScanline Distance between destination rows.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param argb Color to multiply the source by.
+     */
+    void multiplyOver(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb);
+
+    /**
+     * Multiply non-premultiplied source pixels by a color and write them
+     * premultiplied to a destination, replacing what was there.
+     *
+     * @param src Non-premultiplied source pixels.
+     * @param srcOffset Index of the first source pixel.
+     * @param srcScanline Distance between source rows.
+     * @param dest Premultiplied destination pixels.
+     * @param destOffset Index of the first destination pixel.
+     * @param destScanline Distance between destination rows.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param argb Color to multiply by.
+     */
+    void multiplyPre(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb);
+
+    /**
+     * Multiply non-premultiplied source pixels by a color and blend them
+     * source-over into premultiplied destination pixels, with Java2D's
+     * {@code IntArgbPre} arithmetic. No division is needed.
+     *
+     * @param src Non-premultiplied source pixels.
+     * @param srcOffset Index of the first source pixel.
+     * @param srcScanline Distance between source rows.
+     * @param dest Premultiplied destination pixels.
+     * @param destOffset Index of the first destination pixel.
+     * @param destScanline Distance between destination rows.
+     * @param width Width of the region.
+     * @param height Height of the region.
+     * @param argb Color to multiply the source by.
+     */
+    void multiplyOverPre(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb);
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per channel lookup tables for multiplying pixels by one color: entry i of a
+ * channel table is round(i * c / 255). Tables for the renderer's fixed
+ * palette are registered once and kept, tables for any other color are held
+ * in a small LRU cache.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public final class TintTable {
+
+    public static final long DEFAULT_CUSTOM_CACHE_SIZE = 64;
+
+    private static final Map<Integer, TintTable> palette = new ConcurrentHashMap<>();
+
+    private static final Cache<Integer, TintTable> custom = CacheBuilder.newBuilder()
+            .maximumSize(DEFAULT_CUSTOM_CACHE_SIZE)
+            .build();
+
+    private final int color;
+    final int[] alpha;
+    final int[] red;
+    final int[] green;
+    final int[] blue;
+
+    private TintTable(int color) {
+        this.color = color;
+        this.alpha = channel((color >>> 24) & 0xff);
+        this.red = channel((color >>> 16) & 0xff);
+        this.green = channel((color >>> 8) & 0xff);
+        this.blue = channel(color & 0xff);
+    }
+
+    /**
+     * Build and keep the tables for a fixed set of colors.
+     *
+     * @param colors ARGB colors.
+     */
+    public static void register(int... colors) {
+        for (int color : colors) {
+            palette.computeIfAbsent(color, TintTable::new);
+        }
+    }
+
+    /**
+     * The tables for a color: registered tables first, then the LRU cache of
+     * custom colors, building them on a miss.
+     *
+     * @param color ARGB color.
+     * @return the lookup tables.
+     */
+    public static TintTable of(int color) {
+        TintTable table = palette.get(color);
+        if (table == null) {
+            table = custom.asMap().computeIfAbsent(color, TintTable::new);
+        }
+        return table;
+    }
+
+    /**
+     * Whether a color's tables are registered rather than cached.
+     *
+     * @param color ARGB color.
+     * @return true if registered.
+     */
+    public static boolean isRegistered(int color) {
+        return palette.containsKey(color);
+    }
+
+    /**
+     * Number of custom color tables currently cached.
+     *
+     * @return the cache size.
+     */
+    public static long customSize() {
+        return custom.size();
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    /**
+     * Multiply one pixel by the color.
+     *
+     * @param argb Non-premultiplied ARGB pixel.
+     * @return the tinted pixel.
+     */
+    public int tint(int argb) {
+        return alpha[argb >>> 24] << 24
+                | red[(argb >>> 16) & 0xff] << 16
+                | green[(argb >>> 8) & 0xff] << 8
+                | blue[argb & 0xff];
+    }
+
+    private static int[] channel(int c) {
+        int[] table = new int[256];
+        for (int i = 0; i < 256; i++) {
+            table[i] = PixelKernels.mul255(i, c);
+        }
+        return table;
+    }
+}
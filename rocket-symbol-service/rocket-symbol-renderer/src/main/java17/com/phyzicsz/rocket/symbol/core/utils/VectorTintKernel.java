@@ -0,0 +1,189 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Tint kernel on the JDK 17 Vector API, packaged in the multi-release jar and
+ * loaded by {@link PixelKernels} when {@code jdk.incubator.vector} is
+ * available. Tinting and premultiplied compositing are fully vectorized.
+ * Non-premultiplied compositing vectorizes runs of transparent and opaque
+ * pixels and hands lanes with partial alpha, the antialiased edges, to the
+ * scalar kernel since they need a division; output is identical either way.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class VectorTintKernel implements TintKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private final ScalarTintKernel scalar = new ScalarTintKernel();
+
+    @Override
+    public void multiply(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        int ca = (argb >>> 24) & 0xff;
+        int cr = (argb >>> 16) & 0xff;
+        int cg = (argb >>> 8) & 0xff;
+        int cb = argb & 0xff;
+        int bound = SPECIES.loopBound(width);
+
+        for (int y = 0; y < height; y++) {
+            int si = srcOffset + y * srcScanline;
+            int di = destOffset + y * destScanline;
+            int x = 0;
+            for (; x < bound; x += SPECIES.length()) {
+                tint(IntVector.fromArray(SPECIES, src, si + x), ca, cr, cg, cb).intoArray(dest, di + x);
+            }
+            if (x < width) {
+                scalar.multiply(src, si + x, srcScanline, dest, di + x, destScanline, width - x, 1, argb);
+            }
+        }
+    }
+
+    @Override
+    public void multiplyOver(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        int ca = (argb >>> 24) & 0xff;
+        int cr = (argb >>> 16) & 0xff;
+        int cg = (argb >>> 8) & 0xff;
+        int cb = argb & 0xff;
+        int lanes = SPECIES.length();
+        int bound = SPECIES.loopBound(width);
+
+        for (int y = 0; y < height; y++) {
+            int si = srcOffset + y * srcScanline;
+            int di = destOffset + y * destScanline;
+            int x = 0;
+            for (; x < bound; x += lanes) {
+                IntVector tinted = tint(IntVector.fromArray(SPECIES, src, si + x), ca, cr, cg, cb);
+                IntVector alpha = tinted.lanewise(VectorOperators.LSHR, 24);
+                VectorMask<Integer> transparent = alpha.eq(0);
+                if (transparent.allTrue()) {
+                    continue;
+                }
+                VectorMask<Integer> opaque = alpha.eq(0xff);
+                if (opaque.or(transparent).allTrue()) {
+                    tinted.intoArray(dest, di + x, opaque);
+                } else {
+                    scalar.multiplyOver(src, si + x, srcScanline, dest, di + x, destScanline, lanes, 1, argb);
+                }
+            }
+            if (x < width) {
+                scalar.multiplyOver(src, si + x, srcScanline, dest, di + x, destScanline, width - x, 1, argb);
+            }
+        }
+    }
+
+    @Override
+    public void multiplyPre(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        int ca = (argb >>> 24) & 0xff;
+        int cr = (argb >>> 16) & 0xff;
+        int cg = (argb >>> 8) & 0xff;
+        int cb = argb & 0xff;
+        int bound = SPECIES.loopBound(width);
+
+        for (int y = 0; y < height; y++) {
+            int si = srcOffset + y * srcScanline;
+            int di = destOffset + y * destScanline;
+            int x = 0;
+            for (; x < bound; x += SPECIES.length()) {
+                IntVector s = IntVector.fromArray(SPECIES, src, si + x);
+                IntVector a = mul255(s.lanewise(VectorOperators.LSHR, 24), ca);
+                pack(a,
+                        mul8(a, mul255(s.lanewise(VectorOperators.LSHR, 16).and(0xff), cr)),
+                        mul8(a, mul255(s.lanewise(VectorOperators.LSHR, 8).and(0xff), cg)),
+                        mul8(a, mul255(s.and(0xff), cb)))
+                        .intoArray(dest, di + x);
+            }
+            if (x < width) {
+                scalar.multiplyPre(src, si + x, srcScanline, dest, di + x, destScanline, width - x, 1, argb);
+            }
+        }
+    }
+
+    @Override
+    public void multiplyOverPre(int[] src, int srcOffset, int srcScanline,
+            int[] dest, int destOffset, int destScanline, int width, int height, int argb) {
+        int ca = (argb >>> 24) & 0xff;
+        int cr = (argb >>> 16) & 0xff;
+        int cg = (argb >>> 8) & 0xff;
+        int cb = argb & 0xff;
+        int bound = SPECIES.loopBound(width);
+
+        for (int y = 0; y < height; y++) {
+            int si = srcOffset + y * srcScanline;
+            int di = destOffset + y * destScanline;
+            int x = 0;
+            for (; x < bound; x += SPECIES.length()) {
+                IntVector s = IntVector.fromArray(SPECIES, src, si + x);
+                IntVector a = mul255(s.lanewise(VectorOperators.LSHR, 24), ca);
+                VectorMask<Integer> visible = a.compare(VectorOperators.NE, 0);
+                if (!visible.anyTrue()) {
+                    continue;
+                }
+                IntVector d = IntVector.fromArray(SPECIES, dest, di + x);
+                IntVector df = a.neg().add(0xff);
+                pack(a.add(mul8(df, d.lanewise(VectorOperators.LSHR, 24))),
+                        mul8(a, mul255(s.lanewise(VectorOperators.LSHR, 16).and(0xff), cr))
+                                .add(mul8(df, d.lanewise(VectorOperators.LSHR, 16).and(0xff))),
+                        mul8(a, mul255(s.lanewise(VectorOperators.LSHR, 8).and(0xff), cg))
+                                .add(mul8(df, d.lanewise(VectorOperators.LSHR, 8).and(0xff))),
+                        mul8(a, mul255(s.and(0xff), cb))
+                                .add(mul8(df, d.and(0xff))))
+                        .intoArray(dest, di + x, visible);
+            }
+            if (x < width) {
+                scalar.multiplyOverPre(src, si + x, srcScanline, dest, di + x, destScanline, width - x, 1, argb);
+            }
+        }
+    }
+
+    private static IntVector tint(IntVector s, int ca, int cr, int cg, int cb) {
+        IntVector a = mul255(s.lanewise(VectorOperators.LSHR, 24), ca);
+        IntVector r = mul255(s.lanewise(VectorOperators.LSHR, 16).and(0xff), cr);
+        IntVector g = mul255(s.lanewise(VectorOperators.LSHR, 8).and(0xff), cg);
+        IntVector b = mul255(s.and(0xff), cb);
+        return pack(a, r, g, b);
+    }
+
+    private static IntVector pack(IntVector a, IntVector r, IntVector g, IntVector b) {
+        return a.lanewise(VectorOperators.LSHL, 24)
+                .or(r.lanewise(VectorOperators.LSHL, 16))
+                .or(g.lanewise(VectorOperators.LSHL, 8))
+                .or(b);
+    }
+
+    /**
+     * Lane-wise {@link PixelKernels#mul255}.
+     */
+    private static IntVector mul255(IntVector c, int k) {
+        IntVector t = c.mul(k).add(128);
+        return t.add(t.lanewise(VectorOperators.LSHR, 8)).lanewise(VectorOperators.LSHR, 8);
+    }
+
+    /**
+     * Lane-wise {@link PixelKernels#mul8}.
+     */
+    private static IntVector mul8(IntVector a, IntVector b) {
+        return a.mul(b).mul(0x010101).add(0x800000).lanewise(VectorOperators.LSHR, 24);
+    }
+}
@@ -16,9 +16,16 @@
 package com.phyzicsz.rocket.symbol.core;
 
 import com.phyzicsz.rocket.symbol.core.exception.UnsupportedMimeType;
+import com.phyzicsz.rocket.symbol.core.render.ServiceConstants;
+import java.awt.Color;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -29,6 +36,7 @@ import javax.imageio.ImageIO;
 import javax.imageio.ImageReader;
 import javax.imageio.stream.ImageInputStream;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 import org.slf4j.Logger;
@@ -143,15 +151,119 @@ public class RocketSymbolServiceTest {
 
         ImageInputStream iis = ImageIO.createImageInputStream(filePath.toFile());
         Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(iis);
+        assertThat(imageReaders.hasNext()).isTrue();
 
         while (imageReaders.hasNext()) {
             ImageReader reader =imageReaders.next();
-            assertThat(reader.getFormatName()).isEqualTo("jpg");
+            assertThat(reader.getFormatName()).isEqualToIgnoringCase("jpeg");
 
         }
 
     }
 
+    @Test
+    public void testClosedServiceKeepsSnapshot(@TempDir Path tempDir) throws Exception {
+        String symbolCode = "SFUPSK---------";
+        Path snapshot = tempDir.resolve("cache.snapshot");
+        try (RocketSymbolService warm = new RocketSymbolService()) {
+            warm.asPng(symbolCode);
+            warm.saveCacheSnapshot(snapshot);
+            byte[] expected = Files.readAllBytes(snapshot);
+
+            RocketSymbolService instance = new RocketSymbolService().withCacheSnapshot(snapshot);
+            Thread hook = instance.snapshotHook();
+            assertThat(hook).isNotNull();
+            instance.close();
+            assertThat(instance.snapshotHook()).isNull();
+            assertThat(Runtime.getRuntime().removeShutdownHook(hook)).isFalse();
+
+            // a hook already started by a shutdown racing close does not write
+            hook.run();
+            assertThat(Files.readAllBytes(snapshot)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testWriteToStreamChannelAndBuffer() throws Exception {
+        String symbolCode = "SFUPSK---------";
+        RocketSymbolService instance = new RocketSymbolService();
+
+        byte[] png = instance.asPng(symbolCode);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        instance.writePng(symbolCode, out);
+        assertThat(out.toByteArray()).isEqualTo(png);
+
+        out.reset();
+        instance.writePng(symbolCode, Channels.newChannel(out));
+        assertThat(out.toByteArray()).isEqualTo(png);
+
+        ByteBuffer buffer = ByteBuffer.allocate(png.length + 8);
+        buffer.position(8);
+        assertThat(instance.writePng(symbolCode, buffer)).isEqualTo(png.length);
+        assertThat(buffer.position()).isEqualTo(png.length + 8);
+        buffer.position(8);
+        assertThat(buffer.slice()).isEqualTo(ByteBuffer.wrap(png));
+
+        ByteBuffer small = ByteBuffer.allocate(png.length - 1);
+        assertThatThrownBy(() -> instance.writePng(symbolCode, small)).isInstanceOf(BufferOverflowException.class);
+        assertThat(small.position()).isZero();
+
+        byte[] jpg = instance.asJpg(symbolCode);
+        out.reset();
+        instance.writeJpg(symbolCode, out);
+        assertThat(out.toByteArray()).isEqualTo(jpg);
+        out.reset();
+        instance.writeJpg(symbolCode, Channels.newChannel(out));
+        assertThat(out.toByteArray()).isEqualTo(jpg);
+        ByteBuffer jpgBuffer = ByteBuffer.allocate(jpg.length);
+        instance.writeJpg(symbolCode, jpgBuffer);
+        assertThat(jpgBuffer.array()).isEqualTo(jpg);
+    }
+
+    @Test
+    public void testJpgFlattenedOntoBackground() throws Exception {
+        String symbolCode = "SFUPSK---------";
+        RocketSymbolService instance = new RocketSymbolService();
+
+        BufferedImage white = ImageIO.read(new ByteArrayInputStream(instance.asJpg(symbolCode)));
+        assertThat(white.getWidth()).isEqualTo(ServiceConstants.DEFAULT_IMAGE_SIZE);
+        assertThat(white.getRGB(0, 0) & 0xffffff).isEqualTo(0xffffff);
+
+        BufferedImage black = ImageIO.read(new ByteArrayInputStream(
+                instance.withJpegBackground(Color.BLACK).withJpegQuality(1f).asJpg(symbolCode)));
+        assertThat(black.getRGB(0, 0) & 0xffffff).isEqualTo(0);
+        assertThatThrownBy(() -> instance.withJpegQuality(2f)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> instance.withJpegBackground(null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testPngPalette() throws Exception {
+        String symbolCode = "SFUPSK---------";
+        RocketSymbolService instance = new RocketSymbolService();
+
+        byte[] argb = instance.asPng(symbolCode);
+        byte[] palette = instance.withPngPalette(true).asPng(symbolCode);
+        logger.info("32 bit png: {} bytes, palette png: {} bytes", argb.length, palette.length);
+        assertThat(palette.length).isLessThan(argb.length);
+
+        BufferedImage expected = ImageIO.read(new ByteArrayInputStream(argb));
+        BufferedImage actual = ImageIO.read(new ByteArrayInputStream(palette));
+        assertThat(actual.getType()).isEqualTo(BufferedImage.TYPE_BYTE_INDEXED);
+        for (int y = 0; y < expected.getHeight(); y++) {
+            for (int x = 0; x < expected.getWidth(); x++) {
+                int rgb = expected.getRGB(x, y);
+                assertThat(actual.getRGB(x, y)).isEqualTo(rgb >>> 24 == 0 ? 0 : rgb);
+            }
+        }
+
+        // small symbols fall back to 32 bit when the palette does not pay
+        for (int size : new int[]{20, 32, 48, 64}) {
+            RocketSymbolService small = new RocketSymbolService().withImageSize(size);
+            byte[] expectedSmall = small.asPng(symbolCode);
+            assertThat(small.withPngPalette(true).asPng(symbolCode).length).isLessThanOrEqualTo(expectedSmall.length);
+        }
+    }
+
     /**
      * Test of testCreateIconResize method.
      *
@@ -188,6 +300,23 @@ public class RocketSymbolServiceTest {
         assertThat(image.getHeight()).isEqualTo(128);
     }
 
+    @Test
+    public void testLargeRendersAreIntArgb() throws Exception {
+        String symbolCode = "SFUPSK---------";
+        RocketSymbolService instance = new RocketSymbolService();
+
+        for (int size : new int[]{64, 128, 256, 300}) {
+            BufferedImage image = instance.withImageSize(size).asBufferedImage(symbolCode);
+            assertThat(image.getType()).as("size %d", size).isEqualTo(BufferedImage.TYPE_INT_ARGB);
+            assertThat(image.getWidth()).isEqualTo(size);
+
+            BufferedImage copy = instance.asSymbolImage(symbolCode).toBufferedImage();
+            assertThat(copy.getType()).as("size %d", size).isEqualTo(BufferedImage.TYPE_INT_ARGB);
+            assertThat(copy.getRGB(0, 0, size, size, null, 0, size))
+                    .isEqualTo(image.getRGB(0, 0, size, size, null, 0, size));
+        }
+    }
+
     @Test
     public void testFriendSymbology() throws IOException, UnsupportedMimeType {
         List<String> friend = Arrays.asList(
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import java.awt.image.BufferedImage;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class AccessProfileTest {
+
+    public AccessProfileTest() {
+    }
+
+    @Test
+    public void testHotFirstLayout() {
+        Map<String, Long> counts = new HashMap<>();
+        counts.put("icons/war/shgp-----------.png", 40L);
+        counts.put("icons/war/sfgp-----------.png", 30L);
+        counts.put("frames/tacsym/-fgp-----------.png", 20L);
+        counts.put("icons/war/sfap-----------.png", 20L);
+        counts.put("icons/war/snap-----------.png", 1L);
+        AccessProfile profile = new AccessProfile(counts);
+
+        List<String> paths = Arrays.asList(
+                "icons/war/snap-----------.png",
+                "icons/war/sfap-----------.png",
+                "icons/war/suap-----------.png",
+                "frames/tacsym/-fgp-----------.png",
+                "icons/war/sfgp-----------.png",
+                "icons/war/shgp-----------.png");
+
+        AccessProfile.Layout layout = profile.layout(paths, 0.9);
+
+        assertThat(layout.getHotCount()).isEqualTo(4);
+        // friend war icons (50) outrank the hostile group (40), frames last
+        assertThat(layout.getOrder()).containsExactly(
+                "icons/war/sfgp-----------.png",
+                "icons/war/sfap-----------.png",
+                "icons/war/shgp-----------.png",
+                "frames/tacsym/-fgp-----------.png",
+                "icons/war/snap-----------.png",
+                "icons/war/suap-----------.png");
+    }
+
+    @Test
+    public void testProfileFile(@TempDir Path tempDir) throws Exception {
+        Map<String, Long> counts = new HashMap<>();
+        counts.put("icons/war/sfgp-----------.png", 3L);
+        counts.put("fills/tacsym/-f-----------.png", 7L);
+
+        Path file = tempDir.resolve("profile.txt");
+        new AccessProfile(counts).write(file);
+        AccessProfile profile = AccessProfile.read(file);
+
+        assertThat(profile.count("icons/war/sfgp-----------.png")).isEqualTo(3L);
+        assertThat(profile.count("fills/tacsym/-f-----------.png")).isEqualTo(7L);
+        assertThat(profile.count("missing")).isZero();
+    }
+
+    @Test
+    public void testHotOnlyRestore(@TempDir Path tempDir) throws Exception {
+        ComponentCache components = new ComponentCache();
+        components.get("hot", p -> new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB));
+        components.get("hot", p -> null);
+        components.put("cold", new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB));
+        RenderCache renders = new RenderCache(16);
+        renders.put("render", new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB));
+
+        Path snapshot = tempDir.resolve("cache.snapshot");
+        assertThat(CacheSnapshot.write(snapshot, "v", components, renders)).isEqualTo(3);
+
+        ComponentCache restored = new ComponentCache();
+        RenderCache restoredRenders = new RenderCache(16);
+        assertThat(CacheSnapshot.read(snapshot, "v", restored, restoredRenders, true)).isEqualTo(2);
+        assertThat(restored.getIfPresent("hot")).isNotNull();
+        assertThat(restored.getIfPresent("cold")).isNull();
+        assertThat(restoredRenders.getIfPresent("render")).isNotNull();
+    }
+}
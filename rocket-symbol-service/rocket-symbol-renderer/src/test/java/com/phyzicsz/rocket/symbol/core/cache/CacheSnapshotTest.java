@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import com.phyzicsz.rocket.symbol.core.RocketSymbolService;
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class CacheSnapshotTest {
+
+    public CacheSnapshotTest() {
+    }
+
+    @Test
+    public void testSnapshotRoundTrip(@TempDir Path tempDir) throws Exception {
+        String symbolCode = "SFUPSK---------";
+        Path snapshot = tempDir.resolve("cache.snapshot");
+
+        RocketSymbolService warm = new RocketSymbolService();
+        BufferedImage expected = warm.asBufferedImage(symbolCode);
+        int written = warm.saveCacheSnapshot(snapshot);
+        assertThat(written).isGreaterThan(1);
+        assertThat(Files.exists(snapshot)).isTrue();
+
+        RocketSymbolService cold = new RocketSymbolService();
+        int restored = cold.restoreCacheSnapshot(snapshot);
+        assertThat(restored).isEqualTo(written);
+
+        BufferedImage actual = cold.asBufferedImage(symbolCode);
+        int w = expected.getWidth();
+        int h = expected.getHeight();
+        assertThat(actual.getRGB(0, 0, w, h, null, 0, w))
+                .isEqualTo(expected.getRGB(0, 0, w, h, null, 0, w));
+    }
+
+    /**
+     * Indexed and premultiplied renders must come back with their type and
+     * their raw pixels, and snapshots of the previous format are ignored.
+     *
+     * @param tempDir
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testImageTypesRestored(@TempDir Path tempDir) throws Exception {
+        Path snapshot = tempDir.resolve("cache.snapshot");
+        BufferedImage symbol = new RocketSymbolService().asBufferedImage("SFUPSK---------");
+        BufferedImage indexed = ImageUtils.toIndexed(symbol);
+        assertThat(indexed.getType()).isEqualTo(BufferedImage.TYPE_BYTE_INDEXED);
+        BufferedImage pre = new BufferedImage(symbol.getWidth(), symbol.getHeight(), BufferedImage.TYPE_INT_ARGB_PRE);
+        pre.setRGB(0, 0, symbol.getWidth(), symbol.getHeight(),
+                symbol.getRGB(0, 0, symbol.getWidth(), symbol.getHeight(), null, 0, symbol.getWidth()),
+                0, symbol.getWidth());
+
+        RenderCache renders = new RenderCache(16);
+        renders.put("indexed", indexed);
+        renders.put("pre", pre);
+        CacheSnapshot.write(snapshot, "v", new ComponentCache(), renders);
+
+        RenderCache restored = new RenderCache(16);
+        assertThat(CacheSnapshot.read(snapshot, "v", new ComponentCache(), restored)).isEqualTo(2);
+        for (String key : Arrays.asList("indexed", "pre")) {
+            BufferedImage expected = renders.getIfPresent(key);
+            BufferedImage actual = restored.getIfPresent(key);
+            int w = expected.getWidth();
+            int h = expected.getHeight();
+            assertThat(actual.getType()).as(key).isEqualTo(expected.getType());
+            assertThat(actual.getRaster().getDataElements(0, 0, w, h, null))
+                    .as(key).isEqualTo(expected.getRaster().getDataElements(0, 0, w, h, null));
+            assertThat(actual.getRGB(0, 0, w, h, null, 0, w)).as(key).isEqualTo(expected.getRGB(0, 0, w, h, null, 0, w));
+        }
+
+        byte[] bytes = Files.readAllBytes(snapshot);
+        ByteBuffer.wrap(bytes).putInt(4, CacheSnapshot.FORMAT_VERSION - 1);
+        Files.write(snapshot, bytes);
+        assertThat(CacheSnapshot.read(snapshot, "v", new ComponentCache(), new RenderCache(16))).isZero();
+    }
+
+    @Test
+    public void testAssetVersionMismatch(@TempDir Path tempDir) throws Exception {
+        Path snapshot = tempDir.resolve("cache.snapshot");
+        ComponentCache components = new ComponentCache();
+        components.put("test", new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB));
+        RenderCache renders = new RenderCache(16);
+
+        CacheSnapshot.write(snapshot, "old", components, renders);
+
+        ComponentCache restored = new ComponentCache();
+        assertThat(CacheSnapshot.read(snapshot, "new", restored, renders)).isZero();
+        assertThat(restored.size()).isZero();
+
+        assertThat(CacheSnapshot.read(snapshot, "old", restored, renders)).isEqualTo(1);
+        assertThat(restored.getIfPresent("test").getWidth()).isEqualTo(4);
+    }
+
+    @Test
+    public void testCorruptSnapshotIgnored(@TempDir Path tempDir) throws Exception {
+        Path snapshot = tempDir.resolve("cache.snapshot");
+        ComponentCache components = new ComponentCache();
+        for (int i = 0; i < 8; i++) {
+            BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(i, i, 0xff000000 | i * 997);
+            components.put("test" + i, image);
+        }
+        RenderCache renders = new RenderCache(16);
+        CacheSnapshot.write(snapshot, "v", components, renders);
+        byte[] bytes = Files.readAllBytes(snapshot);
+
+        Path truncated = tempDir.resolve("truncated.snapshot");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 16));
+        Path corrupt = tempDir.resolve("corrupt.snapshot");
+        byte[] flipped = bytes.clone();
+        for (int i = flipped.length / 2; i < flipped.length; i++) {
+            flipped[i] = (byte) ~flipped[i];
+        }
+        Files.write(corrupt, flipped);
+
+        for (Path bad : Arrays.asList(truncated, corrupt)) {
+            ComponentCache restored = new ComponentCache();
+            RenderCache restoredRenders = new RenderCache(16);
+            assertThatThrownBy(() -> CacheSnapshot.read(bad, "v", restored, restoredRenders))
+                    .isInstanceOf(IOException.class);
+            assertThat(restored.size()).isZero();
+
+            try (RocketSymbolService instance = new RocketSymbolService().withCacheSnapshot(bad)) {
+                assertThat(instance.asPng("SFUPSK---------")).isNotEmpty();
+            }
+        }
+    }
+
+    @Test
+    public void testMissingSnapshot(@TempDir Path tempDir) throws Exception {
+        RocketSymbolService instance = new RocketSymbolService();
+        assertThat(instance.restoreCacheSnapshot(tempDir.resolve("missing"))).isZero();
+    }
+}
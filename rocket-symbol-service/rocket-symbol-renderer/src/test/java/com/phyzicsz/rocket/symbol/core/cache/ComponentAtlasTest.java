@@ -0,0 +1,125 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import com.phyzicsz.rocket.symbol.core.RocketSymbolService;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ComponentAtlasTest {
+
+    public ComponentAtlasTest() {
+    }
+
+    @Test
+    public void testPacking() {
+        ComponentAtlas atlas = new ComponentAtlas(64);
+
+        for (int i = 0; i < 5; i++) {
+            BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+            image.setRGB(0, 0, 0xff000000 | i);
+            image.setRGB(31, 31, 0x80000000 | i);
+
+            BufferedImage view = atlas.add("c" + i, image);
+            assertThat(view.getWidth()).isEqualTo(32);
+            assertThat(view.getRGB(0, 0)).isEqualTo(0xff000000 | i);
+            assertThat(view.getRGB(31, 31)).isEqualTo(0x80000000 | i);
+        }
+
+        // four 32x32 components fill a 64x64 page, the fifth starts a new one
+        assertThat(atlas.pages()).hasSize(2);
+        assertThat(atlas.region("c3").getPage()).isZero();
+        assertThat(atlas.region("c3").getX()).isEqualTo(32);
+        assertThat(atlas.region("c3").getY()).isEqualTo(32);
+        assertThat(atlas.region("c4").getPage()).isEqualTo(1);
+        assertThat(atlas.get("c2").getRGB(0, 0)).isEqualTo(0xff000000 | 2);
+    }
+
+    @Test
+    public void testOversizedComponent() {
+        ComponentAtlas atlas = new ComponentAtlas(16);
+        BufferedImage image = new BufferedImage(32, 32, BufferedImage.TYPE_INT_ARGB);
+
+        assertThat(atlas.add("big", image)).isSameAs(image);
+        assertThat(atlas.size()).isZero();
+    }
+
+    @Test
+    public void testAtlasEnabledWhileLoading() throws Exception {
+        ComponentCache cache = new ComponentCache();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        cache.get("c" + (i * 4 + thread), path -> new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB));
+                    }
+                }));
+            }
+            cache.setAtlasEnabled(true);
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // every component loaded before or after the switch is packed into the current atlas
+        assertThat(cache.size()).isEqualTo(800);
+        cache.asMap().keySet().forEach(path -> assertThat(cache.getAtlas().region(path)).as(path).isNotNull());
+
+        // a loader may look up other components
+        assertThat(cache.get("outer", path -> cache.get("inner", p -> new BufferedImage(2, 2, BufferedImage.TYPE_INT_ARGB))))
+                .isNotNull();
+        assertThat(cache.getIfPresent("inner")).isNotNull();
+    }
+
+    @Test
+    public void testAtlasRendering() throws Exception {
+        String symbolCode = "SFUPSK---------";
+        BufferedImage expected = new RocketSymbolService().asBufferedImage(symbolCode);
+
+        RocketSymbolService instance = new RocketSymbolService();
+        RocketSymbolService.setComponentAtlas(true);
+        BufferedImage actual;
+        try {
+            assertThat(ComponentRegistry.shared().isAtlasEnabled()).isTrue();
+            assertThat(instance.asBufferedImage(symbolCode)).isNotNull();
+            actual = new RocketSymbolService().asBufferedImage(symbolCode);
+        } finally {
+            // components are shared process wide, don't leak the atlas into other tests
+            RocketSymbolService.setComponentAtlas(false);
+        }
+        assertThat(ComponentRegistry.shared().isAtlasEnabled()).isFalse();
+
+        int w = expected.getWidth();
+        int h = expected.getHeight();
+        assertThat(actual.getRGB(0, 0, w, h, null, 0, w))
+                .isEqualTo(expected.getRGB(0, 0, w, h, null, 0, w));
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.cache;
+
+import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
+import com.phyzicsz.rocket.symbol.core.render.MilStdSymbolRenderer;
+import com.phyzicsz.rocket.symbol.core.render.ServiceConstants;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ComponentRegistryTest {
+
+    public ComponentRegistryTest() {
+    }
+
+    @Test
+    public void testSharedComponents() throws Exception {
+        ComponentRegistry registry = new ComponentRegistry();
+        MilStdSymbolRenderer small = new MilStdSymbolRenderer(registry);
+        MilStdSymbolRenderer large = new MilStdSymbolRenderer(registry);
+        assertThat(registry.references()).isEqualTo(2);
+        assertThat(small.getComponentCache()).isSameAs(large.getComponentCache());
+
+        SymbolServiceProperties smallProps = new SymbolServiceProperties();
+        smallProps.put(ServiceConstants.IMAGE_SIZE, 32);
+        small.createIcon("SFUPSK---------", smallProps);
+        int decoded = registry.acquire().size();
+        registry.release();
+        assertThat(decoded).isPositive();
+
+        SymbolServiceProperties largeProps = new SymbolServiceProperties();
+        largeProps.put(ServiceConstants.IMAGE_SIZE, 256);
+        large.createIcon("SFUPSK---------", largeProps);
+        assertThat(large.getComponentCache().size()).isEqualTo(decoded);
+        assertThat(small.getRenderCache().size()).isEqualTo(1);
+        assertThat(large.getRenderCache().size()).isEqualTo(1);
+
+        small.close();
+        small.close();
+        assertThat(registry.references()).isEqualTo(1);
+        assertThat(large.getComponentCache().size()).isEqualTo(decoded);
+
+        large.close();
+        assertThat(registry.references()).isZero();
+        assertThat(large.getComponentCache().size()).isZero();
+    }
+
+    @Test
+    public void testReleaseWithoutAcquire() {
+        ComponentRegistry registry = new ComponentRegistry();
+        assertThatThrownBy(registry::release).isInstanceOf(IllegalStateException.class);
+    }
+}
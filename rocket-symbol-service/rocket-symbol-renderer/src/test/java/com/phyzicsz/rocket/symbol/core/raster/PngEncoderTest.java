@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.raster;
+
+import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
+import com.phyzicsz.rocket.symbol.core.render.MilStdSymbolRenderer;
+import com.phyzicsz.rocket.symbol.core.render.ServiceConstants;
+import com.phyzicsz.rocket.symbol.core.utils.ColorPalette;
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class PngEncoderTest {
+
+    private static final List<String> SYMBOLS = Arrays.asList(
+            "SFGPUCI--------",
+            "SHAPMF---------",
+            "SUGPE----------",
+            "SNSPC----------");
+
+    public PngEncoderTest() {
+    }
+
+    /**
+     * With the default settings the encoder writes the same bytes as ImageIO,
+     * including images large enough to need several IDAT chunks.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testDefaultsMatchImageIO() throws Exception {
+        for (int size : new int[]{20, 128, 1024}) {
+            for (String sidc : SYMBOLS) {
+                BufferedImage image = render(sidc, size);
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                ImageIO.write(image, "png", expected);
+
+                assertThat(encode(image, PngEncoder.DEFAULT_LEVEL, PngEncoder.DEFAULT_FILTER))
+                        .as("%s at %d", sidc, size).isEqualTo(expected.toByteArray());
+            }
+        }
+    }
+
+    /**
+     * Every level and filter must decode to the encoded pixels.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testLevelsAndFiltersRoundTrip() throws Exception {
+        BufferedImage image = render(SYMBOLS.get(0), 64);
+        int[] pixels = image.getRGB(0, 0, 64, 64, null, 0, 64);
+
+        for (PngFilter filter : PngFilter.values()) {
+            for (int level = -1; level <= 9; level++) {
+                byte[] png = encode(image, level, filter);
+                assertThat(PngDecoder.decode(png).getPixels()).as("%s %d", filter, level).isEqualTo(pixels);
+                assertThat(ImageIO.read(new ByteArrayInputStream(png)).getRGB(0, 0, 64, 64, null, 0, 64))
+                        .as("%s %d", filter, level).isEqualTo(pixels);
+            }
+        }
+    }
+
+    /**
+     * Palette images decode to the encoded pixels, with every fully
+     * transparent pixel as transparent black. At 128 pixels, where the
+     * uncompressed palette is a small part of the file, they are smaller than
+     * RGBA.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testPaletteRoundTrip() throws Exception {
+        for (int size : new int[]{20, 64, 128}) {
+            for (String sidc : SYMBOLS) {
+                BufferedImage image = render(sidc, size);
+                int[] pixels = image.getRGB(0, 0, size, size, null, 0, size);
+                ColorPalette palette = ColorPalette.of(pixels, 0, size, size, size);
+                if (palette == null) {
+                    continue;
+                }
+                for (int i = 0; i < pixels.length; i++) {
+                    pixels[i] = pixels[i] >>> 24 == 0 ? 0 : pixels[i];
+                }
+
+                for (PngFilter filter : PngFilter.values()) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    PngEncoder.encode(pixels, 0, size, size, size, palette, PngEncoder.DEFAULT_LEVEL, filter, out);
+                    byte[] png = out.toByteArray();
+
+                    assertThat(PngDecoder.decode(png).getPixels()).as("%s at %d", sidc, size).isEqualTo(pixels);
+                    assertThat(ImageIO.read(new ByteArrayInputStream(png)).getRGB(0, 0, size, size, null, 0, size))
+                            .as("%s at %d", sidc, size).isEqualTo(pixels);
+                    if (size == 128 && filter == PngEncoder.DEFAULT_FILTER) {
+                        assertThat(png.length).isLessThan(encode(image, PngEncoder.DEFAULT_LEVEL, filter).length);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThatThrownBy(() -> PngEncoder.encode(new IntRaster(1, 1), 10, PngFilter.NONE))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PngEncoder.encode(new int[0], 0, 0, 0, 1, 4, PngFilter.NONE, new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static BufferedImage render(String sidc, int size) throws Exception {
+        SymbolServiceProperties props = new SymbolServiceProperties();
+        props.put(ServiceConstants.IMAGE_SIZE, size);
+        return ImageUtils.toIntArgb(new MilStdSymbolRenderer().createIcon(sidc, props));
+    }
+
+    private static byte[] encode(BufferedImage image, int level, PngFilter filter) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PngEncoder.encode(PixelKernels.data(image.getRaster()), PixelKernels.offset(image.getRaster()),
+                PixelKernels.scanline(image.getRaster()), image.getWidth(), image.getHeight(), level, filter, out);
+        return out.toByteArray();
+    }
+}
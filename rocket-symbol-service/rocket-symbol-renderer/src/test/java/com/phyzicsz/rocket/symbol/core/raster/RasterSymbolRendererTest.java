@@ -0,0 +1,123 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.raster;
+
+import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
+import com.phyzicsz.rocket.symbol.core.render.MilStdSymbolRenderer;
+import com.phyzicsz.rocket.symbol.core.render.ServiceConstants;
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.List;
+import javax.imageio.ImageIO;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class RasterSymbolRendererTest {
+
+    private static final List<String> SYMBOLS = Arrays.asList(
+            "SFGPUCI--------",
+            "SHAPMF---------",
+            "SUGPE----------",
+            "SNSPC----------",
+            "SAGPU----------",
+            "OHVPA----------",
+            "SFZP-----------");
+
+    public RasterSymbolRendererTest() {
+    }
+
+    /**
+     * Symbols at the default size must be identical to the Java2D renderer's.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testMatchesMilStdSymbolRenderer() throws Exception {
+        RasterSymbolRenderer renderer = new RasterSymbolRenderer();
+        MilStdSymbolRenderer reference = new MilStdSymbolRenderer();
+        SymbolServiceProperties props = new SymbolServiceProperties();
+
+        for (String sidc : SYMBOLS) {
+            assertMatches(renderer.render(sidc, props), reference.createIcon(sidc, props), sidc);
+        }
+    }
+
+    /**
+     * Resized symbols and the dot drawn when frame and icon are off take the
+     * same path as in the Java2D renderer and must be identical to its at
+     * every size and resize quality.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testDotAndResizedMatchMilStdSymbolRenderer() throws Exception {
+        RasterSymbolRenderer renderer = new RasterSymbolRenderer();
+        MilStdSymbolRenderer reference = new MilStdSymbolRenderer();
+
+        for (ResizeQuality quality : ResizeQuality.values()) {
+            for (int size : new int[]{24, 32, 64, 100, 128, 192, 300}) {
+                SymbolServiceProperties props = new SymbolServiceProperties();
+                props.put(ServiceConstants.IMAGE_SIZE, size);
+                props.put(ServiceConstants.RESIZE_QUALITY, quality);
+                for (String sidc : SYMBOLS) {
+                    assertMatches(renderer.render(sidc, props), reference.createIcon(sidc, props),
+                            sidc + " at " + size + " " + quality);
+                }
+
+                props.put(SymbolServiceProperties.SHOW_FRAME, false);
+                props.put(SymbolServiceProperties.SHOW_ICON, false);
+                assertMatches(renderer.render(SYMBOLS.get(0), props), reference.createIcon(SYMBOLS.get(0), props),
+                        "dot at " + size + " " + quality);
+            }
+        }
+    }
+
+    /**
+     * Encoded symbols must decode, with both decoders, to the rendered pixels.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testPngRoundTrip() throws Exception {
+        RasterSymbolRenderer renderer = new RasterSymbolRenderer();
+        SymbolServiceProperties props = new SymbolServiceProperties();
+
+        for (String sidc : SYMBOLS) {
+            IntRaster raster = renderer.render(sidc, props);
+            byte[] png = renderer.asPng(sidc, props);
+
+            assertThat(PngDecoder.decode(png).getPixels()).isEqualTo(raster.getPixels());
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+            assertMatches(raster, image, sidc);
+        }
+    }
+
+    private static void assertMatches(IntRaster actual, BufferedImage expected, String description) {
+        assertThat(actual.getWidth()).as(description).isEqualTo(expected.getWidth());
+        assertThat(actual.getHeight()).as(description).isEqualTo(expected.getHeight());
+
+        int w = expected.getWidth();
+        int[] e = ImageUtils.toIntArgb(expected).getRGB(0, 0, w, expected.getHeight(), null, 0, w);
+        assertThat(actual.getPixels()).as(description).isEqualTo(e);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.render;
+
+import com.phyzicsz.rocket.symbol.code.SymbologyConstants;
+import com.phyzicsz.rocket.symbol.core.cache.ComponentRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ComponentPreloaderTest {
+
+    public ComponentPreloaderTest() {
+    }
+
+    @Test
+    public void testPreloadScheme() throws Exception {
+        try (MilStdSymbolRenderer renderer = new MilStdSymbolRenderer(new ComponentRegistry())) {
+            AtomicInteger reported = new AtomicInteger();
+            ComponentPreloader.Result result = new ComponentPreloader(renderer)
+                    .withProgressListener((loaded, total) -> reported.accumulateAndGet(loaded, Math::max))
+                    .preload(SymbologyConstants.SCHEME_STABILITY_OPERATIONS);
+
+            assertThat(result.isComplete()).isTrue();
+            assertThat(result.getTotal()).isGreaterThan(480);
+            assertThat(reported.get()).isEqualTo(result.getTotal());
+            assertThat(renderer.getComponentCache().size()).isEqualTo(result.getTotal());
+            assertThat(renderer.getComponentCache().getIfPresent("icons/stbops/ofga-----------.png")).isNotNull();
+            assertThat(renderer.getComponentCache().getIfPresent("icons/war/sfgp-----------.png")).isNull();
+        }
+    }
+
+    @Test
+    public void testMemoryBudget() throws Exception {
+        long full;
+        try (MilStdSymbolRenderer renderer = new MilStdSymbolRenderer(new ComponentRegistry())) {
+            full = new ComponentPreloader(renderer)
+                    .preload(SymbologyConstants.SCHEME_STABILITY_OPERATIONS)
+                    .getBytes();
+        }
+
+        try (MilStdSymbolRenderer renderer = new MilStdSymbolRenderer(new ComponentRegistry())) {
+            ComponentPreloader.Result result = new ComponentPreloader(renderer)
+                    .withParallelism(8)
+                    .withMemoryBudget(full / 2)
+                    .preload(SymbologyConstants.SCHEME_STABILITY_OPERATIONS);
+
+            assertThat(result.getBytes()).isPositive().isLessThanOrEqualTo(full / 2);
+            assertThat(result.isComplete()).isFalse();
+            assertThat(renderer.getComponentCache().size()).isEqualTo(result.getLoaded());
+        }
+
+        try (MilStdSymbolRenderer renderer = new MilStdSymbolRenderer(new ComponentRegistry())) {
+            ComponentPreloader.Result result = new ComponentPreloader(renderer)
+                    .withMemoryBudget(1)
+                    .preload(SymbologyConstants.SCHEME_STABILITY_OPERATIONS);
+
+            assertThat(result.getLoaded()).isZero();
+            assertThat(result.getBytes()).isZero();
+        }
+    }
+
+    @Test
+    public void testUnsupportedScheme() {
+        try (MilStdSymbolRenderer renderer = new MilStdSymbolRenderer(new ComponentRegistry())) {
+            assertThatThrownBy(() -> new ComponentPreloader(renderer).preload("X"))
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.render;
+
+import com.phyzicsz.rocket.symbol.code.SymbolCode;
+import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class MilStdSymbolRendererTest {
+
+    private static final List<String> SYMBOLS = Arrays.asList(
+            "SFGPUCI--------",
+            "SHAPMF---------",
+            "SUGPE----------",
+            "SNSPC----------",
+            "SAGPU----------",
+            "OHVPA----------",
+            "SFZP-----------");
+
+    public MilStdSymbolRendererTest() {
+    }
+
+    /**
+     * The fused compositor must match tinting each layer into its own image
+     * and drawing it with Graphics2D.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testMatchesGraphics2DCompositing() throws Exception {
+        MilStdSymbolRenderer renderer = new MilStdSymbolRenderer();
+        SymbolServiceProperties props = new SymbolServiceProperties();
+
+        for (String sidc : SYMBOLS) {
+            BufferedImage expected = reference(renderer, sidc, props);
+            BufferedImage actual = renderer.createIcon(sidc, props);
+            assertWithin(actual, expected, 0, sidc);
+        }
+    }
+
+    /**
+     * Resized symbols are composited in per-thread scratch storage; renders
+     * handed out or cached must never share it.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testResizedRendersDoNotShareScratch() throws Exception {
+        MilStdSymbolRenderer renderer = new MilStdSymbolRenderer();
+        SymbolServiceProperties props = new SymbolServiceProperties();
+        props.put(ServiceConstants.IMAGE_SIZE, 192);
+
+        BufferedImage first = renderer.sharedIcon(SYMBOLS.get(0), props);
+        BufferedImage expected = ImageUtils.copy(first);
+        for (String sidc : SYMBOLS.subList(1, SYMBOLS.size())) {
+            assertThat(renderer.sharedIcon(sidc, props)).isNotSameAs(first);
+        }
+        assertWithin(first, expected, 0, SYMBOLS.get(0));
+        assertThat(renderer.sharedIcon(SYMBOLS.get(0), props)).isSameAs(first);
+        assertThat(renderer.createIcon(SYMBOLS.get(0), props)).isNotSameAs(first);
+    }
+
+    /**
+     * Rendering into a caller's canvas must match drawing the rendered symbol
+     * with Graphics2D, including symbols clipped by the canvas edges.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testRenderIntoMatchesDrawImage() throws Exception {
+        MilStdSymbolRenderer renderer = new MilStdSymbolRenderer();
+        SymbolServiceProperties props = new SymbolServiceProperties();
+        int[][] positions = {{10, 20}, {-30, -5}, {200, 180}, {300, 300}};
+
+        for (int size : new int[]{48, 128, 192}) {
+            BufferedImage expected = canvas();
+            BufferedImage actual = canvas();
+            int[] pixels = canvas().getRGB(0, 0, 256, 256, null, 0, 256);
+            for (int i = 0; i < SYMBOLS.size(); i++) {
+                String sidc = SYMBOLS.get(i);
+                int[] p = positions[i % positions.length];
+
+                SymbolServiceProperties sized = new SymbolServiceProperties();
+                sized.put(ServiceConstants.IMAGE_SIZE, size);
+                BufferedImage icon = ImageUtils.toIntArgb(renderer.createIcon(sidc, sized));
+                Graphics2D g = expected.createGraphics();
+                g.drawImage(icon, p[0], p[1], null);
+                g.dispose();
+
+                renderer.renderInto(sidc, props, actual, p[0], p[1], size);
+                renderer.renderInto(sidc, props, pixels, 256, 256, p[0], p[1], size);
+            }
+            assertWithin(actual, expected, 0, "size " + size);
+            assertThat(actual.getRGB(0, 0, 256, 256, null, 0, 256)).isEqualTo(pixels);
+        }
+    }
+
+    /**
+     * Indexed color renders must read back exactly as the ARGB renders.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testIndexedColorRenders() throws Exception {
+        MilStdSymbolRenderer renderer = new MilStdSymbolRenderer();
+
+        for (int size : new int[]{32, 128}) {
+            SymbolServiceProperties props = new SymbolServiceProperties();
+            props.put(ServiceConstants.IMAGE_SIZE, size);
+            SymbolServiceProperties indexedProps = new SymbolServiceProperties();
+            indexedProps.putAll(props);
+            indexedProps.put(ServiceConstants.INDEXED_COLOR, true);
+
+            for (String sidc : SYMBOLS) {
+                BufferedImage expected = renderer.createIcon(sidc, props);
+                BufferedImage indexed = renderer.sharedIcon(sidc, indexedProps);
+                assertThat(indexed.getType()).as(sidc).isEqualTo(BufferedImage.TYPE_BYTE_INDEXED);
+                assertWithin(indexed, expected, 0, sidc);
+                assertWithin(renderer.createIcon(sidc, indexedProps), expected, 0, sidc);
+                assertThat(renderer.createIcon(sidc, indexedProps).getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB);
+            }
+        }
+    }
+
+    /**
+     * Read only handles read the cached render without copying it, and only
+     * their explicit copies may be modified.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testSymbolImageHandles() throws Exception {
+        MilStdSymbolRenderer renderer = new MilStdSymbolRenderer();
+
+        for (int size : new int[]{48, 128, 192}) {
+            SymbolServiceProperties props = new SymbolServiceProperties();
+            props.put(ServiceConstants.IMAGE_SIZE, size);
+            BufferedImage expected = renderer.createIcon(SYMBOLS.get(0), props);
+            int w = expected.getWidth();
+            int h = expected.getHeight();
+            int[] pixels = expected.getRGB(0, 0, w, h, null, 0, w);
+
+            SymbolImage handle = renderer.symbolImage(SYMBOLS.get(0), props);
+            assertThat(handle.getWidth()).isEqualTo(w);
+            assertThat(handle.getHeight()).isEqualTo(h);
+            assertThat(handle.getRGB()).isEqualTo(pixels);
+            assertThat(handle.getRGB(w / 2, h / 2)).isEqualTo(pixels[(h / 2) * w + w / 2]);
+
+            BufferedImage copy = handle.toBufferedImage();
+            Graphics2D g = copy.createGraphics();
+            g.setColor(Color.MAGENTA);
+            g.fillRect(0, 0, w, h);
+            g.dispose();
+            assertThat(renderer.symbolImage(SYMBOLS.get(0), props).getRGB()).isEqualTo(pixels);
+            assertThat(handle.getRGB()).isEqualTo(pixels);
+        }
+    }
+
+    /**
+     * A batch composited straight into one image must match drawing each
+     * symbol into its clipped rectangle with Graphics2D.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testRenderBatchMatchesDrawImage() throws Exception {
+        MilStdSymbolRenderer renderer = new MilStdSymbolRenderer();
+        SymbolRenderer plain = renderer::createIcon;
+        SymbolServiceProperties props = new SymbolServiceProperties();
+
+        List<BatchEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            int size = 24 + 8 * (i % 5);
+            entries.add(new BatchEntry(SYMBOLS.get(i % SYMBOLS.size()), props,
+                    (i % 8) * 36 - 10, (i / 8) * 56 - 8, size + 4 * (i % 3), size));
+        }
+
+        BufferedImage expected = canvas();
+        BufferedImage actual = canvas();
+        plain.renderBatch(entries, expected);
+        renderer.renderBatch(entries, actual);
+        assertWithin(actual, expected, 0, "batch");
+    }
+
+    /**
+     * Dots are drawn once per fill color and size and shared by every symbol
+     * code that maps to them, custom colors included, and match drawing the
+     * circle directly.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testDotsCachedPerColorAndSize() throws Exception {
+        MilStdSymbolRenderer renderer = new MilStdSymbolRenderer();
+
+        for (int size : new int[]{32, 128, 192}) {
+            SymbolServiceProperties props = new SymbolServiceProperties();
+            props.put(SymbolServiceProperties.SHOW_FRAME, false);
+            props.put(SymbolServiceProperties.SHOW_ICON, false);
+            props.put(ServiceConstants.IMAGE_SIZE, size);
+
+            BufferedImage dot = renderer.sharedIcon("SFGPUCI--------", props);
+            assertThat(renderer.sharedIcon("SFAPMF---------", props)).isSameAs(dot);
+            assertThat(renderer.sharedIcon("SHGPUCI--------", props)).isNotSameAs(dot);
+
+            BufferedImage circle = renderer.drawCircle(new SymbolCode("SFGPUCI--------"), props, null);
+            BufferedImage expected = size == 128 ? circle : ImageUtils.resize(circle, size);
+            assertWithin(dot, expected, 0, "dot at " + size);
+
+            props.put(ServiceConstants.COLOR, new Color(0x12, 0x34, 0x56));
+            BufferedImage custom = renderer.sharedIcon("SFGPUCI--------", props);
+            assertThat(custom).isNotSameAs(dot);
+            assertThat(renderer.sharedIcon("SHGPUCI--------", props)).isSameAs(custom);
+        }
+        assertThat(renderer.getDotCache().size()).isEqualTo(9);
+    }
+
+    private static BufferedImage canvas() {
+        BufferedImage canvas = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 256; y++) {
+            for (int x = 0; x < 256; x++) {
+                canvas.setRGB(x, y, (y / 2) << 24 | x << 16 | (255 - y) << 8 | 0x40);
+            }
+        }
+        return canvas;
+    }
+
+    /**
+     * Symbols drawn at another size are composited premultiplied and resized
+     * without format conversions, and handed out as {@code TYPE_INT_ARGB}
+     * copies; they must match compositing non-premultiplied and resizing
+     * that.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testResizedMatchesNonPremultipliedPipeline() throws Exception {
+        MilStdSymbolRenderer renderer = new MilStdSymbolRenderer();
+        SymbolServiceProperties props = new SymbolServiceProperties();
+        props.put(ServiceConstants.IMAGE_SIZE, 192);
+
+        for (String sidc : SYMBOLS) {
+            BufferedImage expected = ImageUtils.resize(reference(renderer, sidc, props), 192);
+            assertThat(renderer.sharedIcon(sidc, props).getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB_PRE);
+            BufferedImage actual = renderer.createIcon(sidc, props);
+            assertThat(actual.getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB);
+            assertWithinPremultiplied(actual, expected, 1, sidc);
+        }
+    }
+
+    /**
+     * Small symbols composited from scaled components must stay within a
+     * tolerance of compositing full size and resizing: on average within a
+     * quarter of a level per premultiplied channel, and no channel off by
+     * more than an eighth of the range on the few edge pixels where the
+     * layers are sampled differently.
+     *
+     * @throws java.lang.Exception
+     */
+    @Test
+    public void testRenderAtSizeWithinTolerance() throws Exception {
+        MilStdSymbolRenderer renderer = new MilStdSymbolRenderer();
+
+        for (int size : new int[]{16, 32, 48, 64}) {
+            SymbolServiceProperties props = new SymbolServiceProperties();
+            props.put(ServiceConstants.IMAGE_SIZE, size);
+
+            long total = 0;
+            long channels = 0;
+            for (String sidc : SYMBOLS) {
+                BufferedImage expected = ImageUtils.resize(reference(renderer, sidc, props), size);
+                BufferedImage actual = renderer.createIcon(sidc, props);
+                assertThat(actual.getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB);
+                total += assertWithinPremultiplied(actual, expected, 32, sidc);
+                channels += 4L * size * size;
+            }
+            assertThat((double) total / channels).as("mean difference at %d px", size).isLessThan(0.25);
+        }
+    }
+
+    private static BufferedImage reference(MilStdSymbolRenderer renderer, String sidc, SymbolServiceProperties props) throws Exception {
+        SymbolCode code = new SymbolCode(sidc);
+        BufferedImage image = null;
+
+        boolean fill = renderer.mustDrawFill(code, props);
+        boolean frame = renderer.mustDrawFrame(code, props);
+        boolean icon = renderer.mustDrawIcon(code, props);
+
+        if (fill && frame) {
+            image = layer(renderer, renderer.composeFillPath(code), renderer.getFillColor(code, props), image);
+        }
+        if (frame) {
+            image = layer(renderer, renderer.composeFramePath(code), renderer.getFrameColor(code, props), image);
+        }
+        if (icon) {
+            String path = renderer.composeIconPath(code, props);
+            if (path != null) {
+                image = layer(renderer, path, renderer.getIconColor(code, props), image);
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage layer(MilStdSymbolRenderer renderer, String path, Color color, BufferedImage dest) {
+        BufferedImage image = renderer.readImage(path);
+        if (color != null) {
+            renderer.multiply(image, color);
+        }
+        return dest != null ? renderer.drawImage(image, dest) : image;
+    }
+
+    static void assertWithin(BufferedImage actual, BufferedImage expected, int tolerance, String description) {
+        assertThat(actual.getWidth()).isEqualTo(expected.getWidth());
+        assertThat(actual.getHeight()).isEqualTo(expected.getHeight());
+
+        int w = expected.getWidth();
+        int h = expected.getHeight();
+        int[] a = actual.getRGB(0, 0, w, h, null, 0, w);
+        int[] e = expected.getRGB(0, 0, w, h, null, 0, w);
+        for (int i = 0; i < e.length; i++) {
+            int ea = e[i] >>> 24;
+            for (int shift = 0; shift < 32; shift += 8) {
+                if (shift < 24 && ea == 0) {
+                    continue; // color of fully transparent pixels is irrelevant
+                }
+                int diff = Math.abs(((a[i] >>> shift) & 0xff) - ((e[i] >>> shift) & 0xff));
+                assertThat(diff).as("%s pixel (%d, %d) channel %d", description, i % w, i / w, shift / 8)
+                        .isLessThanOrEqualTo(tolerance);
+            }
+        }
+    }
+
+    /**
+     * Compare colors weighted by alpha, since the color of a nearly
+     * transparent pixel does not survive premultiplication.
+     *
+     * @return the sum of the channel differences.
+     */
+    static long assertWithinPremultiplied(BufferedImage actual, BufferedImage expected, int tolerance, String description) {
+        assertThat(actual.getWidth()).isEqualTo(expected.getWidth());
+        assertThat(actual.getHeight()).isEqualTo(expected.getHeight());
+
+        int w = expected.getWidth();
+        int h = expected.getHeight();
+        int[] a = actual.getRGB(0, 0, w, h, null, 0, w);
+        int[] e = expected.getRGB(0, 0, w, h, null, 0, w);
+        long total = 0;
+        for (int i = 0; i < e.length; i++) {
+            int aa = a[i] >>> 24;
+            int ea = e[i] >>> 24;
+            for (int shift = 0; shift < 32; shift += 8) {
+                int ac = (a[i] >>> shift) & 0xff;
+                int ec = (e[i] >>> shift) & 0xff;
+                if (shift < 24) {
+                    ac = Math.round(ac * aa / 255f);
+                    ec = Math.round(ec * ea / 255f);
+                }
+                assertThat(Math.abs(ac - ec)).as("%s pixel (%d, %d) channel %d", description, i % w, i / w, shift / 8)
+                        .isLessThanOrEqualTo(tolerance);
+                total += Math.abs(ac - ec);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,102 @@
+package com.phyzicsz.rocket.symbol.core.utils;
+
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ImageIOPoolTest {
+
+    public ImageIOPoolTest() {
+    }
+
+    @Test
+    public void testMatchesImageIO() throws Exception {
+        BufferedImage image = new BufferedImage(24, 16, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 24; x++) {
+                image.setRGB(x, y, ((x * 10) << 16) | ((y * 15) << 8) | ((x + y) * 5));
+            }
+        }
+
+        for (String format : new String[]{"png", "bmp", "jpeg", "PNG"}) {
+            for (int i = 0; i < 2; i++) {
+                ByteArrayOutputStream expected = new ByteArrayOutputStream();
+                ImageIO.write(image, format, expected);
+                ByteArrayOutputStream actual = new ByteArrayOutputStream();
+                assertThat(ImageIOPool.write(image, format, actual)).isTrue();
+                assertThat(actual.toByteArray()).as(format).isEqualTo(expected.toByteArray());
+
+                BufferedImage decoded = ImageIOPool.read(new ByteArrayInputStream(actual.toByteArray()), format);
+                BufferedImage reference = ImageIO.read(new ByteArrayInputStream(actual.toByteArray()));
+                assertThat(decoded.getRGB(0, 0, 24, 16, null, 0, 24))
+                        .isEqualTo(reference.getRGB(0, 0, 24, 16, null, 0, 24));
+            }
+        }
+    }
+
+    @Test
+    public void testUnknownFormat() throws Exception {
+        BufferedImage image = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB);
+        assertThat(ImageIOPool.write(image, "nope", new ByteArrayOutputStream())).isFalse();
+        assertThat(ImageIOPool.read(new ByteArrayInputStream(new byte[1]), "nope")).isNull();
+        assertThat(ImageIOPool.writeParam("nope")).isNull();
+    }
+
+    @Test
+    public void testWriteParamPerThread() throws Exception {
+        ImageWriteParam param = ImageIOPool.writeParam("jpeg");
+        assertThat(ImageIOPool.writeParam("jpeg")).isSameAs(param);
+        assertThat(CompletableFuture.supplyAsync(() -> ImageIOPool.writeParam("jpeg")).get()).isNotSameAs(param);
+    }
+
+    @Test
+    public void testRecoversFromFailedWrite() throws Exception {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        OutputStream broken = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("broken");
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                throw new IOException("broken");
+            }
+        };
+        ImageWriteParam param = ImageIOPool.writeParam("png");
+        assertThatThrownBy(() -> ImageIOPool.write(image, "png", broken)).isInstanceOf(IOException.class);
+        assertThat(ImageIOPool.writeParam("png")).isNotSameAs(param);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertThat(ImageIOPool.write(image, "png", out)).isTrue();
+        assertThat(ImageIO.read(new ByteArrayInputStream(out.toByteArray())).getWidth()).isEqualTo(64);
+    }
+}
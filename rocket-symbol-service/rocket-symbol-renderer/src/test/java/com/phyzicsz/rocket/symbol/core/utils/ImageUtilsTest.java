@@ -55,4 +55,172 @@ public class ImageUtilsTest {
         assertThat(bufferedImage.getHeight()).isEqualTo(50);
         
     }
+
+    @Test
+    public void testCopyKeepsPremultiplied() {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB_PRE);
+        image.setRGB(3, 4, 0x80ff0000);
+
+        BufferedImage copy = ImageUtils.copy(image.getSubimage(1, 1, 6, 6));
+        assertThat(copy.getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB_PRE);
+        assertThat(copy.getRGB(2, 3)).isEqualTo(image.getRGB(3, 4));
+
+        BufferedImage argb = ImageUtils.toIntArgb(image);
+        assertThat(argb.getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB);
+        assertThat(argb.getRGB(3, 4)).isEqualTo(image.getRGB(3, 4));
+    }
+
+    @Test
+    public void testToIntArgbMatchesGetRGB() {
+        BufferedImage image = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB_PRE);
+        int[] pixels = PixelKernels.data(image.getRaster());
+        for (int a = 0; a < 256; a++) {
+            for (int c = 0; c < 256; c++) {
+                int v = Math.min(c, a);
+                pixels[a * 256 + c] = a << 24 | v << 16 | (a - v) << 8 | v / 2;
+            }
+        }
+
+        BufferedImage argb = ImageUtils.toIntArgb(image);
+        assertThat(argb.getRGB(0, 0, 256, 256, null, 0, 256)).isEqualTo(image.getRGB(0, 0, 256, 256, null, 0, 256));
+    }
+
+    @Test
+    public void testToIndexedIsExact() {
+        BufferedImage image = new BufferedImage(40, 30, BufferedImage.TYPE_INT_ARGB_PRE);
+        int[] pixels = PixelKernels.data(image.getRaster());
+        for (int i = 0; i < pixels.length; i++) {
+            int a = (i % 17) * 15;
+            int v = Math.min(a, (i / 40 % 8) * 30);
+            pixels[i] = a << 24 | v << 16 | (a - v) << 8 | v / 3;
+        }
+
+        BufferedImage indexed = ImageUtils.toIndexed(image);
+        assertThat(indexed.getType()).isEqualTo(BufferedImage.TYPE_BYTE_INDEXED);
+        int[] expected = image.getRGB(0, 0, 40, 30, null, 0, 40);
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = expected[i] >>> 24 == 0 ? 0 : expected[i];
+        }
+        assertThat(indexed.getRGB(0, 0, 40, 30, null, 0, 40)).isEqualTo(expected);
+        assertThat(ImageUtils.toIntArgb(indexed).getRGB(0, 0, 40, 30, null, 0, 40)).isEqualTo(expected);
+        assertThat(ImageUtils.toIndexed(indexed)).isSameAs(indexed);
+
+        ColorPalette palette = ColorPalette.of(expected, 0, 40, 40, 30);
+        for (int i = 0; i < palette.size(); i++) {
+            assertThat(palette.getColor(i) >>> 24 != 0xff).isEqualTo(i < palette.getTranslucentCount());
+            assertThat(palette.indexOf(palette.getColor(i))).isEqualTo(i);
+        }
+    }
+
+    @Test
+    public void testToIndexedKeepsImagesWithManyColors() {
+        BufferedImage image = new BufferedImage(17, 17, BufferedImage.TYPE_INT_ARGB);
+        for (int i = 0; i < 17 * 17; i++) {
+            image.setRGB(i % 17, i / 17, 0xff000000 | i);
+        }
+
+        assertThat(ImageUtils.toIndexed(image)).isSameAs(image);
+        assertThat(ColorPalette.of(PixelKernels.data(image.getRaster()), 0, 17, 17, 17)).isNull();
+        assertThat(ColorPalette.of(PixelKernels.data(image.getRaster()), 0, 17, 16, 16).size()).isEqualTo(256);
+    }
+
+    @Test
+    public void testResizeKeepsPremultiplied() {
+        BufferedImage image = new BufferedImage(100, 100, BufferedImage.TYPE_INT_ARGB_PRE);
+
+        assertThat(ImageUtils.resize(image, 50).getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    @Test
+    public void testResizeQualityDimensions() {
+        BufferedImage image = new BufferedImage(128, 96, BufferedImage.TYPE_INT_ARGB);
+        for (ResizeQuality quality : ResizeQuality.values()) {
+            BufferedImage small = ImageUtils.resize(image, 32, quality);
+            assertThat(small.getWidth()).isEqualTo(32);
+            assertThat(small.getHeight()).isEqualTo(24);
+            assertThat(small.getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB);
+
+            BufferedImage large = ImageUtils.resize(image, 200, quality);
+            assertThat(large.getWidth()).isEqualTo(200);
+            assertThat(large.getHeight()).isEqualTo(150);
+        }
+    }
+
+    @Test
+    public void testNearestCopiesSourcePixels() {
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                image.setRGB(x, y, 0x80000000 | y << 8 | x);
+            }
+        }
+
+        BufferedImage small = ImageUtils.resize(image, 2, ResizeQuality.NEAREST);
+        assertThat(small.getRGB(0, 0)).isEqualTo(image.getRGB(1, 1));
+        assertThat(small.getRGB(1, 1)).isEqualTo(image.getRGB(3, 3));
+
+        BufferedImage large = ImageUtils.resize(image, 8, ResizeQuality.NEAREST);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                assertThat(large.getRGB(x, y)).isEqualTo(image.getRGB(x / 2, y / 2));
+            }
+        }
+    }
+
+    @Test
+    public void testAreaAverageIgnoresTransparentColor() {
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < 4; x++) {
+                // opaque red next to transparent green that must not bleed in
+                image.setRGB(x, y, x % 2 == 0 ? 0xffff0000 : 0x0000ff00);
+            }
+        }
+
+        BufferedImage small = ImageUtils.resize(image, 1, ResizeQuality.AREA_AVERAGE);
+        assertThat(small.getRGB(0, 0)).isEqualTo(0x80ff0000);
+
+        BufferedImage pre = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB_PRE);
+        pre.createGraphics().drawImage(image, 0, 0, null);
+        BufferedImage smallPre = ImageUtils.resize(pre, 1, ResizeQuality.AREA_AVERAGE);
+        assertThat(smallPre.getType()).isEqualTo(BufferedImage.TYPE_INT_ARGB_PRE);
+        assertThat(smallPre.getRGB(0, 0)).isEqualTo(0x80ff0000);
+    }
+
+    @Test
+    public void testProgressiveMatchesAreaAverage() {
+        BufferedImage image = new BufferedImage(128, 128, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 128; y++) {
+            for (int x = 0; x < 128; x++) {
+                image.setRGB(x, y, (x + y) % 2 == 0 ? 0xffffffff : 0xff000000);
+            }
+        }
+
+        // a checkerboard averages to grey, a single bilinear draw aliases
+        BufferedImage area = ImageUtils.resize(image, 16, ResizeQuality.AREA_AVERAGE);
+        BufferedImage progressive = ImageUtils.resize(image, 16, ResizeQuality.PROGRESSIVE);
+        for (int y = 0; y < 16; y++) {
+            for (int x = 0; x < 16; x++) {
+                assertThat(area.getRGB(x, y) & 0xff).isBetween(127, 128);
+                assertThat(progressive.getRGB(x, y) & 0xff).isBetween(120, 135);
+            }
+        }
+    }
+
+    @Test
+    public void testResampleWeights() {
+        ResampleWeights weights = ResampleWeights.of(128, 48);
+        assertThat(ResampleWeights.of(128, 48)).isSameAs(weights);
+        assertThat(weights.getSourceLength()).isEqualTo(128);
+        assertThat(weights.getTargetLength()).isEqualTo(48);
+        for (int i = 0; i < 48; i++) {
+            int sum = 0;
+            for (int k = weights.start[i]; k < weights.start[i + 1]; k++) {
+                assertThat(weights.weights[k]).isPositive();
+                sum += weights.weights[k];
+            }
+            assertThat(sum).isEqualTo(ResampleWeights.ONE);
+        }
+        assertThat(weights.first[47] + weights.start[48] - weights.start[47]).isEqualTo(128);
+    }
 }
@@ -0,0 +1,100 @@
+package com.phyzicsz.rocket.symbol.core.utils;
+
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import javax.imageio.ImageIO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.data.Offset.offset;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class JpegEncoderTest {
+
+    public JpegEncoderTest() {
+    }
+
+    @Test
+    public void testFlattenOntoBackground() {
+        int[] pixels = new int[256 * 256];
+        for (int a = 0; a < 256; a++) {
+            for (int c = 0; c < 256; c++) {
+                pixels[a * 256 + c] = a << 24 | c << 16 | (255 - c) << 8 | c / 2;
+            }
+        }
+        int background = 0xff204060;
+        int[] flat = new int[pixels.length];
+        JpegEncoder.flatten(pixels, 0, 256, 256, 256, background, flat, 0, 256);
+
+        for (int i = 0; i < pixels.length; i++) {
+            int a = pixels[i] >>> 24;
+            for (int shift = 0; shift <= 16; shift += 8) {
+                int s = pixels[i] >> shift & 0xff;
+                int b = background >> shift & 0xff;
+                assertThat(flat[i] >> shift & 0xff).isEqualTo(Math.round((s * a + b * (255 - a)) / 255f));
+            }
+            assertThat(flat[i] >>> 24).isZero();
+        }
+    }
+
+    @Test
+    public void testEncodeDecodes() throws Exception {
+        int size = 64;
+        int[] pixels = new int[size * size];
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                // opaque red square on a transparent field
+                pixels[y * size + x] = x >= 16 && x < 48 && y >= 16 && y < 48 ? 0xffff0000 : 0;
+            }
+        }
+
+        ByteArrayOutputStream best = new ByteArrayOutputStream();
+        JpegEncoder.encode(pixels, 0, size, size, size, 0xff0000ff, 1f, best);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(best.toByteArray()));
+        assertThat(image.getWidth()).isEqualTo(size);
+        assertThat(image.getHeight()).isEqualTo(size);
+        assertNear(image.getRGB(2, 2), 0x0000ff);
+        assertNear(image.getRGB(32, 32), 0xff0000);
+
+        ByteArrayOutputStream small = new ByteArrayOutputStream();
+        JpegEncoder.encode(pixels, 0, size, size, size, 0xff0000ff, 0.1f, small);
+        assertThat(small.size()).isLessThan(best.size());
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        assertThatThrownBy(() -> JpegEncoder.encode(new int[1], 0, 1, 1, 1, 0, 1.5f, new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> JpegEncoder.encode(new int[1], 0, 1, 1, 1, 0, Float.NaN, new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> JpegEncoder.encode(new int[0], 0, 0, 0, 1, 0, 0.5f, new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void assertNear(int actual, int expected) {
+        for (int shift = 0; shift <= 16; shift += 8) {
+            assertThat(actual >> shift & 0xff).isCloseTo(expected >> shift & 0xff,
+                    offset(8));
+        }
+    }
+}
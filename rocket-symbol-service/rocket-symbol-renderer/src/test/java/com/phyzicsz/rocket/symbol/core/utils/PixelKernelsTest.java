@@ -0,0 +1,243 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class PixelKernelsTest {
+
+    public PixelKernelsTest() {
+    }
+
+    @Test
+    public void testMul255() {
+        for (int a = 0; a < 256; a++) {
+            for (int b = 0; b < 256; b++) {
+                assertThat(PixelKernels.mul255(a, b)).isEqualTo(Math.round(a * b / 255f));
+            }
+        }
+    }
+
+    @Test
+    public void testMultiplyMatchesFloat() {
+        Random random = new Random(2525);
+        int[] colors = {0xffff8080, 0xff80e0ff, 0xffaaffaa, 0xffffff80, 0xffffa1ff, 0xff000000, 0x80ff8c00};
+
+        for (int color : colors) {
+            BufferedImage image = new BufferedImage(37, 23, BufferedImage.TYPE_INT_ARGB);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    image.setRGB(x, y, random.nextInt());
+                }
+            }
+            int[] expected = floatMultiply(image.getRGB(0, 0, 37, 23, null, 0, 37), color);
+
+            PixelKernels.multiply(image, color);
+            assertWithinOne(image.getRGB(0, 0, 37, 23, null, 0, 37), expected);
+        }
+    }
+
+    @Test
+    public void testMultiplyOverMatchesGraphics2D() {
+        Random random = new Random(2525);
+        int[] colors = {0xffffffff, 0xff80e0ff, 0xffffa1ff, 0xff000000};
+
+        for (int color : colors) {
+            BufferedImage src = new BufferedImage(41, 29, BufferedImage.TYPE_INT_ARGB);
+            BufferedImage dest = new BufferedImage(41, 29, BufferedImage.TYPE_INT_ARGB);
+            for (int y = 0; y < src.getHeight(); y++) {
+                for (int x = 0; x < src.getWidth(); x++) {
+                    src.setRGB(x, y, random.nextInt());
+                    dest.setRGB(x, y, random.nextInt());
+                }
+            }
+
+            BufferedImage tinted = new BufferedImage(41, 29, BufferedImage.TYPE_INT_ARGB);
+            PixelKernels.multiply(src, color, tinted);
+            BufferedImage expected = new BufferedImage(41, 29, BufferedImage.TYPE_INT_ARGB);
+            expected.setRGB(0, 0, 41, 29, dest.getRGB(0, 0, 41, 29, null, 0, 41), 0, 41);
+            Graphics2D g = expected.createGraphics();
+            g.drawImage(tinted, 0, 0, null);
+            g.dispose();
+
+            PixelKernels.multiplyOver(src, color, dest);
+            assertThat(dest.getRGB(0, 0, 41, 29, null, 0, 41))
+                    .isEqualTo(expected.getRGB(0, 0, 41, 29, null, 0, 41));
+        }
+    }
+
+    @Test
+    public void testPremultipliedMatchesGraphics2D() {
+        Random random = new Random(2525);
+        int[] colors = {0xffffffff, 0xff80e0ff, 0xff000000};
+
+        for (int color : colors) {
+            BufferedImage src = new BufferedImage(41, 29, BufferedImage.TYPE_INT_ARGB);
+            BufferedImage dest = new BufferedImage(41, 29, BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = dest.createGraphics();
+            for (int y = 0; y < src.getHeight(); y++) {
+                for (int x = 0; x < src.getWidth(); x++) {
+                    src.setRGB(x, y, random.nextInt());
+                    g.setColor(new Color(random.nextInt(), true));
+                    g.fillRect(x, y, 1, 1);
+                }
+            }
+            g.dispose();
+
+            BufferedImage tinted = new BufferedImage(41, 29, BufferedImage.TYPE_INT_ARGB);
+            PixelKernels.multiply(src, color, tinted);
+
+            BufferedImage expected = new BufferedImage(41, 29, BufferedImage.TYPE_INT_ARGB_PRE);
+            g = expected.createGraphics();
+            g.setComposite(AlphaComposite.Src);
+            g.drawImage(tinted, 0, 0, null);
+            g.dispose();
+            BufferedImage actual = new BufferedImage(41, 29, BufferedImage.TYPE_INT_ARGB_PRE);
+            PixelKernels.multiply(src, color, actual);
+            assertThat(PixelKernels.data(actual.getRaster())).isEqualTo(PixelKernels.data(expected.getRaster()));
+
+            expected = ImageUtils.copy(dest);
+            g = expected.createGraphics();
+            g.drawImage(tinted, 0, 0, null);
+            g.dispose();
+            PixelKernels.multiplyOver(src, color, dest);
+            assertThat(PixelKernels.data(dest.getRaster())).isEqualTo(PixelKernels.data(expected.getRaster()));
+        }
+    }
+
+    @Test
+    public void testMultiplySubimage() {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                image.setRGB(x, y, 0xffffffff);
+            }
+        }
+
+        PixelKernels.multiply(image.getSubimage(2, 3, 4, 2), 0xff102030);
+
+        for (int y = 0; y < 8; y++) {
+            for (int x = 0; x < 8; x++) {
+                boolean inside = x >= 2 && x < 6 && y >= 3 && y < 5;
+                assertThat(image.getRGB(x, y)).isEqualTo(inside ? 0xff102030 : 0xffffffff);
+            }
+        }
+    }
+
+    @Test
+    public void testMultiplyOtherImageType() {
+        BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_4BYTE_ABGR);
+        image.setRGB(1, 1, 0xffffffff);
+
+        PixelKernels.multiply(image, 0xff8040c0);
+
+        assertThat(image.getRGB(1, 1)).isEqualTo(0xff8040c0);
+        assertThat(image.getRGB(0, 0)).isZero();
+    }
+
+    /**
+     * The active kernel, vectorized on JDK 17+, must match the scalar kernel
+     * bit for bit, including on rows that are not a multiple of the vector
+     * length and on runs of transparent, opaque and partially transparent
+     * pixels.
+     */
+    @Test
+    public void testKernelMatchesScalar() {
+        Random random = new Random(2525);
+        int width = 67;
+        int height = 19;
+        int scanline = 80;
+        int offset = 5;
+        int[] src = new int[offset + scanline * height];
+        int[] dest = new int[src.length];
+        for (int i = 0; i < src.length; i++) {
+            int run = (i / 24) % 4;
+            int alpha = run == 0 ? 0 : run == 1 ? 0xff : run == 2 ? random.nextInt(256) : (i & 1) * 0xff;
+            src[i] = alpha << 24 | (random.nextInt() & 0xffffff);
+            dest[i] = random.nextInt();
+        }
+
+        TintKernel scalar = new ScalarTintKernel();
+        TintKernel kernel = PixelKernels.kernel();
+        for (int color : new int[]{0xffffffff, 0xff80e0ff, 0x80ff8c00}) {
+            int[] expected = new int[src.length];
+            int[] actual = new int[src.length];
+            scalar.multiply(src, offset, scanline, expected, offset, scanline, width, height, color);
+            kernel.multiply(src, offset, scanline, actual, offset, scanline, width, height, color);
+            assertThat(actual).isEqualTo(expected);
+
+            expected = dest.clone();
+            actual = dest.clone();
+            scalar.multiplyOver(src, offset, scanline, expected, offset, scanline, width, height, color);
+            kernel.multiplyOver(src, offset, scanline, actual, offset, scanline, width, height, color);
+            assertThat(actual).isEqualTo(expected);
+
+            expected = new int[src.length];
+            actual = new int[src.length];
+            scalar.multiplyPre(src, offset, scanline, expected, offset, scanline, width, height, color);
+            kernel.multiplyPre(src, offset, scanline, actual, offset, scanline, width, height, color);
+            assertThat(actual).isEqualTo(expected);
+
+            int[] premultiplied = expected;
+            expected = premultiplied.clone();
+            actual = premultiplied.clone();
+            scalar.multiplyOverPre(src, offset, scanline, expected, offset, scanline, width, height, ~color | 0xff000000);
+            kernel.multiplyOverPre(src, offset, scanline, actual, offset, scanline, width, height, ~color | 0xff000000);
+            assertThat(actual).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * The float multiply the renderer used before the integer kernel.
+     */
+    private static int[] floatMultiply(int[] pixels, int c) {
+        float ca = ((c >> 24) & 0xff) / 255f;
+        float cr = ((c >> 16) & 0xff) / 255f;
+        float cg = ((c >> 8) & 0xff) / 255f;
+        float cb = (c & 0xff) / 255f;
+
+        int[] out = new int[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            int s = pixels[i];
+            int fa = (int) (ca * (((s >> 24) & 0xff) / 255f) * 255 + 0.5);
+            int fr = (int) (cr * (((s >> 16) & 0xff) / 255f) * 255 + 0.5);
+            int fg = (int) (cg * (((s >> 8) & 0xff) / 255f) * 255 + 0.5);
+            int fb = (int) (cb * ((s & 0xff) / 255f) * 255 + 0.5);
+            out[i] = (fa & 0xff) << 24 | (fr & 0xff) << 16 | (fg & 0xff) << 8 | (fb & 0xff);
+        }
+        return out;
+    }
+
+    private static void assertWithinOne(int[] actual, int[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            for (int shift = 0; shift < 32; shift += 8) {
+                int a = (actual[i] >>> shift) & 0xff;
+                int e = (expected[i] >>> shift) & 0xff;
+                assertThat(Math.abs(a - e)).as("pixel %d channel %d", i, shift / 8).isLessThanOrEqualTo(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class RowTasksTest {
+
+    public RowTasksTest() {
+    }
+
+    @AfterEach
+    public void restoreThreshold() {
+        RowTasks.setThreshold(RowTasks.DEFAULT_THRESHOLD);
+    }
+
+    @Test
+    public void testEveryRowOnce() {
+        RowTasks.setThreshold(1);
+        int height = 1000;
+        AtomicIntegerArray visits = new AtomicIntegerArray(height);
+        RowTasks.forRows(4096, height, (from, to) -> {
+            for (int y = from; y < to; y++) {
+                visits.incrementAndGet(y);
+            }
+        });
+        for (int y = 0; y < height; y++) {
+            assertThat(visits.get(y)).as("row %d", y).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void testSmallRegionsRunOnCaller() {
+        Thread caller = Thread.currentThread();
+        int[] bands = new int[1];
+        RowTasks.forRows(128, 128, (from, to) -> {
+            assertThat(Thread.currentThread()).isSameAs(caller);
+            assertThat(from).isEqualTo(0);
+            assertThat(to).isEqualTo(128);
+            bands[0]++;
+        });
+        assertThat(bands[0]).isEqualTo(1);
+        assertThat(RowTasks.isParallel(128, 128)).isFalse();
+    }
+
+    @Test
+    public void testInvalidThreshold() {
+        assertThatThrownBy(() -> RowTasks.setThreshold(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * Kernels split across rows must produce exactly the single threaded
+     * output.
+     */
+    @Test
+    public void testParallelKernelsMatchSerial() {
+        Random random = new Random(2525);
+        int w = 613;
+        int h = 587;
+        int[] src = new int[w * h];
+        int[] dest = new int[w * h];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = random.nextInt();
+            dest[i] = random.nextInt();
+        }
+        int tw = 1531;
+        int th = 1499;
+
+        RowTasks.setThreshold(Integer.MAX_VALUE);
+        int[] serialOver = dest.clone();
+        PixelKernels.multiplyOverPre(src, 0, w, serialOver, 0, w, w, h, 0xff80e0ff);
+        int[] serialUnpre = new int[w * h];
+        PixelKernels.unpremultiply(serialOver, 0, w, serialUnpre, 0, w, w, h);
+        int[] serialBilinear = new int[tw * th];
+        Resampler.bilinear(src, 0, w, w, h, serialBilinear, 0, tw, tw, th);
+        int[] serialArea = new int[97 * 93];
+        Resampler.areaAverage(src, 0, w, w, h, serialArea, 0, 97, 97, 93, false, false);
+
+        RowTasks.setThreshold(1);
+        int[] over = dest.clone();
+        PixelKernels.multiplyOverPre(src, 0, w, over, 0, w, w, h, 0xff80e0ff);
+        assertThat(over).isEqualTo(serialOver);
+        int[] unpre = new int[w * h];
+        PixelKernels.unpremultiply(over, 0, w, unpre, 0, w, w, h);
+        assertThat(unpre).isEqualTo(serialUnpre);
+        int[] bilinear = new int[tw * th];
+        Resampler.bilinear(src, 0, w, w, h, bilinear, 0, tw, tw, th);
+        assertThat(bilinear).isEqualTo(serialBilinear);
+        int[] area = new int[97 * 93];
+        Resampler.areaAverage(src, 0, w, w, h, area, 0, 97, 97, 93, false, false);
+        assertThat(area).isEqualTo(serialArea);
+    }
+}
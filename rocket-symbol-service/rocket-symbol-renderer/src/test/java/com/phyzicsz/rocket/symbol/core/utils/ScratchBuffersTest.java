@@ -0,0 +1,76 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class ScratchBuffersTest {
+
+    public ScratchBuffersTest() {
+    }
+
+    @Test
+    public void testReusedPerThread() throws Exception {
+        BufferedImage image = ScratchBuffers.image(128, 128, BufferedImage.TYPE_INT_ARGB_PRE);
+        assertThat(ScratchBuffers.image(128, 128, BufferedImage.TYPE_INT_ARGB_PRE)).isSameAs(image);
+        assertThat(ScratchBuffers.image(128, 128, BufferedImage.TYPE_INT_ARGB)).isNotSameAs(image);
+        assertThat(ScratchBuffers.row(0, 64)).isSameAs(ScratchBuffers.row(0, 32));
+        assertThat(ScratchBuffers.row(0, 64)).isNotSameAs(ScratchBuffers.row(1, 64));
+
+        BufferedImage other = CompletableFuture.supplyAsync(
+                () -> ScratchBuffers.image(128, 128, BufferedImage.TYPE_INT_ARGB_PRE)).get();
+        assertThat(other).isNotSameAs(image);
+    }
+
+    @Test
+    public void testLargeBuffersNotRetained() {
+        BufferedImage large = ScratchBuffers.image(2048, 2048, BufferedImage.TYPE_INT_ARGB);
+        assertThat(ScratchBuffers.image(2048, 2048, BufferedImage.TYPE_INT_ARGB)).isNotSameAs(large);
+    }
+
+    @Test
+    public void testOutputIsReset() throws Exception {
+        ByteArrayOutputStream output = ScratchBuffers.output();
+        output.write(new byte[]{1, 2, 3});
+        ByteArrayOutputStream again = ScratchBuffers.output();
+        assertThat(again).isSameAs(output);
+        assertThat(again.size()).isZero();
+        assertThat(ScratchBuffers.output(1)).isNotSameAs(output);
+    }
+
+    @Test
+    public void testContents() throws Exception {
+        ByteArrayOutputStream output = ScratchBuffers.output();
+        output.write(new byte[]{1, 2, 3});
+        ByteBuffer contents = ScratchBuffers.contents(output);
+        assertThat(contents.isReadOnly()).isTrue();
+        assertThat(contents.remaining()).isEqualTo(3);
+        assertThat(contents.get(2)).isEqualTo((byte) 3);
+
+        ByteArrayOutputStream plain = new ByteArrayOutputStream();
+        plain.write(new byte[]{4, 5});
+        assertThat(ScratchBuffers.contents(plain)).isEqualTo(ByteBuffer.wrap(new byte[]{4, 5}));
+    }
+}
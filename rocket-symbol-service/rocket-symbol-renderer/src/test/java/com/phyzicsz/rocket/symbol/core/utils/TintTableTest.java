@@ -0,0 +1,66 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.core.utils;
+
+import com.phyzicsz.rocket.symbol.core.render.MilStdSymbolRenderer;
+import java.awt.Color;
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+public class TintTableTest {
+
+    public TintTableTest() {
+    }
+
+    @Test
+    public void testTableMatchesMul255() {
+        int color = 0x80ff8c20;
+        TintTable table = TintTable.of(color);
+
+        for (int i = 0; i < 256; i++) {
+            int pixel = i << 24 | i << 16 | (255 - i) << 8 | i;
+            int expected = PixelKernels.mul255(i, 0x80) << 24
+                    | PixelKernels.mul255(i, 0xff) << 16
+                    | PixelKernels.mul255(255 - i, 0x8c) << 8
+                    | PixelKernels.mul255(i, 0x20);
+            assertThat(table.tint(pixel)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testPaletteIsRegistered() {
+        // loading the renderer registers its fixed colors
+        assertThat(new MilStdSymbolRenderer()).isNotNull();
+
+        int friendFill = new Color(128, 224, 255).getRGB();
+        assertThat(TintTable.isRegistered(friendFill)).isTrue();
+        assertThat(TintTable.of(friendFill)).isSameAs(TintTable.of(friendFill));
+        assertThat(TintTable.isRegistered(0xff123456)).isFalse();
+    }
+
+    @Test
+    public void testCustomColorsAreBounded() {
+        for (int i = 0; i < TintTable.DEFAULT_CUSTOM_CACHE_SIZE * 4; i++) {
+            assertThat(TintTable.of(0xff000000 | i * 31).getColor()).isEqualTo(0xff000000 | i * 31);
+        }
+
+        assertThat(TintTable.customSize()).isLessThanOrEqualTo(TintTable.DEFAULT_CUSTOM_CACHE_SIZE);
+    }
+}
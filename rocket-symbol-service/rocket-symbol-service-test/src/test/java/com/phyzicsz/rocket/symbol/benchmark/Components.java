@@ -0,0 +1,43 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.benchmark;
+
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import javax.imageio.ImageIO;
+
+/**
+ * Loads symbol components from the renderer's resources for benchmarks.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+final class Components {
+
+    private Components() {
+
+    }
+
+    static BufferedImage read(String path) throws IOException {
+        try (InputStream is = Components.class.getResourceAsStream("/symbols/" + path)) {
+            if (is == null) {
+                throw new IOException("missing component: " + path);
+            }
+            return ImageUtils.toIntArgb(ImageIO.read(is));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.benchmark;
+
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import com.phyzicsz.rocket.symbol.core.utils.JpegEncoder;
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Encoding a friendly ground unit as JPEG: drawing it onto a white RGB image
+ * and calling {@code ImageIO.write}, which looks up a writer and opens a
+ * cache stream on every call, against {@link JpegEncoder}'s one pass flatten
+ * and per thread writer.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class JpegEncodeBenchmark {
+
+    @Param({"20", "64", "128"})
+    private int size;
+
+    private BufferedImage symbol;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(16 * 1024);
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        BufferedImage fill = Components.read("fills/tacsym/-fg------------.png");
+        BufferedImage full = new BufferedImage(fill.getWidth(), fill.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        PixelKernels.multiply(fill, 0xff80e0ff, full);
+        PixelKernels.multiplyOver(Components.read("frames/tacsym/-fgp-----------.png"), 0xff000000, full);
+        PixelKernels.multiplyOver(Components.read("icons/war/sfgpuci--------.png"), 0xff000000, full);
+        symbol = ImageUtils.toIntArgb(ImageUtils.resize(full, size));
+    }
+
+    @Benchmark
+    public byte[] imageIO() throws IOException {
+        out.reset();
+        BufferedImage rgb = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        g.drawImage(symbol, 0, 0, Color.WHITE, null);
+        g.dispose();
+        ImageIO.write(rgb, "jpg", out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] encoder() throws IOException {
+        out.reset();
+        WritableRaster raster = symbol.getRaster();
+        JpegEncoder.encode(PixelKernels.data(raster), PixelKernels.offset(raster), PixelKernels.scanline(raster),
+                size, size, JpegEncoder.DEFAULT_BACKGROUND, JpegEncoder.DEFAULT_QUALITY, out);
+        return out.toByteArray();
+    }
+}
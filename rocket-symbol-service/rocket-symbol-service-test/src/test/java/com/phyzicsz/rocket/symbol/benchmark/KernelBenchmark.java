@@ -0,0 +1,93 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.benchmark;
+
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
+import com.phyzicsz.rocket.symbol.core.utils.ScalarTintKernel;
+import com.phyzicsz.rocket.symbol.core.utils.TintKernel;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The scalar tint kernel against the kernel {@link PixelKernels} selected for
+ * the running JDK, tinting a 128x128 fill and compositing a frame over it.
+ * Run on JDK 17+ with {@code -Dbenchmark.jvmArgs=--add-modules=jdk.incubator.vector}
+ * to measure the Vector API kernel.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class KernelBenchmark {
+
+    private static final int COLOR = 0xff80e0ff;
+
+    @Param({"scalar", "active"})
+    public String kernel;
+
+    private TintKernel tintKernel;
+    private int[] fill;
+    private int[] frame;
+    private int[] dest;
+    private int width;
+    private int height;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        tintKernel = "scalar".equals(kernel) ? new ScalarTintKernel() : PixelKernels.kernel();
+        BufferedImage fillImage = Components.read("fills/tacsym/-fg------------.png");
+        BufferedImage frameImage = Components.read("frames/tacsym/-fgp-----------.png");
+        width = fillImage.getWidth();
+        height = fillImage.getHeight();
+        fill = pixels(fillImage);
+        frame = pixels(frameImage);
+        dest = new int[width * height];
+    }
+
+    @Benchmark
+    public int[] tint() {
+        tintKernel.multiply(fill, 0, width, dest, 0, width, width, height, COLOR);
+        return dest;
+    }
+
+    @Benchmark
+    public int[] tintAndComposite() {
+        tintKernel.multiply(fill, 0, width, dest, 0, width, width, height, COLOR);
+        tintKernel.multiplyOver(frame, 0, width, dest, 0, width, width, height, 0xff000000);
+        return dest;
+    }
+
+    private static int[] pixels(BufferedImage image) {
+        return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+    }
+}
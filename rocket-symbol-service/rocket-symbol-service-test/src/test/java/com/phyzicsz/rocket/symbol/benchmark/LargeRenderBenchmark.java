@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.benchmark;
+
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+import com.phyzicsz.rocket.symbol.core.utils.RowTasks;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resizing a friendly ground unit to print sizes and tinting the result,
+ * single threaded and split across rows on the fork/join pool.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LargeRenderBenchmark {
+
+    @Param({"true", "false"})
+    private boolean parallel;
+
+    @Param({"NEAREST", "AREA_AVERAGE"})
+    private ResizeQuality quality;
+
+    @Param({"1024", "4096"})
+    private int size;
+
+    private BufferedImage symbol;
+
+    private BufferedImage large;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        RowTasks.setThreshold(parallel ? RowTasks.DEFAULT_THRESHOLD : Integer.MAX_VALUE);
+        BufferedImage fill = Components.read("fills/tacsym/-fg------------.png");
+        symbol = new BufferedImage(fill.getWidth(), fill.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        PixelKernels.multiply(fill, 0xff80e0ff, symbol);
+        PixelKernels.multiplyOver(Components.read("frames/tacsym/-fgp-----------.png"), 0xff000000, symbol);
+        PixelKernels.multiplyOver(Components.read("icons/war/sfgpuci--------.png"), 0xff000000, symbol);
+        large = ImageUtils.resize(symbol, size, ResizeQuality.NEAREST);
+    }
+
+    @Benchmark
+    public BufferedImage resize() {
+        return ImageUtils.resize(symbol, size, quality);
+    }
+
+    @Benchmark
+    public BufferedImage tint() {
+        PixelKernels.multiply(large, 0xffffffff);
+        return large;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.benchmark;
+
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compositing a friendly ground unit and resizing it to 32 px, keeping the
+ * layers non-premultiplied against keeping them premultiplied and converting
+ * once at the end, as the encoder does.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PremultipliedBenchmark {
+
+    private static final int SIZE = 32;
+
+    private BufferedImage fill;
+    private BufferedImage frame;
+    private BufferedImage icon;
+    private BufferedImage straight;
+    private BufferedImage premultiplied;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        fill = Components.read("fills/tacsym/-fg------------.png");
+        frame = Components.read("frames/tacsym/-fgp-----------.png");
+        icon = Components.read("icons/war/sfgpuci--------.png");
+        straight = composite(BufferedImage.TYPE_INT_ARGB);
+        premultiplied = composite(BufferedImage.TYPE_INT_ARGB_PRE);
+    }
+
+    @Benchmark
+    public BufferedImage nonPremultiplied() {
+        return ImageUtils.toIntArgb(ImageUtils.resize(composite(BufferedImage.TYPE_INT_ARGB), SIZE));
+    }
+
+    @Benchmark
+    public BufferedImage premultiplied() {
+        return ImageUtils.toIntArgb(ImageUtils.resize(composite(BufferedImage.TYPE_INT_ARGB_PRE), SIZE));
+    }
+
+    @Benchmark
+    public BufferedImage resizeNonPremultiplied() {
+        return ImageUtils.resize(straight, SIZE);
+    }
+
+    @Benchmark
+    public BufferedImage resizePremultiplied() {
+        return ImageUtils.resize(premultiplied, SIZE);
+    }
+
+    private BufferedImage composite(int type) {
+        BufferedImage image = new BufferedImage(fill.getWidth(), fill.getHeight(), type);
+        PixelKernels.multiply(fill, 0xff80e0ff, image);
+        PixelKernels.multiplyOver(frame, 0xff000000, image);
+        PixelKernels.multiplyOver(icon, 0xff000000, image);
+        return image;
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.benchmark;
+
+import com.phyzicsz.rocket.symbol.code.SymbolServiceProperties;
+import com.phyzicsz.rocket.symbol.core.exception.UnsupportedMimeType;
+import com.phyzicsz.rocket.symbol.core.render.MilStdSymbolRenderer;
+import com.phyzicsz.rocket.symbol.core.render.ServiceConstants;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering a small symbol, bypassing the render cache: compositing
+ * components scaled to the requested size against compositing full size
+ * components and resizing the result.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderAtSizeBenchmark {
+
+    private static final String SIDC = "SFGPUCI--------";
+
+    @Param({"16", "32", "64"})
+    public int size;
+
+    private UncachedRenderer atSize;
+    private UncachedRenderer resized;
+    private SymbolServiceProperties props;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException, UnsupportedMimeType {
+        atSize = new UncachedRenderer(true);
+        resized = new UncachedRenderer(false);
+        props = new SymbolServiceProperties();
+        props.put(ServiceConstants.IMAGE_SIZE, size);
+        atSize.render(SIDC, props);
+        resized.render(SIDC, props);
+    }
+
+    @Benchmark
+    public BufferedImage renderAtSize() throws IOException, UnsupportedMimeType {
+        return atSize.render(SIDC, props);
+    }
+
+    @Benchmark
+    public BufferedImage renderAndResize() throws IOException, UnsupportedMimeType {
+        return resized.render(SIDC, props);
+    }
+
+    static class UncachedRenderer extends MilStdSymbolRenderer {
+
+        private final boolean atSize;
+
+        UncachedRenderer(boolean atSize) {
+            this.atSize = atSize;
+        }
+
+        BufferedImage render(String sidc, SymbolServiceProperties params) throws IOException, UnsupportedMimeType {
+            return this.renderIcon(sidc, params);
+        }
+
+        @Override
+        protected boolean renderAtSize(Integer size) {
+            return atSize && super.renderAtSize(size);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.benchmark;
+
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
+import com.phyzicsz.rocket.symbol.core.utils.ResizeQuality;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Resizing a composited friendly ground unit from the component size with
+ * each resize quality.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ResizeBenchmark {
+
+    @Param({"NEAREST", "BILINEAR", "PROGRESSIVE", "AREA_AVERAGE"})
+    private ResizeQuality quality;
+
+    @Param({"32", "64"})
+    private int size;
+
+    private BufferedImage symbol;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        BufferedImage fill = Components.read("fills/tacsym/-fg------------.png");
+        symbol = new BufferedImage(fill.getWidth(), fill.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        PixelKernels.multiply(fill, 0xff80e0ff, symbol);
+        PixelKernels.multiplyOver(Components.read("frames/tacsym/-fgp-----------.png"), 0xff000000, symbol);
+        PixelKernels.multiplyOver(Components.read("icons/war/sfgpuci--------.png"), 0xff000000, symbol);
+    }
+
+    @Benchmark
+    public BufferedImage resize() {
+        return ImageUtils.resize(symbol, size, quality);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 phyzicsz <phyzics.z@gmail.com>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.phyzicsz.rocket.symbol.benchmark;
+
+import com.phyzicsz.rocket.symbol.core.utils.ImageUtils;
+import com.phyzicsz.rocket.symbol.core.utils.PixelKernels;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tinting a 128x128 symbol fill: the float getRGB/setRGB multiply the renderer
+ * used to do against the integer kernel.
+ *
+ * @author phyzicsz <phyzics.z@gmail.com>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TintBenchmark {
+
+    private static final int COLOR = 0xff80e0ff;
+
+    private BufferedImage source;
+    private BufferedImage image;
+
+    @Setup(Level.Trial)
+    public void load() throws IOException {
+        source = Components.read("fills/tacsym/-fg------------.png");
+    }
+
+    @Setup(Level.Invocation)
+    public void reset() {
+        image = ImageUtils.copy(source);
+    }
+
+    @Benchmark
+    public BufferedImage floatMultiply() {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int[] pixels = new int[w];
+        float ca = ((COLOR >> 24) & 0xff) / 255f;
+        float cr = ((COLOR >> 16) & 0xff) / 255f;
+        float cg = ((COLOR >> 8) & 0xff) / 255f;
+        float cb = (COLOR & 0xff) / 255f;
+
+        for (int y = 0; y < h; y++) {
+            image.getRGB(0, y, w, 1, pixels, 0, w);
+            for (int x = 0; x < w; x++) {
+                int s = pixels[x];
+                int fa = (int) (ca * (((s >> 24) & 0xff) / 255f) * 255 + 0.5);
+                int fr = (int) (cr * (((s >> 16) & 0xff) / 255f) * 255 + 0.5);
+                int fg = (int) (cg * (((s >> 8) & 0xff) / 255f) * 255 + 0.5);
+                int fb = (int) (cb * ((s & 0xff) / 255f) * 255 + 0.5);
+                pixels[x] = (fa & 0xff) << 24 | (fr & 0xff) << 16 | (fg & 0xff) << 8 | (fb & 0xff);
+            }
+            image.setRGB(0, y, w, 1, pixels, 0, w);
+        }
+        return image;
+    }
+
+    @Benchmark
+    public BufferedImage integerKernel() {
+        PixelKernels.multiply(image, COLOR);
+        return image;
+    }
+}